@@ -1,8 +1,11 @@
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, HTTPException, Request
+from starlette.concurrency import run_in_threadpool
 from fastapi.middleware.cors import CORSMiddleware
 from pydantic import BaseModel
-from typing import Optional
+from typing import List, Optional
+import json
 import logging
+import os
 from models.story_point_estimator import StoryPointEstimator
 
 logging.basicConfig(level=logging.INFO)
@@ -22,6 +25,10 @@ app.add_middleware(
 # Global instances
 estimator = None
 
+# Training set received from Tasks-Service, keyed by task id (kept so incremental
+# training only has to receive the tasks that changed)
+TRAINING_SET_PATH = os.path.join("data", "models", "training_set.json")
+
 class TaskData(BaseModel):
     title: str
     description: Optional[str] = ""
@@ -70,13 +77,130 @@ async def estimate_story_points(task: TaskData):
             "estimated_story_points": result["story_points"],
             "confidence": result["confidence"],
             "reasoning": result["reasoning"],
-            "features_used": result["features"]
+            "features_used": result["features"],
+            "model_version": estimator.model_version
         }
         
     except Exception as e:
         logger.error(f"Error estimating: {e}")
         raise HTTPException(status_code=500, detail=str(e))
 
+class TaskBatch(BaseModel):
+    tasks: List[TaskData]
+
+@app.post("/estimate/batch")
+async def estimate_story_points_batch(batch: TaskBatch):
+    """Estimate many tasks in one request; results keep the input order.
+    A task that fails gets {"error": ...} instead of failing the whole batch."""
+    if estimator is None:
+        raise HTTPException(status_code=503, detail="Model not available")
+
+    results = []
+    for task in batch.tasks:
+        try:
+            result = estimator.estimate(
+                title=task.title,
+                description=task.description,
+                priority=task.priority,
+                attachments_count=task.attachments_count,
+                task_type=task.label
+            )
+            results.append({
+                "estimated_story_points": result["story_points"],
+                "confidence": result["confidence"],
+                "reasoning": result["reasoning"],
+                "features_used": result["features"]
+            })
+        except Exception as e:
+            logger.error(f"Error estimating in batch: {e}")
+            results.append({"error": str(e)})
+
+    return {"results": results, "model_version": estimator.model_version}
+
+def load_training_set():
+    if not os.path.exists(TRAINING_SET_PATH):
+        return {}
+    with open(TRAINING_SET_PATH, "r", encoding="utf-8") as f:
+        return json.load(f)
+
+def save_training_set(samples):
+    os.makedirs(os.path.dirname(TRAINING_SET_PATH), exist_ok=True)
+    tmp_path = TRAINING_SET_PATH + ".tmp"
+    with open(tmp_path, "w", encoding="utf-8") as f:
+        json.dump(samples, f)
+    os.replace(tmp_path, TRAINING_SET_PATH)
+
+@app.post("/train/stream")
+async def train_from_stream(request: Request, mode: str = "full"):
+    """Train from NDJSON streamed by Tasks-Service: one task per line, then {"end": true, "count": n}.
+    mode=full replaces the stored training set; mode=incremental upserts tasks by id and
+    removes the ones sent as {"id": ..., "deleted": true}. Incremental mode needs the stored
+    training set: without it (new container, lost volume) it is rejected with 409 and the
+    caller has to send a full stream."""
+    if estimator is None:
+        raise HTTPException(status_code=503, detail="Model not available")
+    if mode not in ("full", "incremental"):
+        raise HTTPException(status_code=400, detail="mode must be full or incremental")
+    if mode == "incremental" and not os.path.exists(TRAINING_SET_PATH):
+        raise HTTPException(status_code=409, detail="No stored training set, send a full stream")
+
+    samples = {} if mode == "full" else load_training_set()
+    received = 0
+    removed = 0
+    end = None
+
+    def apply(line):
+        nonlocal received, removed, end
+        if not line.strip():
+            return
+        row = json.loads(line)
+        if row.get("end"):
+            end = row
+            return
+        received += 1
+        if row.get("deleted"):
+            if samples.pop(row["id"], None) is not None:
+                removed += 1
+        else:
+            samples[row["id"]] = {
+                "title": row.get("title", ""),
+                "description": row.get("description") or "",
+                "storyPoint": row.get("storyPoint"),
+                "priority": row.get("priority"),
+                "task_type": row.get("task_type"),
+            }
+
+    # Parse line by line as chunks arrive instead of reading the whole body first
+    buffer = b""
+    try:
+        async for chunk in request.stream():
+            buffer += chunk
+            *lines, buffer = buffer.split(b"\n")
+            for line in lines:
+                apply(line)
+        apply(buffer)
+    except json.JSONDecodeError as e:
+        raise HTTPException(status_code=400, detail=f"Invalid NDJSON line: {e}")
+
+    if end is None or end.get("count") != received:
+        raise HTTPException(status_code=400, detail="Training stream was truncated")
+
+    save_training_set(samples)
+    try:
+        stats = await run_in_threadpool(estimator.train, list(samples.values()))
+    except Exception as e:
+        logger.error(f"Error training: {e}")
+        raise HTTPException(status_code=500, detail=str(e))
+
+    return {
+        "mode": mode,
+        "received": received,
+        "removed": removed,
+        "training_set_size": len(samples),
+        "training_stats": stats,
+        "model_version": estimator.model_version
+    }
+
 @app.get("/model/status")
 async def get_model_status():
     """Get model status"""
@@ -86,6 +210,7 @@ async def get_model_status():
     return {
         "status": "loaded",
         "trained": estimator.is_trained(),
+        "model_version": estimator.model_version,
         "model_info": estimator.get_model_info()
     }
 
@@ -2,6 +2,7 @@ import pandas as pd
 import numpy as np
 import joblib
 import os
+import uuid
 from typing import Dict, List, Any, Optional
 from sklearn.ensemble import RandomForestRegressor
 from sklearn.model_selection import train_test_split
@@ -29,6 +30,8 @@ class StoryPointEstimator:
         )
         self.is_fitted = False
         self.training_stats = {}
+        # Changes on every training run; clients use it to invalidate cached estimates
+        self.model_version = None
         os.makedirs(model_path, exist_ok=True)
         self._load_model()
 
@@ -301,6 +304,7 @@ class StoryPointEstimator:
                 }
             
             self.is_fitted = True
+            self.model_version = uuid.uuid4().hex
             self._save_model()
             
             return self.training_stats
@@ -429,6 +433,7 @@ class StoryPointEstimator:
         return {
             "is_trained": self.is_fitted, 
             "training_stats": self.training_stats,
+            "model_version": self.model_version,
             "model_type": "RandomForest with comprehensive TextPreprocessor features"
         }
 
@@ -440,6 +445,7 @@ class StoryPointEstimator:
                 'preprocessor': self.preprocessor,
                 'training_stats': self.training_stats,
                 'is_fitted': self.is_fitted,
+                'model_version': self.model_version,
                 'version': '2.0'  # Updated version
             }
             joblib.dump(model_data, os.path.join(self.model_path, 'story_point_model.pkl'))
@@ -457,6 +463,7 @@ class StoryPointEstimator:
                 self.preprocessor = model_data['preprocessor']
                 self.training_stats = model_data['training_stats']
                 self.is_fitted = model_data['is_fitted']
+                self.model_version = model_data.get('model_version') or 'legacy'
                 logger.info("✅ Model loaded successfully")
             else:
                 logger.info("⚠️ No pre-trained model found")
@@ -1,5 +1,6 @@
 package com.tmnhat.fileservice.repository;
 
+import com.tmnhat.common.db.TaskCounterSql;
 import com.tmnhat.fileservice.model.Attachment;
 import org.springframework.stereotype.Repository;
 
@@ -15,11 +16,15 @@ import java.util.UUID;
 public class AttachmentDAO extends BaseDAO {
 
     public Attachment addAttachment(Attachment attachment) throws SQLException {
+        // The task's attachment counter moves in the same statement
         String sql = """
-            INSERT INTO attachments (task_id, file_name, file_url, file_type, uploaded_at)
-            VALUES (?, ?, ?, ?, ?)
-            RETURNING id
-        """;
+            WITH inserted AS (
+                INSERT INTO attachments (task_id, file_name, file_url, file_type, uploaded_at)
+                VALUES (?, ?, ?, ?, ?)
+                RETURNING id, task_id
+            ), %s
+            SELECT id FROM inserted
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.ATTACHMENTS, "inserted", 1));
 
         return executeQuery(sql, stmt -> {
             stmt.setObject(1, attachment.getTaskId());
@@ -70,9 +75,15 @@ public class AttachmentDAO extends BaseDAO {
     }
 
     public void deleteAttachment(Long id) throws SQLException {
-        String sql = "DELETE FROM attachments WHERE id = ?";
-        executeUpdate(sql, stmt -> {
+        String sql = """
+            WITH removed AS (
+                DELETE FROM attachments WHERE id = ? RETURNING task_id
+            ), %s
+            SELECT COUNT(*) FROM removed
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.ATTACHMENTS, "removed", -1));
+        executeQuery(sql, stmt -> {
             stmt.setLong(1, id);
+            return stmt.execute();
         });
     }
 
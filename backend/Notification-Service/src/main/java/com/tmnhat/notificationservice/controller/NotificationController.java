@@ -9,6 +9,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -174,13 +176,8 @@ public class NotificationController {
             }
             
             // Generate action URL only if project exists and it's not a PROJECT_DELETED notification
-            String actionUrl = null;
-            if (projectId != null && type != NotificationType.PROJECT_DELETED) {
-                if (taskId != null) {
-                    actionUrl = String.format("/project/project_homescreen?projectId=%s&taskId=%s&from=notification", projectId, taskId);
-                } else {
-                    actionUrl = String.format("/project/project_homescreen?projectId=%s&from=notification", projectId);
-                }
+            String actionUrl = buildActionUrl(type, projectId, taskId);
+            if (actionUrl != null) {
                 System.out.println("🔍 CONTROLLER: Generated actionUrl: " + actionUrl);
             } else {
                 System.out.println("🔍 CONTROLLER: No actionUrl generated - projectId: " + projectId + ", type: " + type);
@@ -248,6 +245,57 @@ public class NotificationController {
         }
     }
     
+    // Create many notifications in one call (standard payload per entry).
+    // Invalid entries are skipped; duplicate overdue notifications are filtered by the service.
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseDataAPI> createNotificationsBatch(@RequestBody List<Map<String, Object>> requests) {
+        try {
+            List<Notification> notifications = new ArrayList<>();
+            int invalid = 0;
+            for (Map<String, Object> request : requests) {
+                try {
+                    NotificationType type = NotificationType.valueOf(((String) request.get("type")).toUpperCase());
+                    UUID recipientUserId = UUID.fromString((String) request.get("recipientUserId"));
+                    UUID actorUserId = UUID.fromString((String) request.get("actorUserId"));
+                    UUID projectId = parseOptionalUUID(request.get("projectId"));
+                    UUID taskId = parseOptionalUUID(request.get("taskId"));
+                    UUID sprintId = parseOptionalUUID(request.get("sprintId"));
+
+                    notifications.add(new Notification.Builder()
+                            .type(type)
+                            .title((String) request.get("title"))
+                            .message((String) request.get("message"))
+                            .recipientUserId(recipientUserId)
+                            .actorUserId(actorUserId)
+                            .actorUserName((String) request.get("actorUserName"))
+                            .projectId(projectId)
+                            .projectName((String) request.get("projectName"))
+                            .taskId(taskId)
+                            .sprintId(sprintId)
+                            .commentId(request.get("commentId") instanceof Number commentId ? commentId.longValue() : null)
+                            .actionUrl(buildActionUrl(type, projectId, taskId))
+                            .isRead(false)
+                            .build());
+                } catch (IllegalArgumentException | NullPointerException | ClassCastException e) {
+                    invalid++;
+                }
+            }
+
+            int created = notificationService.createNotificationsBatch(notifications);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("received", requests.size());
+            result.put("created", created);
+            result.put("skipped", notifications.size() - created);
+            result.put("invalid", invalid);
+            return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(result));
+        } catch (Exception e) {
+            System.err.println("Error creating notification batch: " + e.getMessage());
+            return ResponseEntity.status(500)
+                .body(ResponseDataAPI.error("Failed to create notification batch: " + e.getMessage()));
+        }
+    }
+
     // Clean up TASK_OVERDUE notifications for a completed task
     @DeleteMapping("/task/{taskId}/overdue")
     public ResponseEntity<ResponseDataAPI> cleanupTaskOverdueNotifications(@PathVariable String taskId) {
@@ -275,4 +323,19 @@ public class NotificationController {
             return ResponseEntity.status(500).body(ResponseDataAPI.error("Failed to cleanup notifications: " + e.getMessage()));
         }
     }
+
+    // Link to the project homescreen, focused on the task when there is one
+    private String buildActionUrl(NotificationType type, UUID projectId, UUID taskId) {
+        if (projectId == null || type == NotificationType.PROJECT_DELETED) {
+            return null;
+        }
+        if (taskId != null) {
+            return String.format("/project/project_homescreen?projectId=%s&taskId=%s&from=notification", projectId, taskId);
+        }
+        return String.format("/project/project_homescreen?projectId=%s&from=notification", projectId);
+    }
+
+    private UUID parseOptionalUUID(Object value) {
+        return value != null ? UUID.fromString((String) value) : null;
+    }
 } 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.tmnhat.notificationservice.repository;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 import com.tmnhat.common.config.DatabaseConnection;
 
 public abstract class BaseDAO {
@@ -17,6 +18,26 @@ public abstract class BaseDAO {
         }
     }
 
+    // Runs one prepared statement for every item in a single JDBC batch and transaction
+    protected <T> int[] executeBatch(String query, List<T> items, SQLBiConsumer<PreparedStatement, T> binder) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            conn.setAutoCommit(false);
+            try {
+                for (T item : items) {
+                    binder.accept(stmt, item);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                conn.commit();
+                return counts;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     protected <T> T executeQuery(String query, SQLFunction<PreparedStatement, T> function) throws SQLException {
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
@@ -29,6 +50,11 @@ public abstract class BaseDAO {
         void accept(T t) throws SQLException;
     }
     
+    @FunctionalInterface
+    public interface SQLBiConsumer<T, U> {
+        void accept(T t, U u) throws SQLException;
+    }
+
     @FunctionalInterface
     public interface SQLFunction<T, R> {
         R apply(T t) throws SQLException;
@@ -9,8 +9,10 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -211,6 +213,88 @@ public class NotificationDAO extends BaseDAO {
         }
     }
 
+    // Inserts all notifications in one batch
+    public int insertBatch(List<Notification> notifications) {
+        String sql = """
+            INSERT INTO notifications (type, title, message, recipient_user_id, actor_user_id, 
+                                     actor_user_name, actor_user_avatar, project_id, project_name, 
+                                     task_id, sprint_id, comment_id, action_url, is_read, created_at)
+            VALUES (?::notification_type, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        try {
+            executeBatch(sql, notifications, (stmt, notification) -> {
+                notification.setCreationTime();
+                stmt.setString(1, notification.getType().name());
+                stmt.setString(2, notification.getTitle());
+                stmt.setString(3, notification.getMessage());
+                stmt.setObject(4, notification.getRecipientUserId());
+                stmt.setObject(5, notification.getActorUserId());
+                stmt.setString(6, notification.getActorUserName());
+                stmt.setString(7, notification.getActorUserAvatar());
+                stmt.setObject(8, notification.getProjectId());
+                stmt.setString(9, notification.getProjectName());
+                stmt.setObject(10, notification.getTaskId());
+                stmt.setObject(11, notification.getSprintId());
+                if (notification.getCommentId() != null) {
+                    stmt.setLong(12, notification.getCommentId());
+                } else {
+                    stmt.setNull(12, java.sql.Types.BIGINT);
+                }
+                stmt.setString(13, notification.getActionUrl());
+                stmt.setBoolean(14, Boolean.TRUE.equals(notification.getIsRead()));
+                stmt.setTimestamp(15, Timestamp.valueOf(notification.getCreatedAt()));
+            });
+            return notifications.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error inserting notification batch: " + e.getMessage(), e);
+        }
+    }
+
+    // Returns "taskId:recipientUserId" keys that already have a TASK_OVERDUE notification
+    public Set<String> findExistingTaskOverdueKeys(List<UUID> taskIds) {
+        String sql = """
+            SELECT task_id, recipient_user_id FROM notifications 
+            WHERE type = 'TASK_OVERDUE' AND task_id = ANY(?)
+            """;
+
+        try {
+            return executeQuery(sql, stmt -> {
+                stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+                ResultSet rs = stmt.executeQuery();
+                Set<String> keys = new HashSet<>();
+                while (rs.next()) {
+                    keys.add(getUUIDFromResultSet(rs, "task_id") + ":" + getUUIDFromResultSet(rs, "recipient_user_id"));
+                }
+                return keys;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking for TASK_OVERDUE notifications: " + e.getMessage(), e);
+        }
+    }
+
+    // Returns "sprintId:recipientUserId" keys that already have a SPRINT_OVERDUE notification
+    public Set<String> findExistingSprintOverdueKeys(List<UUID> sprintIds) {
+        String sql = """
+            SELECT sprint_id, recipient_user_id FROM notifications 
+            WHERE type = 'SPRINT_OVERDUE' AND sprint_id = ANY(?)
+            """;
+
+        try {
+            return executeQuery(sql, stmt -> {
+                stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", sprintIds.toArray()));
+                ResultSet rs = stmt.executeQuery();
+                Set<String> keys = new HashSet<>();
+                while (rs.next()) {
+                    keys.add(getUUIDFromResultSet(rs, "sprint_id") + ":" + getUUIDFromResultSet(rs, "recipient_user_id"));
+                }
+                return keys;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking for SPRINT_OVERDUE notifications: " + e.getMessage(), e);
+        }
+    }
+
     public boolean hasTaskOverdueNotification(UUID taskId, UUID recipientUserId) {
         String sql = """
             SELECT COUNT(*) FROM notifications 
@@ -33,6 +33,10 @@ public interface NotificationService {
                                   String actorUserAvatar, UUID projectId, String projectName,
                                   UUID taskId, UUID sprintId, Long commentId, String actionUrl);
     
+    // Create many notifications at once; duplicate TASK_OVERDUE / SPRINT_OVERDUE entries are skipped.
+    // Returns the number of notifications actually created.
+    int createNotificationsBatch(List<Notification> notifications);
+    
     // Check if TASK_OVERDUE notification already exists for a specific task and user
     boolean hasTaskOverdueNotification(UUID taskId, UUID recipientUserId);
     
@@ -8,8 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -130,6 +133,61 @@ public class NotificationServiceImpl implements NotificationService {
         }
     }
     
+    @Override
+    public int createNotificationsBatch(List<Notification> notifications) {
+        try {
+            if (notifications == null || notifications.isEmpty()) {
+                return 0;
+            }
+
+            // Look up existing overdue notifications for the whole batch with one query per type
+            List<UUID> overdueTaskIds = new ArrayList<>();
+            List<UUID> overdueSprintIds = new ArrayList<>();
+            for (Notification notification : notifications) {
+                if (notification.getType() == NotificationType.TASK_OVERDUE && notification.getTaskId() != null) {
+                    overdueTaskIds.add(notification.getTaskId());
+                } else if (notification.getType() == NotificationType.SPRINT_OVERDUE && notification.getSprintId() != null) {
+                    overdueSprintIds.add(notification.getSprintId());
+                }
+            }
+            Set<String> seen = new HashSet<>();
+            if (!overdueTaskIds.isEmpty()) {
+                seen.addAll(notificationDAO.findExistingTaskOverdueKeys(overdueTaskIds));
+            }
+            if (!overdueSprintIds.isEmpty()) {
+                seen.addAll(notificationDAO.findExistingSprintOverdueKeys(overdueSprintIds));
+            }
+
+            // Also dedups repeated entries inside the batch itself
+            List<Notification> toInsert = new ArrayList<>();
+            for (Notification notification : notifications) {
+                String key = overdueKey(notification);
+                if (key == null || seen.add(key)) {
+                    toInsert.add(notification);
+                }
+            }
+
+            if (toInsert.isEmpty()) {
+                return 0;
+            }
+            return notificationDAO.insertBatch(toInsert);
+        } catch (Exception e) {
+            System.err.println("Error creating notification batch: " + e.getMessage());
+            throw new RuntimeException("Failed to create notification batch: " + e.getMessage(), e);
+        }
+    }
+
+    // Dedup key for overdue notifications, null for types that are never deduplicated
+    private String overdueKey(Notification notification) {
+        if (notification.getType() == NotificationType.TASK_OVERDUE && notification.getTaskId() != null) {
+            return notification.getTaskId() + ":" + notification.getRecipientUserId();
+        }
+        if (notification.getType() == NotificationType.SPRINT_OVERDUE && notification.getSprintId() != null) {
+            return notification.getSprintId() + ":" + notification.getRecipientUserId();
+        }
+        return null;
+    }
+    
     @Override
     public boolean hasTaskOverdueNotification(UUID taskId, UUID recipientUserId) {
         try {
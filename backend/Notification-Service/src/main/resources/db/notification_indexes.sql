@@ -0,0 +1,3 @@
+-- Lookups used by the overdue dedup checks (single and batched)
+CREATE INDEX IF NOT EXISTS idx_notifications_task_overdue ON notifications (task_id, recipient_user_id) WHERE type = 'TASK_OVERDUE';
+CREATE INDEX IF NOT EXISTS idx_notifications_sprint_overdue ON notifications (sprint_id, recipient_user_id) WHERE type = 'SPRINT_OVERDUE';
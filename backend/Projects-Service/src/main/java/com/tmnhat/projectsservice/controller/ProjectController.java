@@ -250,35 +250,24 @@ public class ProjectController {
             @PathVariable UUID projectId,
             @PathVariable UUID userId) {
         try {
-            String role = projectService.getRoleInProject(projectId, userId);
+            Map<String, Object> permissions = projectService.getMemberPermissions(projectId, userId);
             
-            if (role == null) {
+            if (permissions == null) {
                 return ResponseEntity.ok(ResponseDataAPI.error("User not found in project"));
             }
     
-            boolean isOwner = "PRODUCT_OWNER".equalsIgnoreCase(role);
-            boolean isScrumMaster = "SCRUM_MASTER".equalsIgnoreCase(role);
-    
-            Map<String, Object> permissions = new HashMap<>();
-            permissions.put("userId", userId);
-            permissions.put("projectId", projectId);
-            permissions.put("role", role);
-            permissions.put("isOwner", isOwner);
-            permissions.put("isScrumMaster", isScrumMaster);
-            permissions.put("canManageProject", isOwner);
-            permissions.put("canManageMembers", isOwner || isScrumMaster);
-            permissions.put("canCreateSprint", isOwner || isScrumMaster);
-            permissions.put("canManageSprints", isOwner || isScrumMaster);
-            permissions.put("canManageAnyTask", isOwner || isScrumMaster);
-            permissions.put("canAssignTasks", isOwner || isScrumMaster);
-            permissions.put("canViewReports", isOwner || isScrumMaster);
-            permissions.put("canTrainAI", isOwner || isScrumMaster);
-    
             return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(permissions));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(ResponseDataAPI.error("Error checking permissions: " + e.getMessage()));
         }
     }
+
+    // Resolve permissions for many [{projectId, userId}] pairs with a single query
+    @PostMapping("/members/permissions/batch")
+    public ResponseEntity<ResponseDataAPI> checkUserPermissionsBatch(@RequestBody List<Map<String, UUID>> pairs) {
+        List<Map<String, Object>> results = projectService.getMemberPermissionsBatch(pairs);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(results));
+    }
     
 
     @PutMapping("/{id:[0-9a-fA-F\\-]{36}}/soft-delete")
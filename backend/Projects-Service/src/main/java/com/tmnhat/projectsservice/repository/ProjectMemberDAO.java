@@ -8,7 +8,9 @@ import org.springframework.stereotype.Repository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Repository
@@ -147,6 +149,28 @@ public class ProjectMemberDAO extends BaseDAO {
         });
     }
 
+    // Roles for many (projectId, userId) pairs in one query, keyed by "projectId:userId".
+    // Pairs without a membership row are absent from the result.
+    public Map<String, String> getRolesInProjects(List<UUID> projectIds, List<UUID> userIds) throws SQLException {
+        String sql = """
+            SELECT pm.project_id, pm.user_id, pm.role_in_project
+            FROM project_members pm
+            JOIN unnest(?::uuid[], ?::uuid[]) AS req(project_id, user_id)
+              ON pm.project_id = req.project_id AND pm.user_id = req.user_id
+        """;
+
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", projectIds.toArray()));
+            stmt.setArray(2, stmt.getConnection().createArrayOf("uuid", userIds.toArray()));
+            Map<String, String> roles = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                roles.put(rs.getString("project_id") + ":" + rs.getString("user_id"), rs.getString("role_in_project"));
+            }
+            return roles;
+        });
+    }
+
     public UUID getManagerId(UUID projectId) throws SQLException {
         String sql = """
             SELECT user_id 
@@ -1,15 +1,20 @@
 package com.tmnhat.projectsservice.service.Impl;
 
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.exception.BadRequestException;
 import com.tmnhat.common.exception.DatabaseException;
 import com.tmnhat.common.exception.ResourceNotFoundException;
+import com.tmnhat.common.resilience.ResilienceRegistry;
 import com.tmnhat.projectsservice.model.ProjectMembers;
 import com.tmnhat.projectsservice.model.Projects;
 import com.tmnhat.projectsservice.model.Users;
 import com.tmnhat.projectsservice.repository.ProjectDAO;
 import com.tmnhat.projectsservice.repository.ProjectMemberDAO;
 import com.tmnhat.projectsservice.service.ProjectService;
+import com.tmnhat.projectsservice.utils.PermissionCacheNotifier;
 import com.tmnhat.projectsservice.validation.ProjectValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -19,6 +24,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
@@ -32,9 +38,22 @@ public class ProjectServiceImpl implements ProjectService {
     
     @Autowired
     private ProjectDAO projectDAO;
+
+    @Autowired
+    private PermissionCacheNotifier permissionCacheNotifier;
     
+    @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Value("${projects.permissions.batch-max:500}")
+    private int maxPermissionBatch;
+
     @Override
     public void addProject(Projects project) {
         try {
@@ -116,6 +135,7 @@ public class ProjectServiceImpl implements ProjectService {
                 throw new ResourceNotFoundException("Project not found with ID " + projectId);
             }
             projectMemberDAO.assignMember(projectId, userId, roleInProject);
+            permissionCacheNotifier.memberChanged(projectId, userId);
         } catch (Exception e) {
             throw new DatabaseException("Error assigning member: " + e.getMessage());
         }
@@ -125,6 +145,7 @@ public class ProjectServiceImpl implements ProjectService {
     public void assignMember(ProjectMembers memberDTO) {
         try {
             projectMemberDAO.assignMember(memberDTO.getProjectId(), memberDTO.getUserId(), memberDTO.getRoleInProject());
+            permissionCacheNotifier.memberChanged(memberDTO.getProjectId(), memberDTO.getUserId());
         } catch (Exception e) {
             throw new DatabaseException("Error assigning member: " + e.getMessage());
         }
@@ -138,6 +159,7 @@ public class ProjectServiceImpl implements ProjectService {
                 throw new ResourceNotFoundException("Project not found with ID " + projectId);
             }
             projectMemberDAO.removeMember(projectId, userId);
+            permissionCacheNotifier.memberChanged(projectId, userId);
         } catch (Exception e) {
             throw new DatabaseException("Error removing member: " + e.getMessage());
         }
@@ -151,6 +173,7 @@ public class ProjectServiceImpl implements ProjectService {
                 throw new ResourceNotFoundException("Project not found with ID " + projectId);
             }
             projectMemberDAO.changeProjectOwner(projectId, newOwnerId);
+            permissionCacheNotifier.projectChanged(projectId);
         } catch (Exception e) {
             throw new DatabaseException("Error changing project owner: " + e.getMessage());
         }
@@ -277,6 +300,7 @@ public class ProjectServiceImpl implements ProjectService {
                                             memberDTO.getUserId(), 
                                             memberDTO.getRoleInProject(), 
                                             project.getOwnerId()); // Use project owner as requester
+            permissionCacheNotifier.memberChanged(memberDTO.getProjectId(), memberDTO.getUserId());
         } catch (Exception e) {
             throw new DatabaseException("Error updating member role: " + e.getMessage());
         }
@@ -291,6 +315,76 @@ public class ProjectServiceImpl implements ProjectService {
         }
     }
 
+    @Override
+    public Map<String, Object> getMemberPermissions(UUID projectId, UUID userId) {
+        String role = getRoleInProject(projectId, userId);
+        return role != null ? buildPermissions(projectId, userId, role) : null;
+    }
+
+    @Override
+    public List<Map<String, Object>> getMemberPermissionsBatch(List<Map<String, UUID>> pairs) {
+        if (pairs == null || pairs.size() > maxPermissionBatch) {
+            throw new BadRequestException("Permission batch must have at most " + maxPermissionBatch + " entries");
+        }
+        try {
+            List<UUID> projectIds = new ArrayList<>();
+            List<UUID> userIds = new ArrayList<>();
+            for (Map<String, UUID> pair : pairs) {
+                UUID projectId = pair.get("projectId");
+                UUID userId = pair.get("userId");
+                if (projectId == null || userId == null) {
+                    throw new BadRequestException("Each entry needs projectId and userId");
+                }
+                projectIds.add(projectId);
+                userIds.add(userId);
+            }
+
+            Map<String, String> roles = projectIds.isEmpty()
+                    ? new HashMap<>()
+                    : projectMemberDAO.getRolesInProjects(projectIds, userIds);
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int i = 0; i < projectIds.size(); i++) {
+                UUID projectId = projectIds.get(i);
+                UUID userId = userIds.get(i);
+                String role = roles.get(projectId + ":" + userId);
+
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("projectId", projectId);
+                entry.put("userId", userId);
+                entry.put("permissions", role != null ? buildPermissions(projectId, userId, role) : null);
+                results.add(entry);
+            }
+            return results;
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error resolving member permissions: " + e.getMessage());
+        }
+    }
+
+    // Permission flags derived from the member role; shared by the single and batch endpoints
+    private Map<String, Object> buildPermissions(UUID projectId, UUID userId, String role) {
+        boolean isOwner = "PRODUCT_OWNER".equalsIgnoreCase(role);
+        boolean isScrumMaster = "SCRUM_MASTER".equalsIgnoreCase(role);
+
+        Map<String, Object> permissions = new HashMap<>();
+        permissions.put("userId", userId);
+        permissions.put("projectId", projectId);
+        permissions.put("role", role);
+        permissions.put("isOwner", isOwner);
+        permissions.put("isScrumMaster", isScrumMaster);
+        permissions.put("canManageProject", isOwner);
+        permissions.put("canManageMembers", isOwner || isScrumMaster);
+        permissions.put("canCreateSprint", isOwner || isScrumMaster);
+        permissions.put("canManageSprints", isOwner || isScrumMaster);
+        permissions.put("canManageAnyTask", isOwner || isScrumMaster);
+        permissions.put("canAssignTasks", isOwner || isScrumMaster);
+        permissions.put("canViewReports", isOwner || isScrumMaster);
+        permissions.put("canTrainAI", isOwner || isScrumMaster);
+        return permissions;
+    }
+
     @Override
     public UUID getManagerId(UUID projectId) {
         try {
@@ -336,8 +430,7 @@ public class ProjectServiceImpl implements ProjectService {
             
             // ✅ NEW: Also restore all associated tasks for this project
             try {
-                restTemplate = new RestTemplate();
-                String tasksServiceUrl = "http://localhost:8085/api/tasks/project/" + id + "/restore";
+                String tasksServiceUrl = serviceUrls.getTasksServiceUrl() + "/api/tasks/project/" + id + "/restore";
                 
                 // Set headers
                 HttpHeaders headers = new HttpHeaders();
@@ -346,14 +439,19 @@ public class ProjectServiceImpl implements ProjectService {
                 
                 HttpEntity<String> entity = new HttpEntity<>(headers);
                 
-                ResponseEntity<String> response = restTemplate.exchange(
-                    tasksServiceUrl, 
-                    HttpMethod.PUT, 
-                    entity, 
-                    String.class
+                ResponseEntity<String> response = resilienceRegistry.guard(ResilienceRegistry.TASKS_SERVICE).call(
+                    () -> restTemplate.exchange(
+                        tasksServiceUrl, 
+                        HttpMethod.PUT, 
+                        entity, 
+                        String.class
+                    ),
+                    () -> null
                 );
                 
-                if (response.getStatusCode().is2xxSuccessful()) {
+                if (response == null) {
+                    System.out.println("⚠️ Warning: Tasks-Service unavailable, tasks not restored for project " + id);
+                } else if (response.getStatusCode().is2xxSuccessful()) {
                     System.out.println("✅ All tasks restored for project: " + id);
                 } else {
                     System.out.println("⚠️ Warning: Failed to restore tasks for project " + id + 
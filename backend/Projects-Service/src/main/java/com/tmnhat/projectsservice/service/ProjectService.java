@@ -4,6 +4,7 @@ import com.tmnhat.projectsservice.model.Projects;
 import com.tmnhat.projectsservice.model.Users;
 import com.tmnhat.projectsservice.model.ProjectMembers;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface ProjectService {
@@ -60,6 +61,12 @@ public interface ProjectService {
     
     String getRoleInProject(UUID projectId, UUID userId);
 
+    // Permission map of a member (null if the user is not in the project)
+    Map<String, Object> getMemberPermissions(UUID projectId, UUID userId);
+
+    // One entry per requested {projectId, userId} pair, in request order; "permissions" is null for non-members
+    List<Map<String, Object>> getMemberPermissionsBatch(List<Map<String, UUID>> pairs);
+
     UUID getManagerId(UUID projectId);
 
     void softDeleteProject(UUID id);
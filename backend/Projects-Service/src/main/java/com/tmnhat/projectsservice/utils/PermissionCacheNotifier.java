@@ -0,0 +1,52 @@
+package com.tmnhat.projectsservice.utils;
+
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Tells Tasks-Service to drop cached permission decisions after a membership change.
+// Sent off the request thread; if a call is lost the cache TTL still bounds staleness.
+@Component
+public class PermissionCacheNotifier {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "permission-cache-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void memberChanged(UUID projectId, UUID userId) {
+        send(serviceUrls.getTasksServiceUrl() + "/api/tasks/permissions/cache/invalidate?projectId=" + projectId + "&userId=" + userId);
+    }
+
+    public void projectChanged(UUID projectId) {
+        send(serviceUrls.getTasksServiceUrl() + "/api/tasks/permissions/cache/invalidate?projectId=" + projectId);
+    }
+
+    private void send(String url) {
+        executor.submit(() -> {
+            try {
+                resilienceRegistry.guard(ResilienceRegistry.TASKS_SERVICE).call(
+                        () -> restTemplate.postForEntity(url, null, Void.class),
+                        () -> null);
+            } catch (Exception e) {
+                System.err.println("Could not invalidate permission cache (" + url + "): " + e.getMessage());
+            }
+        });
+    }
+}
@@ -3,8 +3,10 @@ package com.tmnhat.sprintsservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = {"com.tmnhat.sprintsservice", "com.tmnhat.common"})
 public class SprintsServiceApplication {
 
@@ -4,6 +4,7 @@ import com.tmnhat.common.config.WebConfig;
 import com.tmnhat.common.payload.ResponseDataAPI;
 import com.tmnhat.sprintsservice.model.Sprints;
 import com.tmnhat.sprintsservice.service.Impl.SprintServiceImpl;
+import com.tmnhat.sprintsservice.service.SprintBurndownService;
 import com.tmnhat.sprintsservice.service.SprintService;
 import com.tmnhat.sprintsservice.validation.SprintValidator;
 import com.tmnhat.sprintsservice.utils.PermissionUtil;
@@ -29,6 +30,9 @@ public class SprintController {
     @Autowired
     private PermissionUtil permissionUtil;
 
+    @Autowired
+    private SprintBurndownService sprintBurndownService;
+
     public SprintController() {
         this.sprintsService = new SprintServiceImpl();
     }
@@ -83,6 +87,30 @@ public class SprintController {
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(sprint));
     }
 
+    // Daily scope / completed / remaining story points, maintained from task events (see SprintBurndownService)
+    @GetMapping("/{id}/burndown")
+    public ResponseEntity<ResponseDataAPI> getSprintBurndown(@PathVariable("id") UUID id, @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        SprintValidator.validateSprintId(id);
+
+        Sprints sprint = sprintsService.getSprintById(id);
+        if (sprint == null) {
+            return ResponseEntity.status(404).body(ResponseDataAPI.error("Sprint not found"));
+        }
+
+        if (userId != null && !userId.trim().isEmpty() && sprint.getProjectId() != null) {
+            try {
+                UUID userUUID = UUID.fromString(userId);
+                if (!permissionUtil.hasSprintPermission(userUUID, sprint.getProjectId(), PermissionUtil.SprintPermission.VIEW_SPRINT)) {
+                    return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to view this sprint"));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(sprintBurndownService.getBurndown(sprint)));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ResponseDataAPI> updateSprint(@PathVariable("id") UUID id, @RequestBody Sprints sprint, @RequestHeader(value = "X-User-Id", required = false) String userId) {
         SprintValidator.validateSprintId(id);
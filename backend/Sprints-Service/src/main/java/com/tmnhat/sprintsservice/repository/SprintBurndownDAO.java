@@ -0,0 +1,364 @@
+package com.tmnhat.sprintsservice.repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Tables behind the sprint burndown (see SprintBurndownService): daily story point deltas per
+// sprint, the last counted state of each task and the position reached in task_events
+public class SprintBurndownDAO extends BaseDAO {
+
+    private static final String WATERMARK = "task_events";
+
+    // A task as the burndown counts it: in sprintId (null: in no sprint) with storyPoint points
+    public static class TaskState {
+        public static final TaskState NONE = new TaskState(null, 0, false);
+
+        private final UUID sprintId;
+        private final int storyPoint;
+        private final boolean done;
+
+        public TaskState(UUID sprintId, int storyPoint, boolean done) {
+            this.sprintId = sprintId;
+            this.storyPoint = storyPoint;
+            this.done = done;
+        }
+
+        public UUID getSprintId() { return sprintId; }
+        public int getStoryPoint() { return storyPoint; }
+        public boolean isDone() { return done; }
+
+        public TaskState withSprintId(UUID sprintId) { return new TaskState(sprintId, storyPoint, done); }
+        public TaskState withStoryPoint(int storyPoint) { return new TaskState(sprintId, storyPoint, done); }
+        public TaskState withDone(boolean done) { return new TaskState(sprintId, storyPoint, done); }
+    }
+
+    // The fields of a task_events row the burndown reads
+    public static class TaskEventRow {
+        private final long id;
+        private final UUID taskId;
+        private final String eventType;
+        private final String toValue;
+        private final LocalDateTime occurredAt;
+
+        TaskEventRow(long id, UUID taskId, String eventType, String toValue, LocalDateTime occurredAt) {
+            this.id = id;
+            this.taskId = taskId;
+            this.eventType = eventType;
+            this.toValue = toValue;
+            this.occurredAt = occurredAt;
+        }
+
+        public long getId() { return id; }
+        public UUID getTaskId() { return taskId; }
+        public String getEventType() { return eventType; }
+        public String getToValue() { return toValue; }
+        public LocalDateTime getOccurredAt() { return occurredAt; }
+    }
+
+    // Events up to (occurredAt, eventId) in task_events order have been counted
+    public static class Watermark {
+        private final LocalDateTime occurredAt;
+        private final long eventId;
+
+        public Watermark(LocalDateTime occurredAt, long eventId) {
+            this.occurredAt = occurredAt;
+            this.eventId = eventId;
+        }
+
+        public LocalDateTime getOccurredAt() { return occurredAt; }
+        public long getEventId() { return eventId; }
+    }
+
+    public Watermark getWatermark() throws SQLException {
+        String sql = "SELECT occurred_at, event_id FROM sprint_burndown_watermark WHERE name = ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, WATERMARK);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new Watermark(rs.getTimestamp("occurred_at").toLocalDateTime(), rs.getLong("event_id"));
+            }
+            return null;
+        });
+    }
+
+    // First run: counts every live task in a sprint from the tasks table as it is now (scope on
+    // the day the task was created, done points on the day it was completed) and starts the
+    // watermark at now. One snapshot, so nothing is counted twice; returns false if another
+    // instance got there first.
+    public boolean seed() throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                int claimed;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO sprint_burndown_watermark (name, occurred_at, event_id) VALUES (?, now(), 0) ON CONFLICT (name) DO NOTHING")) {
+                    stmt.setString(1, WATERMARK);
+                    claimed = stmt.executeUpdate();
+                }
+                if (claimed == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("""
+                        INSERT INTO sprint_burndown_tasks (task_id, sprint_id, story_point, done)
+                        SELECT id, sprint_id, COALESCE(story_point, 0), status = 'DONE' FROM tasks
+                        WHERE deleted_at IS NULL AND sprint_id IS NOT NULL
+                        ON CONFLICT (task_id) DO NOTHING
+                        """)) {
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("""
+                        INSERT INTO sprint_burndown_days (sprint_id, day, scope_delta, completed_delta)
+                        SELECT sprint_id, day, SUM(scope), SUM(completed) FROM (
+                            SELECT sprint_id, COALESCE(created_at, now())::date AS day, COALESCE(story_point, 0) AS scope, 0 AS completed
+                            FROM tasks WHERE deleted_at IS NULL AND sprint_id IS NOT NULL
+                            UNION ALL
+                            SELECT sprint_id, COALESCE(completed_at, updated_at, now())::date, 0, COALESCE(story_point, 0)
+                            FROM tasks WHERE deleted_at IS NULL AND sprint_id IS NOT NULL AND status = 'DONE'
+                        ) counted GROUP BY sprint_id, day
+                        ON CONFLICT (sprint_id, day) DO UPDATE SET
+                            scope_delta = sprint_burndown_days.scope_delta + EXCLUDED.scope_delta,
+                            completed_delta = sprint_burndown_days.completed_delta + EXCLUDED.completed_delta
+                        """)) {
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // The next events after the watermark, in order. Events are stamped with now(), the start of
+    // the transaction writing them, so one still running can commit events older than some already
+    // visible: only events older than the start of every open transaction on this database are
+    // read (all services use the same role, so their sessions are visible here), and of those only
+    // ones older than settleMs.
+    public List<TaskEventRow> getEventsAfter(Watermark watermark, long settleMs, int limit) throws SQLException {
+        String sql = "SELECT id, task_id, event_type, to_value, occurred_at FROM task_events " +
+                     "WHERE (occurred_at, id) > (?, ?) AND occurred_at < now() - ? * interval '1 millisecond' " +
+                     "AND occurred_at < (SELECT COALESCE(min(xact_start), 'infinity') FROM pg_stat_activity " +
+                     "WHERE datname = current_database() AND backend_type = 'client backend' AND pid <> pg_backend_pid()) " +
+                     "ORDER BY occurred_at, id LIMIT ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(watermark.getOccurredAt()));
+            stmt.setLong(2, watermark.getEventId());
+            stmt.setLong(3, settleMs);
+            stmt.setInt(4, limit);
+            ResultSet rs = stmt.executeQuery();
+            List<TaskEventRow> events = new ArrayList<>();
+            while (rs.next()) {
+                events.add(new TaskEventRow(rs.getLong("id"), rs.getObject("task_id", UUID.class), rs.getString("event_type"),
+                        rs.getString("to_value"), rs.getTimestamp("occurred_at").toLocalDateTime()));
+            }
+            return events;
+        });
+    }
+
+    // Last counted state of the given tasks (tasks counted in no sprint are absent)
+    public Map<UUID, TaskState> getCountedStates(Collection<UUID> taskIds) throws SQLException {
+        String sql = "SELECT task_id, sprint_id, story_point, done FROM sprint_burndown_tasks WHERE task_id = ANY(?)";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, TaskState> states = new HashMap<>();
+            while (rs.next()) {
+                states.put(rs.getObject("task_id", UUID.class), new TaskState(rs.getObject("sprint_id", UUID.class),
+                        rs.getInt("story_point"), rs.getBoolean("done")));
+            }
+            return states;
+        });
+    }
+
+    // Fields of the given tasks as they were at the watermark, deleted or not: the row as it is
+    // now, with each field the events after the watermark change rewound to the from_value of the
+    // first of them. Rows can be changed by events not counted yet, so they are not used as is.
+    public Map<UUID, TaskState> getStatesAt(Collection<UUID> taskIds, Watermark watermark) throws SQLException {
+        Map<UUID, TaskState> states = executeQuery("SELECT id, sprint_id, story_point, status FROM tasks WHERE id = ANY(?)", stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, TaskState> rows = new HashMap<>();
+            while (rs.next()) {
+                rows.put(rs.getObject("id", UUID.class), new TaskState(rs.getObject("sprint_id", UUID.class),
+                        rs.getInt("story_point"), "DONE".equals(rs.getString("status"))));
+            }
+            return rows;
+        });
+        String sql = "SELECT DISTINCT ON (task_id, event_type) task_id, event_type, from_value FROM task_events " +
+                     "WHERE task_id = ANY(?) AND (occurred_at, id) > (?, ?) " +
+                     "AND event_type IN ('STATUS_CHANGED', 'STORY_POINT_CHANGED', 'SPRINT_CHANGED') " +
+                     "ORDER BY task_id, event_type, occurred_at, id";
+        executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            stmt.setTimestamp(2, Timestamp.valueOf(watermark.getOccurredAt()));
+            stmt.setLong(3, watermark.getEventId());
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                UUID taskId = rs.getObject("task_id", UUID.class);
+                TaskState state = states.getOrDefault(taskId, TaskState.NONE);
+                String from = rs.getString("from_value");
+                String eventType = rs.getString("event_type");
+                if ("STATUS_CHANGED".equals(eventType)) {
+                    state = state.withDone("DONE".equals(from));
+                } else if ("STORY_POINT_CHANGED".equals(eventType)) {
+                    state = state.withStoryPoint(parsePoints(from, state.getStoryPoint()));
+                } else {
+                    state = state.withSprintId(parseSprintId(from));
+                }
+                states.put(taskId, state);
+            }
+            return null;
+        });
+        return states;
+    }
+
+    // Story points as task_events stores them (null: none); fallback if unreadable
+    public static int parsePoints(String value, int fallback) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    public static UUID parseSprintId(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Adds the day deltas ([scope, completed] per sprint and day) and stores the new task states,
+    // moving the watermark from expected to next in the same transaction. Returns false, writing
+    // nothing, if the watermark is no longer at expected (another instance counted these events).
+    public boolean applyCounts(Map<UUID, Map<LocalDate, int[]>> deltas, Map<UUID, TaskState> states,
+                               Watermark expected, Watermark next) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int moved;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "UPDATE sprint_burndown_watermark SET occurred_at = ?, event_id = ?, updated_at = now() " +
+                        "WHERE name = ? AND occurred_at = ? AND event_id = ?")) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(next.getOccurredAt()));
+                    stmt.setLong(2, next.getEventId());
+                    stmt.setString(3, WATERMARK);
+                    stmt.setTimestamp(4, Timestamp.valueOf(expected.getOccurredAt()));
+                    stmt.setLong(5, expected.getEventId());
+                    moved = stmt.executeUpdate();
+                }
+                if (moved == 0) {
+                    conn.rollback();
+                    return false;
+                }
+
+                List<UUID> sprintIds = new ArrayList<>();
+                List<Date> days = new ArrayList<>();
+                List<Integer> scopeDeltas = new ArrayList<>();
+                List<Integer> completedDeltas = new ArrayList<>();
+                for (Map.Entry<UUID, Map<LocalDate, int[]>> sprint : deltas.entrySet()) {
+                    for (Map.Entry<LocalDate, int[]> day : sprint.getValue().entrySet()) {
+                        if (day.getValue()[0] == 0 && day.getValue()[1] == 0) {
+                            continue;
+                        }
+                        sprintIds.add(sprint.getKey());
+                        days.add(Date.valueOf(day.getKey()));
+                        scopeDeltas.add(day.getValue()[0]);
+                        completedDeltas.add(day.getValue()[1]);
+                    }
+                }
+                if (!sprintIds.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement("""
+                            INSERT INTO sprint_burndown_days (sprint_id, day, scope_delta, completed_delta)
+                            SELECT * FROM unnest(?::uuid[], ?::date[], ?::int[], ?::int[])
+                            ON CONFLICT (sprint_id, day) DO UPDATE SET
+                                scope_delta = sprint_burndown_days.scope_delta + EXCLUDED.scope_delta,
+                                completed_delta = sprint_burndown_days.completed_delta + EXCLUDED.completed_delta
+                            """)) {
+                        stmt.setArray(1, conn.createArrayOf("uuid", sprintIds.toArray()));
+                        stmt.setArray(2, conn.createArrayOf("date", days.toArray()));
+                        stmt.setArray(3, conn.createArrayOf("int4", scopeDeltas.toArray()));
+                        stmt.setArray(4, conn.createArrayOf("int4", completedDeltas.toArray()));
+                        stmt.executeUpdate();
+                    }
+                }
+
+                // Tasks now in no sprint count for nothing, the same as having no row
+                List<UUID> taskIds = new ArrayList<>();
+                List<UUID> taskSprintIds = new ArrayList<>();
+                List<Integer> storyPoints = new ArrayList<>();
+                List<Boolean> doneFlags = new ArrayList<>();
+                List<UUID> uncounted = new ArrayList<>();
+                for (Map.Entry<UUID, TaskState> state : states.entrySet()) {
+                    if (state.getValue().getSprintId() == null) {
+                        uncounted.add(state.getKey());
+                        continue;
+                    }
+                    taskIds.add(state.getKey());
+                    taskSprintIds.add(state.getValue().getSprintId());
+                    storyPoints.add(state.getValue().getStoryPoint());
+                    doneFlags.add(state.getValue().isDone());
+                }
+                if (!taskIds.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement("""
+                            INSERT INTO sprint_burndown_tasks (task_id, sprint_id, story_point, done)
+                            SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::int[], ?::boolean[])
+                            ON CONFLICT (task_id) DO UPDATE SET
+                                sprint_id = EXCLUDED.sprint_id, story_point = EXCLUDED.story_point, done = EXCLUDED.done
+                            """)) {
+                        stmt.setArray(1, conn.createArrayOf("uuid", taskIds.toArray()));
+                        stmt.setArray(2, conn.createArrayOf("uuid", taskSprintIds.toArray()));
+                        stmt.setArray(3, conn.createArrayOf("int4", storyPoints.toArray()));
+                        stmt.setArray(4, conn.createArrayOf("bool", doneFlags.toArray()));
+                        stmt.executeUpdate();
+                    }
+                }
+                if (!uncounted.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM sprint_burndown_tasks WHERE task_id = ANY(?)")) {
+                        stmt.setArray(1, conn.createArrayOf("uuid", uncounted.toArray()));
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // [scope, completed] deltas of one sprint by day, oldest first
+    public TreeMap<LocalDate, int[]> getDailyDeltas(UUID sprintId) throws SQLException {
+        String sql = "SELECT day, scope_delta, completed_delta FROM sprint_burndown_days WHERE sprint_id = ? ORDER BY day";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, sprintId);
+            ResultSet rs = stmt.executeQuery();
+            TreeMap<LocalDate, int[]> deltas = new TreeMap<>();
+            while (rs.next()) {
+                deltas.put(rs.getDate("day").toLocalDate(), new int[]{rs.getInt("scope_delta"), rs.getInt("completed_delta")});
+            }
+            return deltas;
+        });
+    }
+}
@@ -108,7 +108,7 @@ public class SprintDAO extends BaseDAO {
 
     //Bổ sung: Chuyển task chưa xong sang sprint mới (future)
     public void moveIncompleteTasks(UUID fromSprintId, UUID toSprintId) throws SQLException {
-        String sql = "UPDATE tasks SET sprint_id = ? WHERE sprint_id = ? AND status != 'DONE'";
+        String sql = moveTasks("sprint_id = ?", "t.sprint_id = ? AND t.status != 'DONE'");
         executeUpdate(sql, stmt -> {
             stmt.setObject(1, toSprintId);
             stmt.setObject(2, fromSprintId);
@@ -313,7 +313,7 @@ public class SprintDAO extends BaseDAO {
     }
     
     public void moveTasksToBacklog(UUID sprintId) throws SQLException {
-        String sql = "UPDATE tasks SET sprint_id = NULL, updated_at = ? WHERE sprint_id = ? AND status != 'DONE' AND deleted_at IS NULL";
+        String sql = moveTasks("sprint_id = NULL, updated_at = ?", "t.sprint_id = ? AND t.status != 'DONE' AND t.deleted_at IS NULL");
         executeUpdate(sql, stmt -> {
             stmt.setTimestamp(1, Timestamp.valueOf(java.time.LocalDateTime.now()));
             stmt.setObject(2, sprintId);
@@ -321,7 +321,7 @@ public class SprintDAO extends BaseDAO {
     }
     
     public void moveTasksToSprint(UUID fromSprintId, UUID toSprintId) throws SQLException {
-        String sql = "UPDATE tasks SET sprint_id = ?, updated_at = ? WHERE sprint_id = ? AND status != 'DONE' AND deleted_at IS NULL";
+        String sql = moveTasks("sprint_id = ?, updated_at = ?", "t.sprint_id = ? AND t.status != 'DONE' AND t.deleted_at IS NULL");
         executeUpdate(sql, stmt -> {
             stmt.setObject(1, toSprintId);
             stmt.setTimestamp(2, Timestamp.valueOf(java.time.LocalDateTime.now()));
@@ -335,14 +335,14 @@ public class SprintDAO extends BaseDAO {
             return;
         }
         
-        StringBuilder sql = new StringBuilder("UPDATE tasks SET sprint_id = NULL, updated_at = ? WHERE id IN (");
+        StringBuilder ids = new StringBuilder();
         for (int i = 0; i < taskIds.size(); i++) {
-            if (i > 0) sql.append(", ");
-            sql.append("?");
+            if (i > 0) ids.append(", ");
+            ids.append("?");
         }
-        sql.append(") AND deleted_at IS NULL");
+        String sql = moveTasks("sprint_id = NULL, updated_at = ?", "t.id IN (" + ids + ") AND t.deleted_at IS NULL");
         
-        executeUpdate(sql.toString(), stmt -> {
+        executeUpdate(sql, stmt -> {
             stmt.setTimestamp(1, Timestamp.valueOf(java.time.LocalDateTime.now()));
             for (int i = 0; i < taskIds.size(); i++) {
                 stmt.setObject(i + 2, taskIds.get(i));
@@ -356,14 +356,14 @@ public class SprintDAO extends BaseDAO {
             return;
         }
         
-        StringBuilder sql = new StringBuilder("UPDATE tasks SET sprint_id = ?, updated_at = ? WHERE id IN (");
+        StringBuilder ids = new StringBuilder();
         for (int i = 0; i < taskIds.size(); i++) {
-            if (i > 0) sql.append(", ");
-            sql.append("?");
+            if (i > 0) ids.append(", ");
+            ids.append("?");
         }
-        sql.append(") AND deleted_at IS NULL");
+        String sql = moveTasks("sprint_id = ?, updated_at = ?", "t.id IN (" + ids + ") AND t.deleted_at IS NULL");
         
-        executeUpdate(sql.toString(), stmt -> {
+        executeUpdate(sql, stmt -> {
             stmt.setObject(1, toSprintId);
             stmt.setTimestamp(2, Timestamp.valueOf(java.time.LocalDateTime.now()));
             for (int i = 0; i < taskIds.size(); i++) {
@@ -372,4 +372,19 @@ public class SprintDAO extends BaseDAO {
         });
     }
 
+    // An UPDATE of tasks (aliased t) moving them between sprints that also appends a SPRINT_CHANGED
+    // task event per moved task, which the sprint burndown is built from. Bumps the task version
+    // like every task write in Tasks-Service.
+    private static String moveTasks(String set, String where) {
+        return """
+            WITH moved AS (
+                UPDATE tasks t SET %s, version = t.version + 1 FROM tasks old
+                WHERE old.id = t.id AND %s
+                RETURNING t.id, t.project_id, t.title, old.sprint_id AS from_sprint, t.sprint_id AS to_sprint
+            )
+            INSERT INTO task_events (project_id, task_id, task_title, event_type, from_value, to_value)
+            SELECT project_id, id, title, 'SPRINT_CHANGED', from_sprint::text, to_sprint::text FROM moved
+        """.formatted(set, where);
+    }
+
 }
@@ -0,0 +1,200 @@
+package com.tmnhat.sprintsservice.service;
+
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.sprintsservice.model.Sprints;
+import com.tmnhat.sprintsservice.repository.SprintBurndownDAO;
+import com.tmnhat.sprintsservice.repository.SprintBurndownDAO.TaskEventRow;
+import com.tmnhat.sprintsservice.repository.SprintBurndownDAO.TaskState;
+import com.tmnhat.sprintsservice.repository.SprintBurndownDAO.Watermark;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Burndown and burnup of each sprint, kept up to date from the task_events log: every status,
+// story point and sprint change of a task moves its points in or out of a sprint's scope and
+// done totals on the day it happened. Reads only add up the stored per-day changes, so they
+// never replay task history.
+@Service
+public class SprintBurndownService {
+
+    // Event types that can change what a task counts for
+    private static final Set<String> COUNTED_EVENTS = Set.of("TASK_CREATED", "TASK_RESTORED", "TASK_DELETED",
+            "STATUS_CHANGED", "STORY_POINT_CHANGED", "SPRINT_CHANGED");
+
+    private final SprintBurndownDAO burndownDAO = new SprintBurndownDAO();
+
+    @Value("${sprints.burndown.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${sprints.burndown.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${sprints.burndown.settle-ms:5000}")
+    private long settleMs;
+
+    @Scheduled(initialDelayString = "${sprints.burndown.initial-delay-ms:15000}", fixedDelayString = "${sprints.burndown.poll-ms:10000}")
+    public void countNewEvents() {
+        try {
+            Watermark watermark = burndownDAO.getWatermark();
+            if (watermark == null) {
+                if (burndownDAO.seed()) {
+                    System.out.println("Sprint burndown seeded from current tasks");
+                }
+                return;
+            }
+            for (int i = 0; i < maxBatchesPerRun && watermark != null; i++) {
+                watermark = countBatch(watermark);
+            }
+        } catch (Exception e) {
+            System.err.println("Sprint burndown update failed: " + e.getMessage());
+        }
+    }
+
+    // Counts the next batch of events; returns the new watermark if there may be more to count
+    private Watermark countBatch(Watermark watermark) throws Exception {
+        List<TaskEventRow> events = burndownDAO.getEventsAfter(watermark, settleMs, batchSize);
+        if (events.isEmpty()) {
+            return null;
+        }
+        TaskEventRow last = events.get(events.size() - 1);
+        Watermark next = new Watermark(last.getOccurredAt(), last.getId());
+
+        Set<UUID> taskIds = new HashSet<>();
+        for (TaskEventRow event : events) {
+            if (COUNTED_EVENTS.contains(event.getEventType())) {
+                taskIds.add(event.getTaskId());
+            }
+        }
+        Map<UUID, TaskState> states = new HashMap<>();
+        Map<UUID, Map<LocalDate, int[]>> deltas = new HashMap<>();
+        if (!taskIds.isEmpty()) {
+            Map<UUID, TaskState> counted = burndownDAO.getCountedStates(taskIds);
+            // Each task's fields as of the watermark, moved along event by event (from the event
+            // values, never from the row as it is now), and whether it is live (not deleted)
+            Map<UUID, TaskState> rows = burndownDAO.getStatesAt(taskIds, watermark);
+            Set<UUID> deleted = new HashSet<>();
+            for (TaskEventRow event : events) {
+                if (!COUNTED_EVENTS.contains(event.getEventType())) {
+                    continue;
+                }
+                UUID taskId = event.getTaskId();
+                TaskState before = states.containsKey(taskId) ? states.get(taskId) : counted.getOrDefault(taskId, TaskState.NONE);
+                TaskState row = apply(event, rows.getOrDefault(taskId, TaskState.NONE));
+                rows.put(taskId, row);
+                if ("TASK_DELETED".equals(event.getEventType())) {
+                    deleted.add(taskId);
+                } else if ("TASK_CREATED".equals(event.getEventType()) || "TASK_RESTORED".equals(event.getEventType())) {
+                    deleted.remove(taskId);
+                }
+                TaskState after = deleted.contains(taskId) ? row.withSprintId(null) : row;
+                LocalDate day = event.getOccurredAt().toLocalDate();
+                addPoints(deltas, before, day, -1);
+                addPoints(deltas, after, day, 1);
+                states.put(taskId, after);
+            }
+        }
+
+        if (!burndownDAO.applyCounts(deltas, states, watermark, next)) {
+            // Another instance counted this batch
+            return null;
+        }
+        return events.size() == batchSize ? next : null;
+    }
+
+    // A task's fields after the event, given its fields before it (creating, deleting and
+    // restoring a task leave them as they are)
+    private static TaskState apply(TaskEventRow event, TaskState row) {
+        switch (event.getEventType()) {
+            case "STATUS_CHANGED":
+                return row.withDone("DONE".equals(event.getToValue()));
+            case "STORY_POINT_CHANGED":
+                return row.withStoryPoint(SprintBurndownDAO.parsePoints(event.getToValue(), row.getStoryPoint()));
+            case "SPRINT_CHANGED":
+                return row.withSprintId(SprintBurndownDAO.parseSprintId(event.getToValue()));
+            default:
+                return row;
+        }
+    }
+
+    private static void addPoints(Map<UUID, Map<LocalDate, int[]>> deltas, TaskState state, LocalDate day, int sign) {
+        if (state.getSprintId() == null || state.getStoryPoint() == 0) {
+            return;
+        }
+        int[] delta = deltas.computeIfAbsent(state.getSprintId(), id -> new HashMap<>())
+                .computeIfAbsent(day, d -> new int[2]);
+        delta[0] += sign * state.getStoryPoint();
+        if (state.isDone()) {
+            delta[1] += sign * state.getStoryPoint();
+        }
+    }
+
+    // The sprint's daily series from its start to its end (or today, if earlier): scope and
+    // completed story points (burnup) and remaining = scope - completed (burndown), each as of the
+    // end of that day, plus the ideal remaining line
+    public Map<String, Object> getBurndown(Sprints sprint) {
+        try {
+            UUID sprintId = sprint.getId();
+            TreeMap<LocalDate, int[]> deltas = burndownDAO.getDailyDeltas(sprintId);
+            Watermark watermark = burndownDAO.getWatermark();
+
+            LocalDate today = LocalDate.now();
+            LocalDate start = sprint.getStartDate() != null ? sprint.getStartDate()
+                    : !deltas.isEmpty() ? deltas.firstKey() : today;
+            LocalDate end = sprint.getEndDate();
+            LocalDate last = end != null && end.isBefore(today) ? end : today;
+
+            // Changes from before the sprint started (planning) all show on its first day
+            int scope = 0;
+            int completed = 0;
+            for (int[] delta : deltas.headMap(start).values()) {
+                scope += delta[0];
+                completed += delta[1];
+            }
+            long sprintDays = end != null ? ChronoUnit.DAYS.between(start, end) : 0;
+            Integer startScope = null;
+            List<Map<String, Object>> days = new ArrayList<>();
+            for (LocalDate day = start; !day.isAfter(last); day = day.plusDays(1)) {
+                int[] delta = deltas.get(day);
+                if (delta != null) {
+                    scope += delta[0];
+                    completed += delta[1];
+                }
+                if (startScope == null) {
+                    startScope = scope;
+                }
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("date", day);
+                point.put("scope", scope);
+                point.put("completed", completed);
+                point.put("remaining", scope - completed);
+                point.put("ideal", sprintDays > 0
+                        ? Math.max(0, Math.round(startScope * (1 - (double) ChronoUnit.DAYS.between(start, day) / sprintDays) * 100) / 100.0)
+                        : null);
+                days.add(point);
+            }
+
+            Map<String, Object> burndown = new LinkedHashMap<>();
+            burndown.put("sprintId", sprintId);
+            burndown.put("startDate", sprint.getStartDate());
+            burndown.put("endDate", end);
+            burndown.put("days", days);
+            // Events up to this time are counted
+            burndown.put("asOf", watermark != null ? watermark.getOccurredAt() : null);
+            return burndown;
+        } catch (Exception e) {
+            throw new DatabaseException("Error retrieving sprint burndown: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.tmnhat.sprintsservice.utils;
 
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Component
 public class PermissionUtil {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String PROJECTS_SERVICE_URL = "http://localhost:8083";
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
 
     // Permission types enum for sprint operations
     public enum SprintPermission {
@@ -25,31 +40,66 @@ public class PermissionUtil {
 
     // Check if user has permission for sprint operation
     public boolean hasSprintPermission(UUID userId, UUID projectId, SprintPermission permission) {
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        if (permissions == null) {
+            return false;
+        }
+        return checkSprintPermission(permissions, permission);
+    }
+
+    // Permission map of one user in a project, or null if not a member / on error
+    public Map<String, Object> getPermissions(UUID userId, UUID projectId) {
+        return getPermissionsForUsers(projectId, Collections.singletonList(userId)).get(userId);
+    }
+
+    // Permission maps of many users in one project with a single call to the
+    // Projects-Service batch endpoint. Users that are not members map to null.
+    public Map<UUID, Map<String, Object>> getPermissionsForUsers(UUID projectId, Collection<UUID> userIds) {
+        Map<UUID, Map<String, Object>> result = new HashMap<>();
+        List<Map<String, UUID>> pairs = new ArrayList<>();
+        for (UUID userId : new LinkedHashSet<>(userIds)) {
+            Map<String, UUID> pair = new HashMap<>();
+            pair.put("projectId", projectId);
+            pair.put("userId", userId);
+            pairs.add(pair);
+        }
+        if (pairs.isEmpty()) {
+            return result;
+        }
+
+        // Fail fast (no permissions) while Projects-Service is failing or saturated
+        return resilienceRegistry.guard(ResilienceRegistry.PROJECTS_SERVICE).call(
+                () -> fetchPermissionsBatch(pairs),
+                HashMap::new);
+    }
+
+    private Map<UUID, Map<String, Object>> fetchPermissionsBatch(List<Map<String, UUID>> pairs) {
+        Map<UUID, Map<String, Object>> result = new HashMap<>();
+        String url = serviceUrls.getProjectsServiceUrl() + "/api/projects/members/permissions/batch";
+        
+        Map<String, Object> response;
         try {
-            // Get user permissions from Projects-Service
-            String url = String.format("%s/api/projects/%s/members/%s/permissions", 
-                                     PROJECTS_SERVICE_URL, projectId, userId);
-            
             @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response == null || !"SUCCESS".equals(response.get("status"))) {
-                return false;
-            }
-            
+            Map<String, Object> fetched = restTemplate.postForObject(url, pairs, Map.class);
+            response = fetched;
+        } catch (HttpClientErrorException e) {
+            // A 4xx is an answer, not an outage: deny, without tripping the breaker
+            System.err.println("Permission lookup rejected: " + e.getStatusCode());
+            return result;
+        }
+        
+        if (response == null || !"SUCCESS".equals(response.get("status"))) {
+            return result;
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) response.get("data");
+        for (Map<String, Object> entry : entries) {
             @SuppressWarnings("unchecked")
-            Map<String, Object> permissions = (Map<String, Object>) response.get("data");
-            
-            if (permissions == null) {
-                return false;
-            }
-            
-            return checkSprintPermission(permissions, permission);
-            
-        } catch (RestClientException e) {
-            System.err.println("Error checking sprint permissions: " + e.getMessage());
-            return false;
+            Map<String, Object> permissions = (Map<String, Object>) entry.get("permissions");
+            result.put(UUID.fromString((String) entry.get("userId")), permissions);
         }
+        return result;
     }
 
     // Check specific sprint permission based on user role
@@ -114,22 +164,8 @@ public class PermissionUtil {
 
     // Get user role in project
     public String getUserRole(UUID userId, UUID projectId) {
-        try {
-            String url = String.format("%s/api/projects/%s/members/%s/role", 
-                                     PROJECTS_SERVICE_URL, projectId, userId);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && "SUCCESS".equals(response.get("status"))) {
-                return (String) response.get("data");
-            }
-            
-            return null;
-        } catch (RestClientException e) {
-            System.err.println("Error getting user role: " + e.getMessage());
-            return null;
-        }
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        return permissions != null ? (String) permissions.get("role") : null;
     }
 
     // Permission check result wrapper
@@ -159,15 +195,16 @@ public class PermissionUtil {
         }
     }
 
-    // Comprehensive permission check with detailed result
+    // Comprehensive permission check with detailed result (one lookup for both role and flags)
     public PermissionResult checkPermission(UUID userId, UUID projectId, SprintPermission permission) {
-        String userRole = getUserRole(userId, projectId);
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        String userRole = permissions != null ? (String) permissions.get("role") : null;
         
         if (userRole == null) {
             return PermissionResult.deny("User not found in project");
         }
         
-        boolean hasPermission = hasSprintPermission(userId, projectId, permission);
+        boolean hasPermission = checkSprintPermission(permissions, permission);
         
         if (hasPermission) {
             return PermissionResult.allow(userRole);
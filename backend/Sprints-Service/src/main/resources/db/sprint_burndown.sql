@@ -0,0 +1,6 @@
+-- Per sprint and day, how much the sprint's story points (scope) and its done story points changed that day; a burndown is the running sum
+CREATE TABLE IF NOT EXISTS sprint_burndown_days (sprint_id UUID NOT NULL, day DATE NOT NULL, scope_delta INT NOT NULL DEFAULT 0, completed_delta INT NOT NULL DEFAULT 0, PRIMARY KEY (sprint_id, day));
+-- Sprint, story points and done flag of each task as last counted in sprint_burndown_days
+CREATE TABLE IF NOT EXISTS sprint_burndown_tasks (task_id UUID PRIMARY KEY, sprint_id UUID, story_point INT NOT NULL DEFAULT 0, done BOOLEAN NOT NULL DEFAULT false);
+-- Position in task_events up to which events have been counted (one row, advanced with the counts)
+CREATE TABLE IF NOT EXISTS sprint_burndown_watermark (name VARCHAR(50) PRIMARY KEY, occurred_at TIMESTAMP NOT NULL, event_id BIGINT NOT NULL, updated_at TIMESTAMP NOT NULL DEFAULT now());
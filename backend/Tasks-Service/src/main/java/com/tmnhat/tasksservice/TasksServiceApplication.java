@@ -3,9 +3,11 @@ package com.tmnhat.tasksservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.tmnhat.tasksservice", "com.tmnhat.common"})
+@EnableScheduling
 public class TasksServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,69 @@
+package com.tmnhat.tasksservice.controller;
+
+import com.tmnhat.common.payload.ResponseDataAPI;
+import com.tmnhat.tasksservice.model.AsyncJob;
+import com.tmnhat.tasksservice.service.AsyncJobService;
+import com.tmnhat.tasksservice.utils.PermissionUtil;
+import com.tmnhat.tasksservice.utils.PermissionUtil.TaskPermission;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+// Status polling and cancellation of background jobs (train-ai-model, bulk-estimate)
+@RestController
+@RequestMapping("/api/tasks/jobs")
+public class AsyncJobController {
+
+    @Autowired
+    private AsyncJobService asyncJobService;
+
+    @Autowired
+    private PermissionUtil permissionUtil;
+
+    // status, progress/total and, once finished, result or error. Visible to whoever started the
+    // job and, for a project job, to the project's members.
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ResponseDataAPI> getJob(@PathVariable UUID jobId,
+                                                  @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        AsyncJob job = asyncJobService.getJob(jobId);
+        ResponseEntity<ResponseDataAPI> denied = checkAccess(job, userId, TaskPermission.VIEW_TASK);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(job));
+    }
+
+    // Whoever started the job, or a project member allowed to estimate its tasks
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<ResponseDataAPI> cancelJob(@PathVariable UUID jobId,
+                                                     @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        ResponseEntity<ResponseDataAPI> denied = checkAccess(asyncJobService.getJob(jobId), userId, TaskPermission.ESTIMATE_TASK);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(asyncJobService.cancel(jobId)));
+    }
+
+    // Error response if the user may not see or cancel the job, null if allowed. Jobs hold other
+    // users' results, so unlike most task endpoints a user id is required here.
+    private ResponseEntity<ResponseDataAPI> checkAccess(AsyncJob job, String userId, TaskPermission permission) {
+        if (userId == null || userId.trim().isEmpty()) {
+            return ResponseEntity.status(403).body(ResponseDataAPI.error("User ID is required to access jobs"));
+        }
+        UUID userUUID;
+        try {
+            userUUID = UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+        }
+        if (userUUID.equals(job.getRequestedBy())) {
+            return null;
+        }
+        if (job.getProjectId() != null && permissionUtil.hasTaskPermission(userUUID, job.getProjectId(), permission)) {
+            return null;
+        }
+        return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to access this job"));
+    }
+}
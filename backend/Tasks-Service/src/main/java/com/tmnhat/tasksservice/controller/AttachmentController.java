@@ -1,10 +1,15 @@
 package com.tmnhat.tasksservice.controller;
 
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.common.exception.ResourceNotFoundException;
 import com.tmnhat.common.payload.ResponseDataAPI;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.tmnhat.tasksservice.repository.AttachmentDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -12,9 +17,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -26,6 +29,9 @@ public class AttachmentController {
 
     private static final String UPLOAD_DIR = "uploads";
 
+    @Autowired
+    private AttachmentDAO attachmentDAO;
+
     public AttachmentController() {
         // Tạo thư mục uploads nếu chưa tồn tại
         new File(UPLOAD_DIR).mkdirs();
@@ -35,7 +41,8 @@ public class AttachmentController {
     public ResponseEntity<ResponseDataAPI> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam("taskId") String taskId) throws IOException {
-        
+        UUID taskUUID = parseTaskId(taskId);
+
         // Tạo tên file duy nhất
         String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
@@ -50,49 +57,87 @@ public class AttachmentController {
         // Lưu file vào đĩa
         Files.copy(file.getInputStream(), filePath);
         
-        // Tạo thông tin attachment
-        Map<String, Object> attachment = new HashMap<>();
-        attachment.put("id", UUID.randomUUID().toString());
-        attachment.put("task_id", taskId);
-        attachment.put("file_name", originalFilename);
-        attachment.put("file_url", filePath.toString());
-        attachment.put("file_type", file.getContentType());
-        attachment.put("uploaded_at", LocalDateTime.now().toString());
-        
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(attachment));
+        // Lưu metadata vào bảng attachments (dùng chung với File-Service)
+        String fileName = originalFilename != null ? originalFilename : uniqueFilename;
+        String fileType = file.getContentType() != null ? file.getContentType() : getFileContentType(fileName);
+        try {
+            Map<String, Object> attachment = attachmentDAO.addAttachment(taskUUID, fileName, filePath.toString(), fileType);
+            return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(attachment));
+        } catch (SQLException e) {
+            Files.deleteIfExists(filePath);
+            throw new DatabaseException("Error saving attachment: " + e.getMessage());
+        }
     }
 
+    // Attachments of one task from the indexed metadata table. The ETag changes whenever the
+    // list does, so clients can revalidate with If-None-Match and get a 304 without a body.
     @GetMapping("/task/{taskId}")
-    public ResponseEntity<ResponseDataAPI> getAttachmentsByTaskId(@PathVariable String taskId) {
-        List<Map<String, Object>> attachments = new ArrayList<>();
-        
-        // Đọc danh sách file trong thư mục uploads
-        File dir = new File(UPLOAD_DIR);
-        File[] files = dir.listFiles();
-        
-        if (files != null) {
-            for (File file : files) {
-                // Trong thực tế bạn sẽ lấy từ database
-                Map<String, Object> attachment = new HashMap<>();
-                attachment.put("id", UUID.randomUUID().toString());
-                attachment.put("task_id", taskId);
-                attachment.put("file_name", file.getName());
-                attachment.put("file_url", file.getPath());
-                attachment.put("file_type", getFileContentType(file.getName()));
-                attachment.put("uploaded_at", LocalDateTime.now().toString());
-                attachments.add(attachment);
-            }
+    public ResponseEntity<ResponseDataAPI> getAttachmentsByTaskId(@PathVariable String taskId, WebRequest request) {
+        UUID taskUUID = parseTaskId(taskId);
+        List<Map<String, Object>> attachments;
+        try {
+            attachments = attachmentDAO.findByTaskId(taskUUID);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving attachments: " + e.getMessage());
         }
-        
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(attachments));
+
+        String eTag = listETag(attachments);
+        if (request.checkNotModified(eTag)) {
+            return null; // 304 Not Modified has been set on the response
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(ResponseDataAPI.successWithoutMeta(attachments));
     }
 
     @DeleteMapping("/{attachmentId}")
-    public ResponseEntity<ResponseDataAPI> deleteAttachment(@PathVariable String attachmentId) {
-        // Trong thực tế bạn sẽ tìm thông tin từ database và xóa file
+    public ResponseEntity<ResponseDataAPI> deleteAttachment(@PathVariable String attachmentId) throws IOException {
+        long id;
+        try {
+            id = Long.parseLong(attachmentId);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid attachment ID: " + attachmentId);
+        }
+
+        String fileUrl;
+        try {
+            fileUrl = attachmentDAO.deleteAttachment(id);
+            if (fileUrl == null && attachmentDAO.exists(id)) {
+                // The file lives with File-Service; deleting only the row here would orphan it
+                throw new BadRequestException("Attachment " + attachmentId + " was not uploaded through this service; delete it through File-Service");
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error deleting attachment: " + e.getMessage());
+        }
+        if (fileUrl == null) {
+            throw new ResourceNotFoundException("Attachment not found with ID " + attachmentId);
+        }
+        // Chỉ xóa file nằm trong thư mục uploads của service này
+        Path path = Paths.get(fileUrl).normalize();
+        if (path.startsWith(Paths.get(UPLOAD_DIR))) {
+            Files.deleteIfExists(path);
+        }
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
+    private UUID parseTaskId(String taskId) {
+        try {
+            return UUID.fromString(taskId);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid UUID format: " + taskId);
+        }
+    }
+
+    // Ids are never reused, so the id list identifies the listing
+    private String listETag(List<Map<String, Object>> attachments) {
+        StringBuilder ids = new StringBuilder();
+        for (Map<String, Object> attachment : attachments) {
+            ids.append(attachment.get("id")).append(',');
+        }
+        return "\"" + attachments.size() + "-" + Integer.toHexString(ids.toString().hashCode()) + "\"";
+    }
+
     private String getFileContentType(String filename) {
         if (filename.toLowerCase().endsWith(".png")) return "image/png";
         if (filename.toLowerCase().endsWith(".jpg") || filename.toLowerCase().endsWith(".jpeg")) return "image/jpeg";
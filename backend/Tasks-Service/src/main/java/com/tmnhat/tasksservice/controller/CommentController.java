@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -35,6 +36,24 @@ public class CommentController {
         }
     }
     
+    // Threaded view: a page of top-level comments, each with its nested replies and replyCount.
+    // Pass meta.nextCursor back as ?cursor= to load the next (newer) top-level comments.
+    @GetMapping("/task/{taskId}/thread")
+    public ResponseEntity<ResponseDataAPI> getCommentThread(
+            @PathVariable UUID taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            Map<String, Object> page = commentService.getCommentThread(taskId, cursor, limit);
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("nextCursor", page.get("nextCursor"));
+            meta.put("hasMore", page.get("nextCursor") != null);
+            return ResponseEntity.ok(ResponseDataAPI.success(page.get("items"), meta));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseDataAPI.error("Error fetching comment thread: " + e.getMessage()));
+        }
+    }
+    
     // Add new comment
     @PostMapping
     public ResponseEntity<ResponseDataAPI> addComment(@RequestBody Map<String, Object> request) {
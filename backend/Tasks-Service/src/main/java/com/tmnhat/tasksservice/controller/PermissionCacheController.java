@@ -0,0 +1,40 @@
+package com.tmnhat.tasksservice.controller;
+
+import com.tmnhat.common.payload.ResponseDataAPI;
+import com.tmnhat.tasksservice.utils.PermissionCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+// Internal endpoints for the permission decision cache
+@RestController
+@RequestMapping("/api/tasks/permissions/cache")
+public class PermissionCacheController {
+
+    @Autowired
+    private PermissionCache permissionCache;
+
+    // Hit/miss counters and current size
+    @GetMapping("/stats")
+    public ResponseEntity<ResponseDataAPI> getStats() {
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(permissionCache.getStats()));
+    }
+
+    // Called by Projects-Service when membership or roles change.
+    // Without userId every entry of the project is dropped; without both the whole cache is cleared.
+    @PostMapping("/invalidate")
+    public ResponseEntity<ResponseDataAPI> invalidate(
+            @RequestParam(required = false) UUID projectId,
+            @RequestParam(required = false) UUID userId) {
+        if (projectId != null && userId != null) {
+            permissionCache.invalidate(userId, projectId);
+        } else if (projectId != null) {
+            permissionCache.invalidateProject(projectId);
+        } else {
+            permissionCache.invalidateAll();
+        }
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
+    }
+}
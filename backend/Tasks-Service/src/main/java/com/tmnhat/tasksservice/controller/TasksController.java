@@ -2,12 +2,19 @@ package com.tmnhat.tasksservice.controller;
 
 import com.tmnhat.common.config.WebConfig;
 import com.tmnhat.common.payload.ResponseDataAPI;
+import com.tmnhat.tasksservice.model.AsyncJob;
 import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.model.TaskCounters;
+import com.tmnhat.tasksservice.payload.enums.TaskStatus;
+import com.tmnhat.tasksservice.service.TaskCounterService;
+import com.tmnhat.tasksservice.service.TaskDependencyService;
+import com.tmnhat.tasksservice.service.TaskDetailService;
+import com.tmnhat.tasksservice.service.TaskRankService;
 import com.tmnhat.tasksservice.service.TaskService;
-import com.tmnhat.tasksservice.service.Impl.TaskServiceImpl;
 import com.tmnhat.tasksservice.validation.TaskValidator;
 import com.tmnhat.tasksservice.utils.PermissionUtil;
 import com.tmnhat.tasksservice.utils.PermissionUtil.TaskPermission;
+import com.tmnhat.tasksservice.utils.TaskDependencyGraph;
 import com.tmnhat.common.exception.BadRequestException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
@@ -15,8 +22,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 @Import(WebConfig.class)
 
@@ -24,13 +36,29 @@ import java.util.UUID;
 @RequestMapping("/api/tasks")
 public class TasksController {
 
+    private static final int MAX_BATCH_GET = 5000;
+
     private final TaskService taskService;
     
     @Autowired
     private PermissionUtil permissionUtil;
 
-    public TasksController() {
-        this.taskService = new TaskServiceImpl();
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private TaskCounterService taskCounterService;
+
+    @Autowired
+    private TaskDetailService taskDetailService;
+
+    @Autowired
+    private TaskRankService taskRankService;
+
+    // Use the Spring-managed service so shared state (dependency graphs, caches) is not duplicated
+    @Autowired
+    public TasksController(TaskService taskService) {
+        this.taskService = taskService;
     }
 
     // Add task
@@ -64,11 +92,16 @@ public class TasksController {
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
-    // Update task
+    // Update task. With an If-Match header (the ETag last read) the update only goes through if
+    // nobody changed the task since, otherwise 409. A version in the body is ignored: clients send
+    // back the task as they loaded it, and a check on that would reject their second edit.
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDataAPI> updateTask(@PathVariable UUID id, @RequestBody Tasks task, @RequestHeader(value = "X-User-Id", required = false) String userId) {
+    public ResponseEntity<ResponseDataAPI> updateTask(@PathVariable UUID id, @RequestBody Tasks task,
+                                                      @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                      @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateTaskId(id);
         TaskValidator.validateTask(task);
+        task.setVersion(expectedVersion(null, ifMatch));
         
         // Permission check: User must have UPDATE_ANY_TASK or UPDATE_ASSIGNED_TASK permission
         if (userId != null && !userId.trim().isEmpty() && task.getProjectId() != null) {
@@ -92,7 +125,46 @@ public class TasksController {
         
         // Pass the userId to service layer for notification
         taskService.updateTask(id, task, userId);
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
+        return ResponseEntity.ok().eTag(String.valueOf(task.getVersion())).body(ResponseDataAPI.successWithoutMetaAndData());
+    }
+
+    // Partial update: only the fields present in the body are written, e.g. {"title": "...", "version": 7}.
+    // Returns the updated task with its new version; a stale version gets 409.
+    @PatchMapping("/{id}")
+    public ResponseEntity<ResponseDataAPI> patchTask(@PathVariable UUID id, @RequestBody Map<String, Object> fields,
+                                                     @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                     @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(id);
+        Long expectedVersion = expectedVersion(fields.get("version"), ifMatch);
+
+        if (userId != null && !userId.trim().isEmpty()) {
+            try {
+                UUID userUUID = UUID.fromString(userId);
+                Tasks existingTask = taskService.getTaskById(id);
+                if (existingTask.getProjectId() != null
+                        && !permissionUtil.canUpdateTask(userUUID, existingTask.getProjectId(), existingTask.getAssigneeId(), existingTask.getCreatedBy())) {
+                    return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to update this task. You can only edit tasks you created or are assigned to."));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+
+        Tasks updated = taskService.patchTask(id, fields, expectedVersion, userId);
+        return ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(ResponseDataAPI.successWithoutMeta(updated));
+    }
+
+    // Version from the body, else from If-Match ("7", W/"7" or 7); null means no check
+    private static Long expectedVersion(Object bodyVersion, String ifMatch) {
+        String value = bodyVersion != null ? bodyVersion.toString() : ifMatch;
+        if (value == null || value.isBlank() || value.trim().equals("*")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim().replaceFirst("^W/", "").replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid task version: " + value);
+        }
     }
 
     // Delete task
@@ -118,7 +190,7 @@ public class TasksController {
             }
         }
         
-        taskService.deleteTask(id);
+        taskService.deleteTask(id, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -146,6 +218,99 @@ public class TasksController {
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(task));
     }
     
+    // Resolve many tasks at once (notifications, activity feeds, linked-task panels).
+    // Body: {"ids": [...]}. Items come back in input order; an id that is unknown, deleted or
+    // not visible to X-User-Id is returned as {"id", "found": false, "reason": NOT_FOUND | FORBIDDEN}.
+    // Permissions are checked once per distinct project.
+    @PostMapping("/batch-get")
+    public ResponseEntity<ResponseDataAPI> batchGetTasks(
+            @RequestBody Map<String, List<UUID>> request,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        List<UUID> ids = request.get("ids");
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("ids must not be empty");
+        }
+        if (ids.size() > MAX_BATCH_GET) {
+            throw new BadRequestException("At most " + MAX_BATCH_GET + " ids per request");
+        }
+        UUID userUUID = null;
+        if (userId != null && !userId.trim().isEmpty()) {
+            try {
+                userUUID = UUID.fromString(userId);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+
+        Set<UUID> distinctIds = new HashSet<>(ids);
+        distinctIds.remove(null);
+        Map<UUID, Tasks> tasks = taskService.getTasksByIds(distinctIds);
+
+        Map<UUID, Boolean> canView = new HashMap<>();
+        if (userUUID != null) {
+            for (Tasks task : tasks.values()) {
+                if (task.getProjectId() != null && !canView.containsKey(task.getProjectId())) {
+                    canView.put(task.getProjectId(), permissionUtil.hasTaskPermission(userUUID, task.getProjectId(), TaskPermission.VIEW_TASK));
+                }
+            }
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(ids.size());
+        int found = 0;
+        for (UUID id : ids) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id);
+            Tasks task = id != null ? tasks.get(id) : null;
+            if (task == null) {
+                item.put("found", false);
+                item.put("reason", "NOT_FOUND");
+            } else if (task.getProjectId() != null && !canView.getOrDefault(task.getProjectId(), true)) {
+                item.put("found", false);
+                item.put("reason", "FORBIDDEN");
+            } else {
+                item.put("found", true);
+                item.put("task", task);
+                found++;
+            }
+            items.add(item);
+        }
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("requested", ids.size());
+        meta.put("found", found);
+        meta.put("missing", ids.size() - found);
+        return ResponseEntity.ok(ResponseDataAPI.success(items, meta));
+    }
+
+    // Everything the task detail panel needs in one call: task, first page of the comment thread,
+    // members, attachments and user display info ("users", keyed by id), loaded concurrently.
+    // Parts that fail or miss the deadline are left out and listed in meta.missing.
+    @GetMapping("/{taskId}/detail")
+    public ResponseEntity<ResponseDataAPI> getTaskDetail(@PathVariable UUID taskId, @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(taskId);
+        UUID userUUID = null;
+        if (userId != null && !userId.trim().isEmpty()) {
+            try {
+                userUUID = UUID.fromString(userId);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+
+        TaskDetailService.Result detail = taskDetailService.getTaskDetail(taskId, userUUID);
+        if (detail.isNotFound()) {
+            return ResponseEntity.status(404).body(ResponseDataAPI.error("Task not found"));
+        }
+        if (detail.isForbidden()) {
+            return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to view this task"));
+        }
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("partial", !detail.getMissing().isEmpty());
+        meta.put("missing", detail.getMissing());
+        meta.put("elapsedMs", detail.getElapsedMs());
+        return ResponseEntity.ok(ResponseDataAPI.success(detail.getData(), meta));
+    }
+
     @GetMapping("/filter_details")
     public ResponseEntity<ResponseDataAPI> getTasksByStatusProjectSprint(
             @RequestParam String status,
@@ -200,7 +365,7 @@ public class TasksController {
             }
         }
         
-        taskService.assignTask(taskId, userId);
+        taskService.assignTask(taskId, userId, requesterId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -230,10 +395,57 @@ public class TasksController {
             }
         }
         
-        taskService.changeTaskStatus(taskId, status, userId);
+        TaskStatus newStatus;
+        try {
+            newStatus = TaskStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid task status: " + status);
+        }
+        // Acknowledged right away; the write is coalesced with the rest of the drag burst
+        taskService.changeTaskStatus(existingTask, newStatus, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
+    // Move a task in the manual order: body {previousId, nextId, status}, the tasks it now sits
+    // between (null/absent at either end of the list) and optionally its new status column.
+    // Only the moved task is written, coalesced like status changes.
+    @PatchMapping("/{taskId}/rank")
+    public ResponseEntity<ResponseDataAPI> moveTask(@PathVariable UUID taskId, @RequestBody Map<String, String> body,
+                                                    @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(taskId);
+        UUID previousId;
+        UUID nextId;
+        TaskStatus newStatus;
+        try {
+            previousId = body.get("previousId") != null ? UUID.fromString(body.get("previousId")) : null;
+            nextId = body.get("nextId") != null ? UUID.fromString(body.get("nextId")) : null;
+            newStatus = body.get("status") != null ? TaskStatus.valueOf(body.get("status")) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid move: " + e.getMessage());
+        }
+
+        Tasks existingTask = taskService.getTaskById(taskId);
+        if (userId != null && !userId.trim().isEmpty() && existingTask.getProjectId() != null) {
+            try {
+                UUID userUUID = UUID.fromString(userId);
+                if (!permissionUtil.canUpdateTask(userUUID, existingTask.getProjectId(), existingTask.getAssigneeId(), existingTask.getCreatedBy())) {
+                    return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to move this task. You can only update tasks you created or are assigned to."));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+
+        UUID actorId = null;
+        try {
+            actorId = userId != null && !userId.isBlank() ? UUID.fromString(userId) : null;
+        } catch (IllegalArgumentException e) {
+            // checked above
+        }
+        String rank = taskRankService.move(existingTask, previousId, nextId, newStatus, actorId);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(Map.of("rank", rank)));
+    }
+
     // Update story point
     @PatchMapping("/{taskId}/story-point")
     public ResponseEntity<ResponseDataAPI> updateStoryPoint(@PathVariable UUID taskId, @RequestParam int storyPoint, @RequestHeader(value = "X-User-Id", required = false) String userId) {
@@ -257,7 +469,7 @@ public class TasksController {
             }
         }
         
-        taskService.updateStoryPoint(taskId, storyPoint);
+        taskService.updateStoryPoint(taskId, storyPoint, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -285,19 +497,129 @@ public class TasksController {
             }
         }
         
-        taskService.addSubtask(parentTaskId, subtask);
+        taskService.addSubtask(parentTaskId, subtask, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
     // Link tasks
     @PostMapping("/{taskId}/link/{relatedTaskId}")
-    public ResponseEntity<ResponseDataAPI> linkTasks(@PathVariable UUID taskId, @PathVariable UUID relatedTaskId) {
+    public ResponseEntity<ResponseDataAPI> linkTasks(@PathVariable UUID taskId, @PathVariable UUID relatedTaskId, @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(taskId);
+        TaskValidator.validateTaskId(relatedTaskId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanUpdate(taskId, userId, "Insufficient permissions to link tasks");
+        if (denied != null) {
+            return denied;
+        }
+        taskService.linkTasks(taskId, relatedTaskId, userId);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
+    }
+
+    // Unlink tasks
+    @DeleteMapping("/{taskId}/link/{relatedTaskId}")
+    public ResponseEntity<ResponseDataAPI> unlinkTasks(@PathVariable UUID taskId, @PathVariable UUID relatedTaskId, @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateTaskId(taskId);
         TaskValidator.validateTaskId(relatedTaskId);
-        taskService.linkTasks(taskId, relatedTaskId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanUpdate(taskId, userId, "Insufficient permissions to unlink tasks");
+        if (denied != null) {
+            return denied;
+        }
+        taskService.unlinkTasks(taskId, relatedTaskId, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
+    // Tasks that block this task (linked as related tasks)
+    @GetMapping("/{taskId}/dependencies/blockers")
+    public ResponseEntity<ResponseDataAPI> getBlockers(
+            @PathVariable UUID taskId,
+            @RequestParam(defaultValue = "false") boolean transitive,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(taskId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanView(taskDependencyService.getProjectId(taskId), userId);
+        if (denied != null) {
+            return denied;
+        }
+        List<UUID> blockers = taskDependencyService.getBlockers(taskId, transitive);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(blockers));
+    }
+
+    // Tasks that are blocked by this task
+    @GetMapping("/{taskId}/dependencies/blocked-by")
+    public ResponseEntity<ResponseDataAPI> getBlockedBy(
+            @PathVariable UUID taskId,
+            @RequestParam(defaultValue = "false") boolean transitive,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateTaskId(taskId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanView(taskDependencyService.getProjectId(taskId), userId);
+        if (denied != null) {
+            return denied;
+        }
+        List<UUID> blocked = taskDependencyService.getBlockedBy(taskId, transitive);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(blocked));
+    }
+
+    // Project tasks ordered so that every task comes after its blockers
+    @GetMapping("/project/{projectId}/dependencies/order")
+    public ResponseEntity<ResponseDataAPI> getDependencyOrder(@PathVariable UUID projectId,
+                                                              @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateProjectId(projectId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanView(projectId, userId);
+        if (denied != null) {
+            return denied;
+        }
+        List<UUID> order = taskDependencyService.getTopologicalOrder(projectId);
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(order));
+    }
+
+    // Longest dependency chain of the project, weighted by story points
+    @GetMapping("/project/{projectId}/dependencies/critical-path")
+    public ResponseEntity<ResponseDataAPI> getCriticalPath(@PathVariable UUID projectId,
+                                                           @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        TaskValidator.validateProjectId(projectId);
+        ResponseEntity<ResponseDataAPI> denied = checkCanView(projectId, userId);
+        if (denied != null) {
+            return denied;
+        }
+        TaskDependencyGraph.CriticalPath criticalPath = taskDependencyService.getCriticalPath(projectId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("length", criticalPath.getLength());
+        result.put("path", criticalPath.getPath());
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(result));
+    }
+
+    // Same checks as the other task endpoints: VIEW_TASK in the project (all members)
+    private ResponseEntity<ResponseDataAPI> checkCanView(UUID projectId, String userId) {
+        if (userId != null && !userId.trim().isEmpty()) {
+            try {
+                UUID userUUID = UUID.fromString(userId);
+                if (!permissionUtil.hasTaskPermission(userUUID, projectId, PermissionUtil.TaskPermission.VIEW_TASK)) {
+                    return ResponseEntity.status(403).body(ResponseDataAPI.error("Insufficient permissions to view task dependencies"));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+        return null;
+    }
+
+    // Links change the task they block, so they need the same permission as updating it
+    private ResponseEntity<ResponseDataAPI> checkCanUpdate(UUID taskId, String userId, String deniedMessage) {
+        Tasks existingTask = taskService.getTaskById(taskId);
+        if (existingTask == null) {
+            return ResponseEntity.status(404).body(ResponseDataAPI.error("Task not found"));
+        }
+        if (userId != null && !userId.trim().isEmpty() && existingTask.getProjectId() != null) {
+            try {
+                UUID userUUID = UUID.fromString(userId);
+                if (!permissionUtil.canUpdateTask(userUUID, existingTask.getProjectId(), existingTask.getAssigneeId(), existingTask.getCreatedBy())) {
+                    return ResponseEntity.status(403).body(ResponseDataAPI.error(deniedMessage));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(400).body(ResponseDataAPI.error("Invalid user ID format"));
+            }
+        }
+        return null;
+    }
+
     // Filter tasks
     @GetMapping("/filter")
     public ResponseEntity<ResponseDataAPI> filterTasks(
@@ -336,12 +658,12 @@ public class TasksController {
 
     // Comment on task
     @PostMapping("/{taskId}/comment")
-    public ResponseEntity<ResponseDataAPI> commentOnTask(@PathVariable UUID taskId, @RequestParam String comment) {
+    public ResponseEntity<ResponseDataAPI> commentOnTask(@PathVariable UUID taskId, @RequestParam String comment, @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateTaskId(taskId);
         if (comment == null || comment.isBlank()) {
             throw new BadRequestException("Comment cannot be empty");
         }
-        taskService.commentOnTask(taskId, comment);
+        taskService.commentOnTask(taskId, comment, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -349,23 +671,33 @@ public class TasksController {
     @PostMapping("/{taskId}/attachment")
     public ResponseEntity<ResponseDataAPI> attachFileToTask(
             @PathVariable UUID taskId,
-            @RequestParam MultipartFile file) {
+            @RequestParam MultipartFile file,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateTaskId(taskId);
         if (file == null || file.isEmpty()) {
             throw new BadRequestException("File cannot be empty");
         }
-        taskService.attachFileToTask(taskId, file);
+        taskService.attachFileToTask(taskId, file, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
+    // Comment/attachment/member counts for many tasks at once (board badges).
+    // Body: {"taskIds": [...]}; returns {taskId: {comments, attachments, members}}
+    @PostMapping("/counts")
+    public ResponseEntity<ResponseDataAPI> getTaskCounters(@RequestBody Map<String, List<UUID>> request) {
+        Map<UUID, TaskCounters> counters = taskCounterService.getCounters(request.get("taskIds"));
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(counters));
+    }
+
     // Add member to task
     @PostMapping("/{taskId}/members")
     public ResponseEntity<ResponseDataAPI> addMemberToTask(
             @PathVariable UUID taskId,
-            @RequestParam UUID userId) {
+            @RequestParam UUID userId,
+            @RequestHeader(value = "X-User-Id", required = false) String actorUserId) {
         TaskValidator.validateTaskId(taskId);
         TaskValidator.validateUserId(userId);
-        taskService.addMemberToTask(taskId, userId);
+        taskService.addMemberToTask(taskId, userId, actorUserId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -373,10 +705,11 @@ public class TasksController {
     @DeleteMapping("/{taskId}/members/{userId}")
     public ResponseEntity<ResponseDataAPI> removeMemberFromTask(
             @PathVariable UUID taskId,
-            @PathVariable UUID userId) {
+            @PathVariable UUID userId,
+            @RequestHeader(value = "X-User-Id", required = false) String actorUserId) {
         TaskValidator.validateTaskId(taskId);
         TaskValidator.validateUserId(userId);
-        taskService.removeMemberFromTask(taskId, userId);
+        taskService.removeMemberFromTask(taskId, userId, actorUserId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMetaAndData());
     }
 
@@ -387,9 +720,11 @@ public class TasksController {
         List<UUID> members = taskService.getTaskMembers(taskId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(members));
     }
+    // ?expand=members adds each task's members with display info (batched, no query per task)
     @GetMapping("/project/{projectId}")
-    public List<Tasks> getTasksByProjectId(@PathVariable UUID projectId) {
-        return taskService.getTasksByProjectId(projectId);
+    public List<?> getTasksByProjectId(@PathVariable UUID projectId, @RequestParam(required = false) String expand) {
+        List<Tasks> tasks = taskService.getTasksByProjectId(projectId);
+        return expandsMembers(expand) ? taskService.withMembers(tasks) : tasks;
     }
 
     // Get tasks by project ID with sorting
@@ -397,40 +732,81 @@ public class TasksController {
     public ResponseEntity<ResponseDataAPI> getTasksByProjectIdSorted(
             @PathVariable UUID projectId,
             @RequestParam(defaultValue = "updated") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortOrder) {
+            @RequestParam(defaultValue = "desc") String sortOrder,
+            @RequestParam(required = false) String expand) {
         List<Tasks> tasks = taskService.getTasksByProjectIdSorted(projectId, sortBy, sortOrder);
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(tasks));
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(expandsMembers(expand) ? taskService.withMembers(tasks) : tasks));
+    }
+
+    private static boolean expandsMembers(String expand) {
+        if (expand == null) {
+            return false;
+        }
+        for (String part : expand.split(",")) {
+            if (part.trim().equalsIgnoreCase("members")) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    // Get project activity (Recent activity for project summary)
+    // A project's tasks in manual (board/backlog) order, optionally one status column.
+    // Pass meta.nextCursor back as ?cursor= to load the next page.
+    @GetMapping("/project/{projectId}/ranked")
+    public ResponseEntity<ResponseDataAPI> getRankedTasks(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TaskValidator.validateProjectId(projectId);
+        Map<String, Object> page = taskRankService.getRankedTasks(projectId, status, cursor, limit);
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("nextCursor", page.get("nextCursor"));
+        meta.put("hasMore", page.get("nextCursor") != null);
+        return ResponseEntity.ok(ResponseDataAPI.success(page.get("items"), meta));
+    }
+
+    // Get project activity (Recent activity for project summary), newest first.
+    // Pass meta.nextCursor back as ?cursor= to load older entries.
     @GetMapping("/project/{projectId}/activity")
-    public ResponseEntity<ResponseDataAPI> getProjectActivity(@PathVariable UUID projectId) {
+    public ResponseEntity<ResponseDataAPI> getProjectActivity(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         TaskValidator.validateProjectId(projectId);
-        List<Object> activities = taskService.getProjectActivity(projectId);
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(activities));
+        Map<String, Object> page = taskService.getProjectActivity(projectId, cursor, limit);
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("nextCursor", page.get("nextCursor"));
+        meta.put("hasMore", page.get("nextCursor") != null);
+        return ResponseEntity.ok(ResponseDataAPI.success(page.get("items"), meta));
     }
 
     // AI Story Point Estimation
     @PostMapping("/{taskId}/estimate-story-points")
-    public ResponseEntity<ResponseDataAPI> estimateStoryPoints(@PathVariable UUID taskId) {
+    public ResponseEntity<ResponseDataAPI> estimateStoryPoints(@PathVariable UUID taskId, @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateTaskId(taskId);
-        Object estimation = taskService.estimateStoryPoints(taskId);
+        Object estimation = taskService.estimateStoryPoints(taskId, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(estimation));
     }
 
-    // Train AI Model
+    // Train AI Model (background job: 202 with the job, poll GET /api/tasks/jobs/{jobId}).
+    // Sends only tasks changed since the last training unless full=true.
     @PostMapping("/train-ai-model")
-    public ResponseEntity<ResponseDataAPI> trainAIModel() {
-        Object result = taskService.trainAIModel();
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(result));
+    public ResponseEntity<ResponseDataAPI> trainAIModel(
+            @RequestParam(defaultValue = "false") boolean full,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        AsyncJob job = taskService.startTrainAIModelJob(userId, full);
+        return ResponseEntity.accepted().body(ResponseDataAPI.successWithoutMeta(job));
     }
 
-    // Bulk AI Estimation for Project
+    // Bulk AI Estimation for Project (background job, same as train-ai-model)
     @PostMapping("/project/{projectId}/bulk-estimate")
-    public ResponseEntity<ResponseDataAPI> bulkEstimateProject(@PathVariable UUID projectId) {
+    public ResponseEntity<ResponseDataAPI> bulkEstimateProject(
+            @PathVariable UUID projectId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         TaskValidator.validateProjectId(projectId);
-        Object result = taskService.bulkEstimateStoryPoints(projectId);
-        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(result));
+        AsyncJob job = taskService.startBulkEstimateJob(projectId, userId);
+        return ResponseEntity.accepted().body(ResponseDataAPI.successWithoutMeta(job));
     }
 
     @GetMapping("/project/{projectId}/calendar/filter")
@@ -534,7 +910,7 @@ public class TasksController {
             }
         }
         
-        taskService.restoreTask(id);
+        taskService.restoreTask(id, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta("Task restored successfully"));
     }
     
@@ -557,7 +933,7 @@ public class TasksController {
             }
         }
         
-        taskService.restoreTasksByProject(projectId);
+        taskService.restoreTasksByProject(projectId, userId);
         return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta("All project tasks restored successfully"));
     }
     
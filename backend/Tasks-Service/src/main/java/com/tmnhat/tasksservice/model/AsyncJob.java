@@ -0,0 +1,186 @@
+package com.tmnhat.tasksservice.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.tmnhat.tasksservice.payload.enums.JobStatus;
+import com.tmnhat.tasksservice.payload.enums.JobType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One row of async_jobs: a long-running operation and its progress
+public class AsyncJob {
+    private UUID id;
+    private JobType jobType;
+    private JobStatus status;
+    private UUID projectId;
+    private UUID requestedBy;
+    private int progress;
+    private int total;
+    private String result;
+    private String error;
+    private boolean cancelRequested;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public AsyncJob() {}
+
+    private AsyncJob(Builder builder) {
+        this.id = builder.id;
+        this.jobType = builder.jobType;
+        this.status = builder.status;
+        this.projectId = builder.projectId;
+        this.requestedBy = builder.requestedBy;
+        this.progress = builder.progress;
+        this.total = builder.total;
+        this.result = builder.result;
+        this.error = builder.error;
+        this.cancelRequested = builder.cancelRequested;
+        this.createdAt = builder.createdAt;
+        this.startedAt = builder.startedAt;
+        this.finishedAt = builder.finishedAt;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public JobType getJobType() {
+        return jobType;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public UUID getProjectId() {
+        return projectId;
+    }
+
+    public UUID getRequestedBy() {
+        return requestedBy;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    // Stored as JSON, returned to clients as a JSON object
+    @JsonRawValue
+    public String getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Builder
+    public static class Builder {
+        private UUID id;
+        private JobType jobType;
+        private JobStatus status;
+        private UUID projectId;
+        private UUID requestedBy;
+        private int progress;
+        private int total;
+        private String result;
+        private String error;
+        private boolean cancelRequested;
+        private LocalDateTime createdAt;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+
+        public Builder() {}
+
+        public Builder id(UUID id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder jobType(JobType jobType) {
+            this.jobType = jobType;
+            return this;
+        }
+
+        public Builder status(JobStatus status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder projectId(UUID projectId) {
+            this.projectId = projectId;
+            return this;
+        }
+
+        public Builder requestedBy(UUID requestedBy) {
+            this.requestedBy = requestedBy;
+            return this;
+        }
+
+        public Builder progress(int progress) {
+            this.progress = progress;
+            return this;
+        }
+
+        public Builder total(int total) {
+            this.total = total;
+            return this;
+        }
+
+        public Builder result(String result) {
+            this.result = result;
+            return this;
+        }
+
+        public Builder error(String error) {
+            this.error = error;
+            return this;
+        }
+
+        public Builder cancelRequested(boolean cancelRequested) {
+            this.cancelRequested = cancelRequested;
+            return this;
+        }
+
+        public Builder createdAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder startedAt(LocalDateTime startedAt) {
+            this.startedAt = startedAt;
+            return this;
+        }
+
+        public Builder finishedAt(LocalDateTime finishedAt) {
+            this.finishedAt = finishedAt;
+            return this;
+        }
+
+        public AsyncJob build() {
+            return new AsyncJob(this);
+        }
+    }
+}
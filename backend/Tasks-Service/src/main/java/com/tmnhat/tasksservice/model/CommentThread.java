@@ -0,0 +1,45 @@
+package com.tmnhat.tasksservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A comment with its nested replies. Serialized as the comment's own fields plus
+// "replies" and "replyCount" (all descendants, not just direct replies).
+public class CommentThread {
+
+    @JsonUnwrapped
+    private final Comment comment;
+    private final List<CommentThread> replies = new ArrayList<>();
+    private int replyCount;
+    private final int depth;
+
+    public CommentThread(Comment comment, int depth) {
+        this.comment = comment;
+        this.depth = depth;
+    }
+
+    public Comment getComment() {
+        return comment;
+    }
+
+    public List<CommentThread> getReplies() {
+        return replies;
+    }
+
+    public int getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(int replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    // 0 for a top-level comment
+    @JsonIgnore
+    public int getDepth() {
+        return depth;
+    }
+}
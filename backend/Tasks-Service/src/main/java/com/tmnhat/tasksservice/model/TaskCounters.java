@@ -0,0 +1,35 @@
+package com.tmnhat.tasksservice.model;
+
+import java.util.UUID;
+
+// Badge counts of one task, read from task_counters
+public class TaskCounters {
+
+    private final UUID taskId;
+    private final int comments;
+    private final int attachments;
+    private final int members;
+
+    public TaskCounters(UUID taskId, int comments, int attachments, int members) {
+        this.taskId = taskId;
+        this.comments = comments;
+        this.attachments = attachments;
+        this.members = members;
+    }
+
+    public UUID getTaskId() {
+        return taskId;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public int getAttachments() {
+        return attachments;
+    }
+
+    public int getMembers() {
+        return members;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tmnhat.tasksservice.model;
+
+import com.tmnhat.tasksservice.payload.enums.TaskEventType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One immutable row of the task_events log
+public class TaskEvent {
+    private Long id;
+    private UUID projectId;
+    private UUID taskId;
+    private String taskTitle;
+    private TaskEventType eventType;
+    private UUID actorId;
+    private String fromValue;
+    private String toValue;
+    private LocalDateTime occurredAt;
+
+    public TaskEvent() {}
+
+    private TaskEvent(Builder builder) {
+        this.id = builder.id;
+        this.projectId = builder.projectId;
+        this.taskId = builder.taskId;
+        this.taskTitle = builder.taskTitle;
+        this.eventType = builder.eventType;
+        this.actorId = builder.actorId;
+        this.fromValue = builder.fromValue;
+        this.toValue = builder.toValue;
+        this.occurredAt = builder.occurredAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getProjectId() {
+        return projectId;
+    }
+
+    public UUID getTaskId() {
+        return taskId;
+    }
+
+    public String getTaskTitle() {
+        return taskTitle;
+    }
+
+    public TaskEventType getEventType() {
+        return eventType;
+    }
+
+    public UUID getActorId() {
+        return actorId;
+    }
+
+    public String getFromValue() {
+        return fromValue;
+    }
+
+    public String getToValue() {
+        return toValue;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    // Builder
+    public static class Builder {
+        private Long id;
+        private UUID projectId;
+        private UUID taskId;
+        private String taskTitle;
+        private TaskEventType eventType;
+        private UUID actorId;
+        private String fromValue;
+        private String toValue;
+        private LocalDateTime occurredAt;
+
+        public Builder() {}
+
+        public Builder id(Long id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder projectId(UUID projectId) {
+            this.projectId = projectId;
+            return this;
+        }
+
+        public Builder taskId(UUID taskId) {
+            this.taskId = taskId;
+            return this;
+        }
+
+        public Builder taskTitle(String taskTitle) {
+            this.taskTitle = taskTitle;
+            return this;
+        }
+
+        public Builder eventType(TaskEventType eventType) {
+            this.eventType = eventType;
+            return this;
+        }
+
+        public Builder actorId(UUID actorId) {
+            this.actorId = actorId;
+            return this;
+        }
+
+        public Builder fromValue(Object fromValue) {
+            this.fromValue = fromValue != null ? fromValue.toString() : null;
+            return this;
+        }
+
+        public Builder toValue(Object toValue) {
+            this.toValue = toValue != null ? toValue.toString() : null;
+            return this;
+        }
+
+        public Builder occurredAt(LocalDateTime occurredAt) {
+            this.occurredAt = occurredAt;
+            return this;
+        }
+
+        public TaskEvent build() {
+            return new TaskEvent(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.tmnhat.tasksservice.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+import java.util.Map;
+
+// A task as returned by the list endpoints plus its members' display info (?expand=members)
+public class TaskWithMembers {
+
+    @JsonUnwrapped
+    private final Tasks task;
+    private final List<Map<String, Object>> members;
+
+    public TaskWithMembers(Tasks task, List<Map<String, Object>> members) {
+        this.task = task;
+        this.members = members;
+    }
+
+    public Tasks getTask() {
+        return task;
+    }
+
+    public List<Map<String, Object>> getMembers() {
+        return members;
+    }
+}
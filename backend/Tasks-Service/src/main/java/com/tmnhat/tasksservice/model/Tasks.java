@@ -28,6 +28,10 @@ public class Tasks {
     private String label;
     private TaskPriority priority;  
     private LocalDateTime deletedAt;
+    // Bumped by every write; sent back on update to detect concurrent edits
+    private Long version;
+    // Manual board/backlog position, a fractional rank (see FractionalRank)
+    private String rank;
 
     public Tasks() {
     }
@@ -50,6 +54,8 @@ public class Tasks {
         this.label = builder.label;
         this.priority = builder.priority;
         this.deletedAt = builder.deletedAt;
+        this.version = builder.version;
+        this.rank = builder.rank;
     }
 
     //Getters & Setters
@@ -192,6 +198,22 @@ public class Tasks {
         this.deletedAt = deletedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
     // Builder class
 
     public static class Builder {
@@ -212,6 +234,8 @@ public class Tasks {
         private String label;
         private TaskPriority priority;
         private LocalDateTime deletedAt;
+        private Long version;
+        private String rank;
 
         public Builder() {}
 
@@ -302,6 +326,16 @@ public class Tasks {
             return this;
         }
 
+        public Builder version(Long version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder rank(String rank) {
+            this.rank = rank;
+            return this;
+        }
+
         public Tasks build() {
             return new Tasks(this);
         }
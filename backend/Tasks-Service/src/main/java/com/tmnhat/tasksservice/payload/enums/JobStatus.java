@@ -0,0 +1,14 @@
+package com.tmnhat.tasksservice.payload.enums;
+
+// Lifecycle of a row in async_jobs
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,7 @@
+package com.tmnhat.tasksservice.payload.enums;
+
+// Long-running operations that run on the background job executor
+public enum JobType {
+    TRAIN_AI_MODEL,
+    BULK_ESTIMATE
+}
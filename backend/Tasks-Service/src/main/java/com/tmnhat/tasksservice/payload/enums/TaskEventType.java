@@ -0,0 +1,21 @@
+package com.tmnhat.tasksservice.payload.enums;
+
+// Kinds of entries appended to task_events by TaskServiceImpl (SPRINT_CHANGED also by
+// Sprints-Service when it moves tasks between sprints)
+public enum TaskEventType {
+    TASK_CREATED,
+    TASK_UPDATED,
+    STATUS_CHANGED,
+    TASK_ASSIGNED,
+    STORY_POINT_CHANGED,
+    SPRINT_CHANGED,
+    TASK_DELETED,
+    TASK_RESTORED,
+    SUBTASK_ADDED,
+    TASK_LINKED,
+    TASK_UNLINKED,
+    COMMENT_ADDED,
+    FILE_ATTACHED,
+    MEMBER_ADDED,
+    MEMBER_REMOVED
+}
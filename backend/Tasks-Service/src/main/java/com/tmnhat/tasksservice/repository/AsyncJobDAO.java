@@ -0,0 +1,160 @@
+package com.tmnhat.tasksservice.repository;
+
+import com.tmnhat.tasksservice.model.AsyncJob;
+import com.tmnhat.tasksservice.payload.enums.JobStatus;
+import com.tmnhat.tasksservice.payload.enums.JobType;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+// Persisted state of background jobs (table async_jobs)
+@Repository
+public class AsyncJobDAO extends BaseDAO {
+
+    private static final String ACTIVE = "status IN ('QUEUED', 'RUNNING')";
+
+    // Inserts a QUEUED job. Returns false if the same type/project already has an active job.
+    public boolean insertJob(UUID id, JobType type, UUID projectId, UUID requestedBy) throws SQLException {
+        String sql = "INSERT INTO async_jobs (id, job_type, status, project_id, requested_by) VALUES (?, ?, 'QUEUED', ?, ?) " +
+                     "ON CONFLICT (job_type, (COALESCE(project_id, '00000000-0000-0000-0000-000000000000'::uuid))) " +
+                     "WHERE " + ACTIVE + " DO NOTHING";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, id);
+            stmt.setString(2, type.name());
+            stmt.setObject(3, projectId);
+            stmt.setObject(4, requestedBy);
+            return stmt.executeUpdate() > 0;
+        });
+    }
+
+    public AsyncJob getJob(UUID id) throws SQLException {
+        String sql = "SELECT * FROM async_jobs WHERE id = ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapResultSetToJob(rs) : null;
+        });
+    }
+
+    public AsyncJob findActiveJob(JobType type, UUID projectId) throws SQLException {
+        String sql = "SELECT * FROM async_jobs WHERE job_type = ? AND project_id IS NOT DISTINCT FROM ? AND " + ACTIVE;
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, type.name());
+            stmt.setObject(2, projectId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapResultSetToJob(rs) : null;
+        });
+    }
+
+    // QUEUED -> RUNNING. False if the job was cancelled (or reaped) while it waited in the queue.
+    public boolean markRunning(UUID id) throws SQLException {
+        String sql = "UPDATE async_jobs SET status = 'RUNNING', started_at = now(), updated_at = now() " +
+                     "WHERE id = ? AND status = 'QUEUED'";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, id);
+            return stmt.executeUpdate() > 0;
+        });
+    }
+
+    // Saves progress and returns whether a cancel was requested meanwhile (possibly by another instance)
+    public boolean updateProgress(UUID id, int progress, int total) throws SQLException {
+        String sql = "UPDATE async_jobs SET progress = ?, total = ?, updated_at = now() WHERE id = ? RETURNING cancel_requested";
+        return executeQuery(sql, stmt -> {
+            stmt.setInt(1, progress);
+            stmt.setInt(2, total);
+            stmt.setObject(3, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getBoolean("cancel_requested");
+        });
+    }
+
+    // Moves an active job to a final status; does nothing if it already finished
+    public boolean finishJob(UUID id, JobStatus status, String resultJson, String error) throws SQLException {
+        String sql = "UPDATE async_jobs SET status = ?, result = ?::jsonb, error = ?, finished_at = now(), updated_at = now() " +
+                     "WHERE id = ? AND " + ACTIVE;
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, status.name());
+            stmt.setString(2, resultJson);
+            stmt.setString(3, error);
+            stmt.setObject(4, id);
+            return stmt.executeUpdate() > 0;
+        });
+    }
+
+    // A job that has not started yet is cancelled right away
+    public boolean cancelQueuedJob(UUID id) throws SQLException {
+        String sql = "UPDATE async_jobs SET status = 'CANCELLED', cancel_requested = TRUE, finished_at = now(), updated_at = now() " +
+                     "WHERE id = ? AND status = 'QUEUED'";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, id);
+            return stmt.executeUpdate() > 0;
+        });
+    }
+
+    public void requestCancel(UUID id) throws SQLException {
+        String sql = "UPDATE async_jobs SET cancel_requested = TRUE, updated_at = now() WHERE id = ? AND " + ACTIVE;
+        executeUpdate(sql, stmt -> stmt.setObject(1, id));
+    }
+
+    // Touches the jobs this instance owns and returns the ids that have a pending cancel request
+    public Set<UUID> heartbeat(Collection<UUID> ids) throws SQLException {
+        String sql = "UPDATE async_jobs SET updated_at = now() WHERE id = ANY(?) AND " + ACTIVE + " RETURNING id, cancel_requested";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", ids.toArray()));
+            Set<UUID> cancelled = new HashSet<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (rs.getBoolean("cancel_requested")) {
+                    cancelled.add(rs.getObject("id", UUID.class));
+                }
+            }
+            return cancelled;
+        });
+    }
+
+    // Active jobs nobody has touched since the cutoff belonged to an instance that went away
+    public int failStaleJobs(LocalDateTime cutoff, String error) throws SQLException {
+        String sql = "UPDATE async_jobs SET status = 'FAILED', error = ?, finished_at = now(), updated_at = now() " +
+                     "WHERE " + ACTIVE + " AND updated_at < ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, error);
+            stmt.setTimestamp(2, Timestamp.valueOf(cutoff));
+            return stmt.executeUpdate();
+        });
+    }
+
+    public int deleteFinishedBefore(LocalDateTime cutoff) throws SQLException {
+        String sql = "DELETE FROM async_jobs WHERE finished_at < ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            return stmt.executeUpdate();
+        });
+    }
+
+    private AsyncJob mapResultSetToJob(ResultSet rs) throws SQLException {
+        Timestamp startedAt = rs.getTimestamp("started_at");
+        Timestamp finishedAt = rs.getTimestamp("finished_at");
+        return new AsyncJob.Builder()
+                .id(rs.getObject("id", UUID.class))
+                .jobType(JobType.valueOf(rs.getString("job_type")))
+                .status(JobStatus.valueOf(rs.getString("status")))
+                .projectId(rs.getObject("project_id", UUID.class))
+                .requestedBy(rs.getObject("requested_by", UUID.class))
+                .progress(rs.getInt("progress"))
+                .total(rs.getInt("total"))
+                .result(rs.getString("result"))
+                .error(rs.getString("error"))
+                .cancelRequested(rs.getBoolean("cancel_requested"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .startedAt(startedAt != null ? startedAt.toLocalDateTime() : null)
+                .finishedAt(finishedAt != null ? finishedAt.toLocalDateTime() : null)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.tmnhat.tasksservice.repository;
+
+import com.tmnhat.common.db.TaskCounterSql;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Attachment metadata in the attachments table shared with File-Service (indexed by task_id),
+// in the snake_case shape this service's attachment endpoints have always returned
+@Repository
+public class AttachmentDAO extends BaseDAO {
+
+    // uploaded_by of rows whose file this service stored (File-Service leaves it null)
+    private static final String UPLOADED_BY = "tasks-service";
+
+    public List<Map<String, Object>> findByTaskId(UUID taskId) throws SQLException {
+        String sql = "SELECT id, task_id, file_name, file_url, file_type, uploaded_at FROM attachments " +
+                     "WHERE task_id = ? ORDER BY uploaded_at DESC, id DESC";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, taskId);
+            ResultSet rs = stmt.executeQuery();
+            List<Map<String, Object>> attachments = new ArrayList<>();
+            while (rs.next()) {
+                attachments.add(mapResultSetToAttachment(rs));
+            }
+            return attachments;
+        });
+    }
+
+    // Inserts the metadata row and bumps the task's attachment counter in the same statement
+    public Map<String, Object> addAttachment(UUID taskId, String fileName, String fileUrl, String fileType) throws SQLException {
+        String sql = """
+            WITH inserted AS (
+                INSERT INTO attachments (task_id, file_name, file_url, file_type, uploaded_at, uploaded_by)
+                VALUES (?, ?, ?, ?, ?, ?)
+                RETURNING id, task_id, file_name, file_url, file_type, uploaded_at
+            ), %s
+            SELECT * FROM inserted
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.ATTACHMENTS, "inserted", 1));
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, taskId);
+            stmt.setString(2, fileName);
+            stmt.setString(3, fileUrl);
+            stmt.setString(4, fileType);
+            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setString(6, UPLOADED_BY);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return mapResultSetToAttachment(rs);
+            }
+            throw new SQLException("Failed to insert attachment");
+        });
+    }
+
+    // Deletes a row this service uploaded (and decrements the counter); returns the stored file
+    // path, or null if there is no such row
+    public String deleteAttachment(long id) throws SQLException {
+        String sql = """
+            WITH removed AS (
+                DELETE FROM attachments WHERE id = ? AND uploaded_by = ? RETURNING task_id, file_url
+            ), %s
+            SELECT file_url FROM removed
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.ATTACHMENTS, "removed", -1));
+        return executeQuery(sql, stmt -> {
+            stmt.setLong(1, id);
+            stmt.setString(2, UPLOADED_BY);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString("file_url") : null;
+        });
+    }
+
+    public boolean exists(long id) throws SQLException {
+        return executeQuery("SELECT 1 FROM attachments WHERE id = ?", stmt -> {
+            stmt.setLong(1, id);
+            return stmt.executeQuery().next();
+        });
+    }
+
+    private Map<String, Object> mapResultSetToAttachment(ResultSet rs) throws SQLException {
+        Map<String, Object> attachment = new HashMap<>();
+        attachment.put("id", rs.getLong("id"));
+        attachment.put("task_id", rs.getObject("task_id", UUID.class));
+        attachment.put("file_name", rs.getString("file_name"));
+        attachment.put("file_url", rs.getString("file_url"));
+        attachment.put("file_type", rs.getString("file_type"));
+        Timestamp uploadedAt = rs.getTimestamp("uploaded_at");
+        attachment.put("uploaded_at", uploadedAt != null ? uploadedAt.toLocalDateTime().toString() : null);
+        return attachment;
+    }
+}
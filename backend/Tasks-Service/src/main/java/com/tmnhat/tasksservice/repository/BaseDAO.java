@@ -3,6 +3,7 @@ import com.tmnhat.common.config.DatabaseConnection;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 
 public abstract class BaseDAO {
     protected Connection getConnection() throws SQLException {
@@ -17,6 +18,25 @@ public abstract class BaseDAO {
         }
     }
 
+    // Runs one prepared statement for every item in a single JDBC batch and transaction
+    protected <T> int[] executeBatch(String query, List<T> items, SQLBiConsumer<PreparedStatement, T> binder) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            conn.setAutoCommit(false);
+            try {
+                for (T item : items) {
+                    binder.accept(stmt, item);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                conn.commit();
+                return counts;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
 
     protected <T> T executeQuery(String query, SQLFunction<PreparedStatement, T> function) throws SQLException {
         try (Connection conn = getConnection();
@@ -31,6 +51,10 @@ public abstract class BaseDAO {
         void accept(T t) throws SQLException;
     }
     @FunctionalInterface
+    public interface SQLBiConsumer<T, U> {
+        void accept(T t, U u) throws SQLException;
+    }
+    @FunctionalInterface
     public interface SQLFunction<T, R> {
         R apply(T t) throws SQLException;
     }
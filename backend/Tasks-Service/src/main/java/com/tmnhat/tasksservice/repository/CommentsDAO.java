@@ -1,6 +1,8 @@
 package com.tmnhat.tasksservice.repository;
 
+import com.tmnhat.common.db.TaskCounterSql;
 import com.tmnhat.tasksservice.model.Comment;
+import com.tmnhat.tasksservice.model.CommentThread;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
@@ -8,18 +10,35 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Repository
 public class CommentsDAO extends BaseDAO {
 
+    // Guards the recursive thread query against a parent_comment_id cycle
+    private static final int MAX_THREAD_DEPTH = 50;
+
+    // Flat thread rows, parents always before their replies
+    public static class ThreadRows {
+        public final List<CommentThread> nodes = new ArrayList<>();
+        public boolean hasMore;
+    }
+
     public Comment addComment(Comment comment) throws SQLException {
         String sql = """
-            INSERT INTO comments (task_id, user_id, content, created_at, updated_at, parent_comment_id, is_deleted)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-            RETURNING id
-        """;
+            WITH inserted AS (
+                INSERT INTO comments (task_id, user_id, content, created_at, updated_at, parent_comment_id, is_deleted)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                RETURNING id, task_id, is_deleted
+            ), counted AS (
+                SELECT task_id FROM inserted WHERE NOT is_deleted
+            ), %s
+            SELECT id FROM inserted
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.COMMENTS, "counted", 1));
 
         return executeQuery(sql, stmt -> {
             stmt.setObject(1, comment.getTaskId());
@@ -95,6 +114,76 @@ public class CommentsDAO extends BaseDAO {
         });
     }
 
+    // One page of top-level comments (oldest first, after the (createdAt, id) keyset) together with
+    // every non-deleted reply below them, in a single recursive query. Rows come back flat with
+    // their depth; hasMore is read from the extra top-level row the page CTE looks ahead at.
+    public ThreadRows findThreadPage(UUID taskId, LocalDateTime afterTime, Long afterId, int limit) throws SQLException {
+        String keyset = afterTime != null ? " AND (created_at, id) > (?, ?)" : "";
+        String sql = """
+            WITH RECURSIVE page AS (
+                SELECT id, created_at FROM comments
+                WHERE task_id = ? AND parent_comment_id IS NULL AND is_deleted = false%s
+                ORDER BY created_at, id
+                LIMIT ?
+            ), roots AS (
+                SELECT id FROM page ORDER BY created_at, id LIMIT ?
+            ), thread AS (
+                SELECT c.*, 0 AS depth FROM comments c JOIN roots r ON c.id = r.id
+                UNION ALL
+                SELECT c.*, t.depth + 1 FROM comments c JOIN thread t ON c.parent_comment_id = t.id
+                WHERE c.is_deleted = false AND t.depth < ?
+            )
+            SELECT thread.*, (SELECT COUNT(*) FROM page) AS page_rows FROM thread ORDER BY depth, created_at, id
+        """.formatted(keyset);
+
+        return executeQuery(sql, stmt -> {
+            int i = 1;
+            stmt.setObject(i++, taskId);
+            if (afterTime != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(afterTime));
+                stmt.setLong(i++, afterId);
+            }
+            stmt.setInt(i++, limit + 1);
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, MAX_THREAD_DEPTH);
+            ResultSet rs = stmt.executeQuery();
+
+            ThreadRows rows = new ThreadRows();
+            while (rs.next()) {
+                rows.nodes.add(new CommentThread(mapResultSetToComment(rs), rs.getInt("depth")));
+                rows.hasMore = rs.getInt("page_rows") > limit;
+            }
+            return rows;
+        });
+    }
+
+    // One lookup for everything a comment notification needs: the users whose username matches a
+    // mention (case-insensitive, flagged with whether they belong to the project) plus the author
+    public List<Map<String, Object>> findMentionCandidates(UUID projectId, Collection<String> usernames, UUID authorId) throws SQLException {
+        String sql = """
+            SELECT u.id, u.username, (pm.user_id IS NOT NULL) AS is_member
+            FROM users u
+            LEFT JOIN project_members pm ON pm.user_id = u.id AND pm.project_id = ?
+            WHERE lower(u.username) = ANY(?) OR u.id = ?
+        """;
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            stmt.setArray(2, stmt.getConnection().createArrayOf("text", usernames.toArray()));
+            stmt.setObject(3, authorId);
+            ResultSet rs = stmt.executeQuery();
+
+            List<Map<String, Object>> users = new ArrayList<>();
+            while (rs.next()) {
+                Map<String, Object> user = new HashMap<>();
+                user.put("id", rs.getObject("id", UUID.class));
+                user.put("username", rs.getString("username"));
+                user.put("member", rs.getBoolean("is_member"));
+                users.add(user);
+            }
+            return users;
+        });
+    }
+
     public Long countByTaskIdAndNotDeleted(UUID taskId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM comments WHERE task_id = ? AND is_deleted = false";
         return executeQuery(sql, stmt -> {
@@ -142,9 +231,34 @@ public class CommentsDAO extends BaseDAO {
     }
 
     public void deleteComment(Long id) throws SQLException {
-        String sql = "DELETE FROM comments WHERE id = ?";
-        executeUpdate(sql, stmt -> {
+        String sql = """
+            WITH removed AS (
+                DELETE FROM comments WHERE id = ? RETURNING task_id, is_deleted
+            ), counted AS (
+                SELECT task_id FROM removed WHERE NOT is_deleted
+            ), %s
+            SELECT COUNT(*) FROM removed
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.COMMENTS, "counted", -1));
+        executeQuery(sql, stmt -> {
+            stmt.setLong(1, id);
+            return stmt.execute();
+        });
+    }
+
+    // Marks a comment deleted and decrements the task's comment counter, once
+    public boolean softDeleteComment(Long id) throws SQLException {
+        String sql = """
+            WITH removed AS (
+                UPDATE comments SET is_deleted = true, updated_at = now()
+                WHERE id = ? AND is_deleted = false
+                RETURNING task_id
+            ), %s
+            SELECT COUNT(*) FROM removed
+        """.formatted(TaskCounterSql.counterCte(TaskCounterSql.COMMENTS, "removed", -1));
+        return executeQuery(sql, stmt -> {
             stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) > 0;
         });
     }
 
@@ -0,0 +1,52 @@
+package com.tmnhat.tasksservice.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Persisted backing of EstimateCache (table estimate_cache)
+@Repository
+public class EstimateCacheDAO extends BaseDAO {
+
+    // content hash -> response JSON for the hashes cached under the given model version
+    public Map<String, String> getResponses(Collection<String> contentHashes, String modelVersion) throws SQLException {
+        String sql = "SELECT content_hash, response FROM estimate_cache WHERE model_version = ? AND content_hash = ANY(?)";
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, modelVersion);
+            stmt.setArray(2, stmt.getConnection().createArrayOf("varchar", contentHashes.toArray()));
+            Map<String, String> responses = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                responses.put(rs.getString("content_hash"), rs.getString("response"));
+            }
+            return responses;
+        });
+    }
+
+    public void putResponses(Map<String, String> responses, String modelVersion) throws SQLException {
+        if (responses.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO estimate_cache (content_hash, model_version, response) VALUES (?, ?, ?::jsonb) " +
+                     "ON CONFLICT (content_hash, model_version) DO NOTHING";
+        executeBatch(sql, new ArrayList<>(responses.entrySet()), (stmt, entry) -> {
+            stmt.setString(1, entry.getKey());
+            stmt.setString(2, modelVersion);
+            stmt.setString(3, entry.getValue());
+        });
+    }
+
+    // Estimates of earlier models are never served again
+    public int deleteOtherVersions(String modelVersion) throws SQLException {
+        String sql = "DELETE FROM estimate_cache WHERE model_version <> ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, modelVersion);
+            return stmt.executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.tmnhat.tasksservice.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Named high-water marks for background scans (table scan_watermarks)
+@Repository
+public class ScanWatermarkDAO extends BaseDAO {
+
+    public LocalDateTime getWatermark(String name) throws SQLException {
+        String sql = "SELECT value FROM scan_watermarks WHERE name = ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getTimestamp("value").toLocalDateTime();
+            }
+            return null;
+        });
+    }
+
+    public void setWatermark(String name, LocalDateTime value) throws SQLException {
+        String sql = "INSERT INTO scan_watermarks (name, value, updated_at) VALUES (?, ?, now()) " +
+                "ON CONFLICT (name) DO UPDATE SET value = EXCLUDED.value, updated_at = now()";
+        executeUpdate(sql, stmt -> {
+            stmt.setString(1, name);
+            stmt.setTimestamp(2, Timestamp.valueOf(value));
+        });
+    }
+
+    // The next scan starts from the beginning
+    public void clearWatermark(String name) throws SQLException {
+        executeUpdate("DELETE FROM scan_watermarks WHERE name = ?", stmt -> stmt.setString(1, name));
+    }
+}
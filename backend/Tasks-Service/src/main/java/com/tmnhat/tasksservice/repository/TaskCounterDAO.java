@@ -0,0 +1,53 @@
+package com.tmnhat.tasksservice.repository;
+
+import com.tmnhat.common.db.TaskCounterSql;
+import com.tmnhat.tasksservice.model.TaskCounters;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Denormalized per-task counts (table task_counters). Writers adjust them in the same statement
+// as the row change (see TaskCounterSql); readers only touch this table.
+@Repository
+public class TaskCounterDAO extends BaseDAO {
+
+    public Map<UUID, TaskCounters> getCounters(Collection<UUID> taskIds) throws SQLException {
+        String sql = "SELECT * FROM task_counters WHERE task_id = ANY(?)";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            Map<UUID, TaskCounters> counters = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                TaskCounters row = mapResultSetToCounters(rs);
+                counters.put(row.getTaskId(), row);
+            }
+            return counters;
+        });
+    }
+
+    // Creates counter rows from live counts for existing tasks that have none yet and returns them
+    // (rows another writer created meanwhile are returned as they are)
+    public Map<UUID, TaskCounters> seedCounters(Collection<UUID> taskIds) throws SQLException {
+        String sql = """
+            INSERT INTO task_counters (task_id, comment_count, attachment_count, member_count)
+            SELECT t.id, %s, %s, %s
+            FROM tasks t WHERE t.id = ANY(?)
+            ON CONFLICT (task_id) DO NOTHING
+        """.formatted(TaskCounterSql.liveComments("t.id"), TaskCounterSql.liveAttachments("t.id"), TaskCounterSql.liveMembers("t.id"));
+        executeUpdate(sql, stmt -> stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray())));
+        return getCounters(taskIds);
+    }
+
+    private TaskCounters mapResultSetToCounters(ResultSet rs) throws SQLException {
+        return new TaskCounters(
+                rs.getObject("task_id", UUID.class),
+                rs.getInt(TaskCounterSql.COMMENTS),
+                rs.getInt(TaskCounterSql.ATTACHMENTS),
+                rs.getInt(TaskCounterSql.MEMBERS));
+    }
+}
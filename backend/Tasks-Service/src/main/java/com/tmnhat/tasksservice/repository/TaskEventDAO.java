@@ -0,0 +1,156 @@
+package com.tmnhat.tasksservice.repository;
+
+import com.tmnhat.tasksservice.model.TaskEvent;
+import com.tmnhat.tasksservice.payload.enums.TaskEventType;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Append-only access to task_events (range-partitioned by month on occurred_at)
+@Repository
+public class TaskEventDAO extends BaseDAO {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO task_events (project_id, task_id, task_title, event_type, actor_id, from_value, to_value, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now())";
+
+    public void appendEvent(TaskEvent event) throws SQLException {
+        executeUpdate(INSERT_EVENT, stmt -> bindEvent(stmt, event));
+    }
+
+    // Many events in one JDBC batch (bulk operations)
+    public void appendEvents(List<TaskEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        executeBatch(INSERT_EVENT, events, this::bindEvent);
+    }
+
+    private void bindEvent(PreparedStatement stmt, TaskEvent event) throws SQLException {
+        stmt.setObject(1, event.getProjectId());
+        stmt.setObject(2, event.getTaskId());
+        stmt.setString(3, event.getTaskTitle());
+        stmt.setString(4, event.getEventType().name());
+        stmt.setObject(5, event.getActorId());
+        stmt.setString(6, event.getFromValue());
+        stmt.setString(7, event.getToValue());
+    }
+
+    // Newest-first page of a project's events. Pass the (occurred_at, id) of the last row of the
+    // previous page to continue; both null starts at the newest event.
+    public List<TaskEvent> getProjectEvents(UUID projectId, LocalDateTime beforeTime, Long beforeId, int limit) throws SQLException {
+        boolean hasCursor = beforeTime != null && beforeId != null;
+        String sql = "SELECT * FROM task_events WHERE project_id = ?" +
+                     (hasCursor ? " AND (occurred_at, id) < (?, ?)" : "") +
+                     " ORDER BY occurred_at DESC, id DESC LIMIT ?";
+
+        return executeQuery(sql, stmt -> {
+            int index = 1;
+            stmt.setObject(index++, projectId);
+            if (hasCursor) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(beforeTime));
+                stmt.setLong(index++, beforeId);
+            }
+            stmt.setInt(index, limit);
+
+            List<TaskEvent> events = new ArrayList<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                events.add(mapResultSetToEvent(rs));
+            }
+            return events;
+        });
+    }
+
+    // Creates the partition holding the given month if it is not there yet. Rows of that month
+    // already in the default partition (written while it was missing) would make the CREATE fail,
+    // so they are moved into the new partition in the same transaction, with the default
+    // partition locked so no new ones arrive in between.
+    public void ensureMonthlyPartition(YearMonth month) throws SQLException {
+        String name = String.format("task_events_y%04dm%02d", month.getYear(), month.getMonthValue());
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        boolean exists = executeQuery("SELECT to_regclass(?) IS NOT NULL", stmt -> {
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getBoolean(1);
+        });
+        if (exists) {
+            return;
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("LOCK TABLE task_events_default IN ACCESS EXCLUSIVE MODE");
+                try (PreparedStatement move = conn.prepareStatement(
+                        "CREATE TEMP TABLE task_events_moving ON COMMIT DROP AS " +
+                        "SELECT * FROM task_events_default WHERE occurred_at >= ? AND occurred_at < ?")) {
+                    move.setTimestamp(1, from);
+                    move.setTimestamp(2, to);
+                    move.executeUpdate();
+                }
+                try (PreparedStatement delete = conn.prepareStatement(
+                        "DELETE FROM task_events_default WHERE occurred_at >= ? AND occurred_at < ?")) {
+                    delete.setTimestamp(1, from);
+                    delete.setTimestamp(2, to);
+                    int moved = delete.executeUpdate();
+                    if (moved > 0) {
+                        System.out.println("Moving " + moved + " task events of " + month + " out of the default partition");
+                    }
+                }
+                stmt.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF task_events FOR VALUES FROM ('%s') TO ('%s')",
+                        name, month.atDay(1), month.plusMonths(1).atDay(1)));
+                stmt.execute("INSERT INTO task_events SELECT * FROM task_events_moving");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Months that have rows in the default partition (their partition was missing when written)
+    public List<YearMonth> getMonthsInDefaultPartition() throws SQLException {
+        String sql = "SELECT DISTINCT date_trunc('month', occurred_at) AS month FROM task_events_default";
+        return executeQuery(sql, stmt -> {
+            ResultSet rs = stmt.executeQuery();
+            List<YearMonth> months = new ArrayList<>();
+            while (rs.next()) {
+                months.add(YearMonth.from(rs.getTimestamp("month").toLocalDateTime()));
+            }
+            return months;
+        });
+    }
+
+    private TaskEvent mapResultSetToEvent(ResultSet rs) throws SQLException {
+        TaskEventType type;
+        try {
+            type = TaskEventType.valueOf(rs.getString("event_type"));
+        } catch (IllegalArgumentException e) {
+            type = TaskEventType.TASK_UPDATED;
+        }
+        return new TaskEvent.Builder()
+                .id(rs.getLong("id"))
+                .projectId(rs.getObject("project_id", UUID.class))
+                .taskId(rs.getObject("task_id", UUID.class))
+                .taskTitle(rs.getString("task_title"))
+                .eventType(type)
+                .actorId(rs.getObject("actor_id", UUID.class))
+                .fromValue(rs.getString("from_value"))
+                .toValue(rs.getString("to_value"))
+                .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+                .build();
+    }
+}
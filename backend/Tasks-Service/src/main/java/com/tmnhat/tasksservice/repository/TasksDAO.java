@@ -1,11 +1,14 @@
 package com.tmnhat.tasksservice.repository;
 
+import com.tmnhat.common.db.TaskCounterSql;
 import com.tmnhat.tasksservice.model.Tasks;
 import com.tmnhat.tasksservice.payload.enums.TaskStatus;
 import com.tmnhat.tasksservice.payload.enums.TaskTag;
 import com.tmnhat.tasksservice.payload.enums.TaskPriority;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -13,18 +16,33 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Set;
 
+// tasks may be hash-partitioned by project_id (see TaskRepartitionTool): project-scoped queries
+// compare project_id with a bound value on every tasks reference so the planner prunes to one
+// partition; lookups by id alone go through the per-partition id indexes.
 public class TasksDAO extends BaseDAO {
 
+    // Ranks longer than this get their project rebalanced (literal in idx_tasks_rank_maintenance)
+    public static final int MAX_RANK_LENGTH = 24;
+
+    // An archived row expanded back into the tasks row type, as is and undeleted for a restore
+    private static final String ARCHIVED_ROW = "jsonb_populate_record(NULL::tasks, data)";
+    private static final String RESTORED_ROW =
+            "jsonb_populate_record(NULL::tasks, data || jsonb_build_object('deleted_at', NULL, 'updated_at', now(), "
+            + "'version', COALESCE((data->>'version')::bigint, 0) + 1))";
+
     public void addTask(Tasks task) throws SQLException {
-        String sql = "INSERT INTO tasks (sprint_id, project_id, title, description, status, story_point, assignee_id, created_by, due_date, created_at, completed_at, parent_task_id, label, priority, updated_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now(), ?, ?, ?, ?, now())";
+        String sql = "INSERT INTO tasks (sprint_id, project_id, title, description, status, story_point, assignee_id, created_by, due_date, created_at, completed_at, parent_task_id, label, priority, updated_at, board_rank) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now(), ?, ?, ?, ?, now(), ?) RETURNING id";
 
-        executeUpdate(sql, stmt -> {
+        UUID id = executeQuery(sql, stmt -> {
             stmt.setObject(1, task.getSprintId());
             stmt.setObject(2, task.getProjectId());
             stmt.setString(3, task.getTitle());
@@ -38,47 +56,216 @@ public class TasksDAO extends BaseDAO {
             stmt.setObject(11, task.getParentTaskId());
             stmt.setString(12, task.getLabel());
             stmt.setString(13, task.getPriority() != null ? task.getPriority().name() : TaskPriority.MEDIUM.name());
+            stmt.setString(14, task.getRank());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getObject("id", UUID.class) : null;
         });
+        task.setId(id);
     }
 
-    public void updateTask(UUID id, Tasks task) throws SQLException {
-        String sql = "UPDATE tasks SET title = ?, description = ?, status = ?, story_point = ?, assignee_id = ?, created_by = ?, due_date = ?, completed_at = ?, parent_task_id = ?, label = ?, priority = ?, updated_at = now() WHERE id = ?";
-        
-        executeUpdate(sql, stmt -> {
-            stmt.setString(1, task.getTitle());
-            stmt.setString(2, task.getDescription());
-            stmt.setString(3, task.getStatus().name());
-            stmt.setInt(4, task.getStoryPoint());
-            stmt.setObject(5, task.getAssigneeId());
-            stmt.setObject(6, task.getCreatedBy());
-            stmt.setTimestamp(7, task.getDueDate() != null ? Timestamp.valueOf(task.getDueDate().atStartOfDay()) : null);
-            stmt.setTimestamp(8, task.getCompletedAt() != null ? Timestamp.valueOf(task.getCompletedAt()) : null);
-            stmt.setObject(9, task.getParentTaskId());
-            stmt.setString(10, task.getLabel());
-            stmt.setString(11, task.getPriority() != null ? task.getPriority().name() : TaskPriority.MEDIUM.name());
-            stmt.setObject(12, id);
+    // Columns a task update may set (see updateTask)
+    private static final Set<String> UPDATABLE_COLUMNS = Set.of("title", "description", "status", "story_point",
+            "assignee_id", "created_by", "due_date", "completed_at", "parent_task_id", "label", "priority", "sprint_id");
+
+    // Outcome of a conditional update: the row after it and the status, story points and sprint
+    // it had before
+    public static class TaskUpdate {
+        private final Tasks task;
+        private final TaskStatus previousStatus;
+        private final int previousStoryPoint;
+        private final UUID previousSprintId;
+
+        TaskUpdate(Tasks task, TaskStatus previousStatus, int previousStoryPoint, UUID previousSprintId) {
+            this.task = task;
+            this.previousStatus = previousStatus;
+            this.previousStoryPoint = previousStoryPoint;
+            this.previousSprintId = previousSprintId;
+        }
+
+        public Tasks getTask() { return task; }
+        public TaskStatus getPreviousStatus() { return previousStatus; }
+        public int getPreviousStoryPoint() { return previousStoryPoint; }
+        public UUID getPreviousSprintId() { return previousSprintId; }
+    }
+
+    // Sets only the given columns of a live task and bumps its version, in one statement: with
+    // expectedVersion the row is only written if nobody changed it since that version was read. Returns null when nothing was written (no such live task, or
+    // a version mismatch; getTaskVersion tells which).
+    public TaskUpdate updateTask(UUID id, Map<String, Object> columns, Long expectedVersion) throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE tasks t SET ");
+        List<Object> params = new ArrayList<>();
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            if (!UPDATABLE_COLUMNS.contains(column.getKey())) {
+                throw new IllegalArgumentException("Column cannot be updated: " + column.getKey());
+            }
+            sql.append(column.getKey()).append(" = ?, ");
+            params.add(column.getValue());
+        }
+        // The previous values are read under the row lock (FOR UPDATE waits for a concurrent
+        // writer and then sees its result), so they are the values this update replaces even
+        // when no version is checked
+        sql.append("version = t.version + 1, updated_at = now() ")
+           .append("FROM (SELECT id, status, story_point, sprint_id FROM tasks WHERE id = ? FOR UPDATE) old ")
+           .append("WHERE t.id = old.id AND t.deleted_at IS NULL");
+        params.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND t.version = ?");
+            params.add(expectedVersion);
+        }
+        sql.append(" RETURNING t.*, old.status AS previous_status, old.story_point AS previous_story_point, old.sprint_id AS previous_sprint_id");
+
+        return executeQuery(sql.toString(), stmt -> {
+            for (int i = 0; i < params.size(); i++) {
+                Object value = params.get(i);
+                if (value instanceof LocalDate date) {
+                    stmt.setTimestamp(i + 1, Timestamp.valueOf(date.atStartOfDay()));
+                } else if (value instanceof LocalDateTime dateTime) {
+                    stmt.setTimestamp(i + 1, Timestamp.valueOf(dateTime));
+                } else if (value instanceof Enum<?> constant) {
+                    stmt.setString(i + 1, constant.name());
+                } else {
+                    stmt.setObject(i + 1, value);
+                }
+            }
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            return new TaskUpdate(mapResultSetToTask(rs), TaskStatus.valueOf(rs.getString("previous_status")),
+                    rs.getInt("previous_story_point"), rs.getObject("previous_sprint_id", UUID.class));
+        });
+    }
+
+    // Current version of a live task, or null if there is none
+    public Long getTaskVersion(UUID id) throws SQLException {
+        String sql = "SELECT version FROM tasks WHERE id = ? AND deleted_at IS NULL";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong("version") : null;
         });
     }
 
     public void deleteTask(UUID id) throws SQLException {
-        String sql = "UPDATE tasks SET deleted_at = NOW() WHERE id = ?";
+        String sql = "UPDATE tasks SET deleted_at = NOW(), updated_at = NOW(), version = version + 1 WHERE id = ?";
         executeUpdate(sql, stmt -> stmt.setObject(1, id));
     }
 
+    // Long-deleted tasks live in tasks_archive as a JSONB copy of the row plus the rows that
+    // referenced it (see archiveDeletedTasks). A restore moves an archived task back into tasks,
+    // already undeleted, then its dependent rows; the UPDATE covers tasks that were never
+    // archived. One transaction, so a task is never in both tables or in neither.
     public void restoreTask(UUID id) throws SQLException {
-        String sql = "UPDATE tasks SET deleted_at = NULL WHERE id = ?";
-        executeUpdate(sql, stmt -> stmt.setObject(1, id));
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int reinserted;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO tasks SELECT (" + RESTORED_ROW + ").* FROM (SELECT data FROM tasks_archive WHERE id = ? FOR UPDATE) a")) {
+                    stmt.setObject(1, id);
+                    reinserted = stmt.executeUpdate();
+                }
+                if (reinserted > 0) {
+                    restoreDependents(conn, "a.id = ?", id);
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM tasks_archive WHERE id = ?")) {
+                        stmt.setObject(1, id);
+                        stmt.executeUpdate();
+                    }
+                } else {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE tasks SET deleted_at = NULL, updated_at = NOW(), version = version + 1 WHERE id = ?")) {
+                        stmt.setObject(1, id);
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Restores every deleted task of the project (archived or not, archived ones with their
+    // dependent rows) and records a TASK_RESTORED event for each in the same transaction, so the
+    // event log (and the sprint burndown built from it) sees every restored task. Returns the
+    // number of tasks restored.
+    public int restoreTasksByProject(UUID projectId, UUID actorId) throws SQLException {
+        String events = "INSERT INTO task_events (project_id, task_id, task_title, event_type, actor_id) " +
+                        "SELECT project_id, id, title, 'TASK_RESTORED', ?::uuid FROM restored";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int restored;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "WITH restored AS (INSERT INTO tasks SELECT (" + RESTORED_ROW + ").* FROM " +
+                        "(SELECT data FROM tasks_archive WHERE project_id = ? FOR UPDATE) a RETURNING id, project_id, title) " + events)) {
+                    stmt.setObject(1, projectId);
+                    stmt.setObject(2, actorId);
+                    restored = stmt.executeUpdate();
+                }
+                if (restored > 0) {
+                    restoreDependents(conn, "a.project_id = ?", projectId);
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM tasks_archive WHERE project_id = ?")) {
+                        stmt.setObject(1, projectId);
+                        stmt.executeUpdate();
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "WITH restored AS (UPDATE tasks SET deleted_at = NULL, updated_at = NOW(), version = version + 1 " +
+                        "WHERE project_id = ? AND deleted_at IS NOT NULL RETURNING id, project_id, title) " + events)) {
+                    stmt.setObject(1, projectId);
+                    stmt.setObject(2, actorId);
+                    restored += stmt.executeUpdate();
+                }
+                conn.commit();
+                return restored;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
     }
 
-    public void restoreTasksByProject(UUID projectId) throws SQLException {
-        String sql = "UPDATE tasks SET deleted_at = NULL WHERE project_id = ? AND deleted_at IS NOT NULL";
-        executeUpdate(sql, stmt -> stmt.setObject(1, projectId));
+    // Puts back the dependent rows of the archived tasks matching filter (on tasks_archive a),
+    // table by table in the order they were archived, so referenced rows go in first. Rows whose
+    // key is taken meanwhile are skipped.
+    private void restoreDependents(Connection conn, String filter, UUID param) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT to_regclass(e.value->>'table')::text AS name, min(e.ordinality) AS position " +
+                "FROM tasks_archive a, jsonb_array_elements(a.dependents) WITH ORDINALITY e " +
+                "WHERE " + filter + " GROUP BY 1 ORDER BY 2")) {
+            stmt.setObject(1, param);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getString("name") == null) {
+                        throw new SQLException("Archived rows reference a table that no longer exists; not restoring");
+                    }
+                    tables.add(rs.getString("name"));
+                }
+            }
+        }
+        for (String table : tables) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO " + table + " SELECT r.* FROM tasks_archive a, jsonb_array_elements(a.dependents) e, " +
+                    "jsonb_populate_recordset(NULL::" + table + ", e.value->'rows') r " +
+                    "WHERE " + filter + " AND to_regclass(e.value->>'table')::text = ? ON CONFLICT DO NOTHING")) {
+                stmt.setObject(1, param);
+                stmt.setString(2, table);
+                stmt.executeUpdate();
+            }
+        }
     }
 
+    // Recently deleted tasks from tasks plus the archived ones, newest deletion first
     public List<Tasks> getDeletedTasksByProject(UUID projectId) throws SQLException {
-        String sql = "SELECT * FROM tasks WHERE project_id = ? AND deleted_at IS NOT NULL ORDER BY deleted_at DESC";
+        String sql = "SELECT * FROM tasks WHERE project_id = ? AND deleted_at IS NOT NULL " +
+                     "UNION ALL SELECT (" + ARCHIVED_ROW + ").* FROM tasks_archive WHERE project_id = ? " +
+                     "ORDER BY deleted_at DESC";
         return executeQuery(sql, stmt -> {
             stmt.setObject(1, projectId);
+            stmt.setObject(2, projectId);
             List<Tasks> tasks = new ArrayList<>();
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -89,9 +276,11 @@ public class TasksDAO extends BaseDAO {
     }
 
     public Tasks getTaskByIdIncludeDeleted(UUID id) throws SQLException {
-        String sql = "SELECT * FROM tasks WHERE id = ?";
+        String sql = "SELECT * FROM tasks WHERE id = ? " +
+                     "UNION ALL SELECT (" + ARCHIVED_ROW + ").* FROM tasks_archive WHERE id = ?";
         return executeQuery(sql, stmt -> {
             stmt.setObject(1, id);
+            stmt.setObject(2, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 return mapResultSetToTask(rs);
@@ -100,6 +289,195 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
+    // Moves up to batchSize tasks deleted before the cutoff into tasks_archive, oldest first, and
+    // returns how many were moved. Rows being restored or archived by another instance are skipped.
+    // The rows that reference an archived task (comments, members, attachments, ... and the rows
+    // referencing those) would be cascaded away or block the delete, so they are moved along into
+    // the archive row's dependents and put back by a restore. Tasks that still have subtasks stay
+    // until the subtasks are archived.
+    public int archiveDeletedTasks(LocalDateTime deletedBefore, int batchSize) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<TaskReference> references = getTaskReferences(conn);
+                StringBuilder noSubtasks = new StringBuilder();
+                for (TaskReference reference : references) {
+                    if (reference.table.equals("tasks")) {
+                        noSubtasks.append(" AND NOT EXISTS (SELECT 1 FROM tasks s WHERE s.").append(reference.column).append(" = t.id)");
+                    }
+                }
+                List<UUID> ids = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT t.id FROM tasks t WHERE t.deleted_at < ?" + noSubtasks +
+                        " ORDER BY t.deleted_at LIMIT ? FOR UPDATE SKIP LOCKED")) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(deletedBefore));
+                    stmt.setInt(2, batchSize);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getObject(1, UUID.class));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                // Dependent tables, referenced ones first; the conditions select a table's rows
+                // for one task (m.id) and for the whole batch (bound id array)
+                List<String> dependents = dependentTables(references);
+                StringBuilder documents = new StringBuilder("jsonb_build_array(");
+                for (int i = 0; i < dependents.size(); i++) {
+                    String table = dependents.get(i);
+                    documents.append(i > 0 ? ", " : "")
+                            .append("jsonb_build_object('table', '").append(table.replace("'", "''"))
+                            .append("', 'rows', COALESCE((SELECT jsonb_agg(to_jsonb(d)) FROM ").append(table)
+                            .append(" d WHERE ").append(belongsTo(references, table, "d", " = m.id", 0))
+                            .append("), '[]'::jsonb))");
+                }
+                documents.append(")");
+                Object idArray = conn.createArrayOf("uuid", ids.toArray());
+                try (PreparedStatement stmt = conn.prepareStatement("""
+                        INSERT INTO tasks_archive (id, project_id, deleted_at, archived_at, data, dependents)
+                        SELECT m.id, m.project_id, m.deleted_at, now(), to_jsonb(m), %s FROM tasks m WHERE m.id = ANY(?)
+                        ON CONFLICT (id) DO UPDATE SET project_id = EXCLUDED.project_id, deleted_at = EXCLUDED.deleted_at,
+                            archived_at = EXCLUDED.archived_at, data = EXCLUDED.data, dependents = EXCLUDED.dependents
+                        """.formatted(documents))) {
+                    stmt.setObject(1, idArray);
+                    stmt.executeUpdate();
+                }
+                // Referencing rows before the rows they reference, the tasks last
+                for (int i = dependents.size() - 1; i >= 0; i--) {
+                    String table = dependents.get(i);
+                    String condition = belongsTo(references, table, "d", " = ANY(?)", 0);
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " d WHERE " + condition)) {
+                        int params = condition.split("ANY\\(\\?\\)", -1).length - 1;
+                        for (int p = 1; p <= params; p++) {
+                            stmt.setObject(p, idArray);
+                        }
+                        stmt.executeUpdate();
+                    }
+                }
+                int moved;
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM tasks WHERE id = ANY(?)")) {
+                    stmt.setObject(1, idArray);
+                    moved = stmt.executeUpdate();
+                }
+                conn.commit();
+                return moved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // A single-column reference from table.column to parentTable.parentColumn (quoted for SQL)
+    private static final class TaskReference {
+        private final String table;
+        private final String column;
+        private final String parentTable;
+        private final String parentColumn;
+
+        TaskReference(String table, String column, String parentTable, String parentColumn) {
+            this.table = table;
+            this.column = column;
+            this.parentTable = parentTable;
+            this.parentColumn = parentColumn;
+        }
+    }
+
+    // Every foreign key of the schema (tasks.parent_task_id included), plus the references to
+    // tasks that TaskRepartitionTool turned into triggers once tasks is partitioned. Fails if a
+    // key with more than one column leads to tasks' dependent rows, which could not be followed.
+    private List<TaskReference> getTaskReferences(Connection conn) throws SQLException {
+        String sql = """
+            SELECT c.conrelid::regclass::text AS referencing, quote_ident(a.attname) AS column_name,
+                   c.confrelid::regclass::text AS referenced, quote_ident(r.attname) AS referenced_column,
+                   array_length(c.conkey, 1) = 1 AS simple
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+            JOIN pg_attribute r ON r.attrelid = c.confrelid AND r.attnum = c.confkey[1]
+            WHERE c.contype = 'f' AND c.conparentid = 0
+            UNION ALL
+            SELECT tgrelid::regclass::text, quote_ident(split_part(encode(tgargs, 'escape'), '\\000', 1)), 'tasks', 'id', true
+            FROM pg_trigger WHERE tgfoid = to_regproc('tasks_fk_check') AND NOT tgisinternal
+        """;
+        List<TaskReference> references = new ArrayList<>();
+        List<String> composite = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (rs.getBoolean("simple")) {
+                    references.add(new TaskReference(rs.getString("referencing"), rs.getString("column_name"),
+                            rs.getString("referenced"), rs.getString("referenced_column")));
+                } else {
+                    composite.add(rs.getString("referencing") + " -> " + rs.getString("referenced"));
+                }
+            }
+        }
+        List<String> reached = dependentTables(references);
+        reached.add("tasks");
+        for (String key : composite) {
+            if (reached.contains(key.substring(key.indexOf(" -> ") + 4))) {
+                throw new SQLException("Foreign key " + key + " has more than one column; not archiving");
+            }
+        }
+        return references;
+    }
+
+    // Tables whose rows depend on tasks, directly or through other dependent tables, each listed
+    // after the tables it references (subtasks are tasks and not included)
+    private static List<String> dependentTables(List<TaskReference> references) {
+        List<String> tables = new ArrayList<>();
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (TaskReference reference : references) {
+                boolean parentReached = reference.parentTable.equals("tasks") || tables.contains(reference.parentTable);
+                if (parentReached && !reference.table.equals("tasks") && !tables.contains(reference.table)) {
+                    tables.add(reference.table);
+                    added = true;
+                }
+            }
+        }
+        return tables;
+    }
+
+    // Condition on alias.* that the row of table belongs to the task(s) matched by taskMatch,
+    // through any reference to tasks or to a dependent table listed before it
+    private static String belongsTo(List<TaskReference> references, String table, String alias, String taskMatch, int depth) {
+        List<String> tables = dependentTables(references);
+        List<String> conditions = new ArrayList<>();
+        for (TaskReference reference : references) {
+            if (!reference.table.equals(table)) {
+                continue;
+            }
+            if (reference.parentTable.equals("tasks")) {
+                conditions.add(alias + "." + reference.column + taskMatch);
+            } else if (tables.indexOf(reference.parentTable) >= 0 && tables.indexOf(reference.parentTable) < tables.indexOf(table)) {
+                String parentAlias = "p" + depth;
+                conditions.add(alias + "." + reference.column + " IN (SELECT " + parentAlias + "." + reference.parentColumn
+                        + " FROM " + reference.parentTable + " " + parentAlias + " WHERE "
+                        + belongsTo(references, reference.parentTable, parentAlias, taskMatch, depth + 1) + ")");
+            }
+        }
+        return "(" + String.join(" OR ", conditions) + ")";
+    }
+
+    // Live tasks among the given ids, in no particular order
+    public List<Tasks> getTasksByIds(Collection<UUID> ids) throws SQLException {
+        String sql = "SELECT * FROM tasks WHERE id = ANY(?) AND deleted_at IS NULL";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            List<Tasks> tasks = new ArrayList<>();
+            while (rs.next()) {
+                tasks.add(mapResultSetToTask(rs));
+            }
+            return tasks;
+        });
+    }
+
     public Tasks getTaskById(UUID id) throws SQLException {
         String sql = "SELECT * FROM tasks WHERE id = ? AND deleted_at IS NULL";
         return executeQuery(sql, stmt -> {
@@ -139,29 +517,110 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
+    // Training rows for the AI service, read through a server-side cursor (autocommit off +
+    // fetch size) so only one fetch batch is in memory at a time. Without changedSince every
+    // trainable task is returned; with it every task updated since then, including tasks that
+    // are deleted or have no story points any more (the caller sends those as removals).
+    public void streamTrainingTasks(LocalDateTime changedSince, int fetchSize, SQLConsumer<Tasks> consumer) throws SQLException {
+        String sql = changedSince == null
+                ? "SELECT * FROM tasks WHERE deleted_at IS NULL AND story_point > 0"
+                : "SELECT * FROM tasks WHERE updated_at > ?";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(fetchSize);
+                if (changedSince != null) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(changedSince));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapResultSetToTask(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
     // --- Các hàm khác ---
 
     public void assignTask(UUID taskId, UUID userId) throws SQLException {
-        String sql = "UPDATE tasks SET assignee_id = ?, updated_at = now() WHERE id = ?";
+        String sql = "UPDATE tasks SET assignee_id = ?, updated_at = now(), version = version + 1 WHERE id = ?";
         executeUpdate(sql, stmt -> {
             stmt.setObject(1, userId);
             stmt.setObject(2, taskId);
         });
     }
 
-    public void changeTaskStatus(UUID taskId, String status) throws SQLException {
-        String sql = "UPDATE tasks SET status = ?, updated_at = now() WHERE id = ?";
-        executeUpdate(sql, stmt -> {
-            stmt.setString(1, status);
-            stmt.setObject(2, taskId);
+    // Coalesced board changes (see TaskWriteCoalescer) for many tasks in one UPDATE: ids, statuses
+    // and ranks as parallel arrays, a null status or rank leaves that column as it is. Returns the
+    // status each updated (live) task had before, read under the row lock as in updateTask.
+    public Map<UUID, TaskStatus> applyBoardChanges(List<UUID> ids, List<String> statuses, List<String> ranks) throws SQLException {
+        if (ids.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        String sql = "UPDATE tasks t SET status = COALESCE(v.status, t.status), board_rank = COALESCE(v.rank, t.board_rank), " +
+                     "updated_at = now(), version = t.version + 1 " +
+                     "FROM unnest(?::uuid[], ?::text[], ?::text[]) AS v(id, status, rank), " +
+                     "(SELECT id, status FROM tasks WHERE id = ANY(?::uuid[]) ORDER BY id FOR UPDATE) old " +
+                     "WHERE t.id = v.id AND t.id = old.id AND t.deleted_at IS NULL " +
+                     "RETURNING t.id, old.status AS previous_status";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", ids.toArray()));
+            stmt.setArray(2, stmt.getConnection().createArrayOf("text", statuses.toArray()));
+            stmt.setArray(3, stmt.getConnection().createArrayOf("text", ranks.toArray()));
+            stmt.setArray(4, stmt.getConnection().createArrayOf("uuid", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, TaskStatus> previous = new LinkedHashMap<>();
+            while (rs.next()) {
+                previous.put(rs.getObject("id", UUID.class), TaskStatus.valueOf(rs.getString("previous_status")));
+            }
+            return previous;
         });
     }
 
-    public void updateStoryPoint(UUID taskId, int storyPoint) throws SQLException {
-        String sql = "UPDATE tasks SET story_point = ?, updated_at = now() WHERE id = ?";
-        executeUpdate(sql, stmt -> {
+    // Returns the story point the update replaced, read under the row lock (as in updateTask), or
+    // null if there is no such live task
+    public Integer updateStoryPoint(UUID taskId, int storyPoint) throws SQLException {
+        String sql = "UPDATE tasks t SET story_point = ?, updated_at = now(), version = t.version + 1 " +
+                     "FROM (SELECT id, story_point FROM tasks WHERE id = ? FOR UPDATE) old " +
+                     "WHERE t.id = old.id AND t.deleted_at IS NULL RETURNING old.story_point AS previous_story_point";
+        return executeQuery(sql, stmt -> {
             stmt.setInt(1, storyPoint);
             stmt.setObject(2, taskId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("previous_story_point") : null;
+        });
+    }
+
+    // Story points for many tasks in one UPDATE; ids and points are passed as parallel arrays.
+    // Only live tasks still without story points are written (an estimate must not replace points
+    // set meanwhile). Returns the previous story point of each task written, read under the row lock.
+    public Map<UUID, Integer> updateStoryPoints(Map<UUID, Integer> storyPoints) throws SQLException {
+        if (storyPoints.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        String sql = "UPDATE tasks t SET story_point = v.story_point, updated_at = now(), version = t.version + 1 " +
+                     "FROM unnest(?::uuid[], ?::int[]) AS v(id, story_point), " +
+                     "(SELECT id, story_point FROM tasks WHERE id = ANY(?::uuid[]) ORDER BY id FOR UPDATE) old " +
+                     "WHERE t.id = v.id AND t.id = old.id AND t.story_point <= 0 AND t.deleted_at IS NULL " +
+                     "RETURNING t.id, old.story_point AS previous_story_point";
+        UUID[] ids = storyPoints.keySet().toArray(new UUID[0]);
+        Integer[] points = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            points[i] = storyPoints.get(ids[i]);
+        }
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", ids));
+            stmt.setArray(2, stmt.getConnection().createArrayOf("integer", points));
+            stmt.setArray(3, stmt.getConnection().createArrayOf("uuid", ids));
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, Integer> previous = new LinkedHashMap<>();
+            while (rs.next()) {
+                previous.put(rs.getObject("id", UUID.class), rs.getInt("previous_story_point"));
+            }
+            return previous;
         });
     }
 
@@ -174,6 +633,37 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
+    public void unlinkTasks(UUID taskId, UUID relatedTaskId) throws SQLException {
+        String sql = "DELETE FROM task_links WHERE task_id = ? AND related_task_id = ?";
+        executeUpdate(sql, stmt -> {
+            stmt.setObject(1, taskId);
+            stmt.setObject(2, relatedTaskId);
+        });
+    }
+
+    // All links between live tasks of a project: task_id -> related_task_ids (the tasks blocking it)
+    public Map<UUID, List<UUID>> getTaskLinksByProject(UUID projectId) throws SQLException {
+        String sql = """
+            SELECT l.task_id, l.related_task_id
+            FROM task_links l
+            JOIN tasks t ON t.id = l.task_id
+            JOIN tasks r ON r.id = l.related_task_id
+            WHERE t.project_id = ? AND r.project_id = ?
+              AND t.deleted_at IS NULL AND r.deleted_at IS NULL
+            """;
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            stmt.setObject(2, projectId);
+            Map<UUID, List<UUID>> links = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                links.computeIfAbsent(rs.getObject("task_id", UUID.class), k -> new ArrayList<>())
+                        .add(rs.getObject("related_task_id", UUID.class));
+            }
+            return links;
+        });
+    }
+
     public List<Tasks> filterTasks(String status, UUID assigneeId) throws SQLException {
         String sql = "SELECT * FROM tasks WHERE status = ? AND assignee_id = ? AND deleted_at IS NULL";
         return executeQuery(sql, stmt -> {
@@ -231,12 +721,16 @@ public class TasksDAO extends BaseDAO {
 
     public void addCommentToTask(UUID taskId, String comment) throws SQLException {
         // Updated to use the actual 'comments' table with proper structure
-        String sql = "INSERT INTO comments (task_id, user_id, user_name, content, created_at, updated_at, is_deleted) VALUES (?, ?, ?, ?, now(), now(), false)";
-        executeUpdate(sql, stmt -> {
+        String sql = "WITH inserted AS (INSERT INTO comments (task_id, user_id, user_name, content, created_at, updated_at, is_deleted) " +
+                     "VALUES (?, ?, ?, ?, now(), now(), false) RETURNING task_id), " +
+                     TaskCounterSql.counterCte(TaskCounterSql.COMMENTS, "inserted", 1) +
+                     " SELECT COUNT(*) FROM inserted";
+        executeQuery(sql, stmt -> {
             stmt.setObject(1, taskId);
             stmt.setString(2, "SYSTEM"); // Default user ID - should be passed from service layer
             stmt.setString(3, "System User"); // Default user name - should be passed from service layer
             stmt.setString(4, comment);
+            return stmt.execute();
         });
     }
 
@@ -253,20 +747,28 @@ public class TasksDAO extends BaseDAO {
     // --- Task Members ---
 
     public void addMemberToTask(UUID taskId, UUID userId) throws SQLException {
-        String sql = "INSERT INTO task_members (id, task_id, user_id, role_in_task, created_at) VALUES (?, ?, ?, ?, now())";
-        executeUpdate(sql, stmt -> {
+        // The member counter moves in the same statement
+        String sql = "WITH inserted AS (INSERT INTO task_members (id, task_id, user_id, role_in_task, created_at) " +
+                     "VALUES (?, ?, ?, ?, now()) RETURNING task_id), " +
+                     TaskCounterSql.counterCte(TaskCounterSql.MEMBERS, "inserted", 1) +
+                     " SELECT COUNT(*) FROM inserted";
+        executeQuery(sql, stmt -> {
             stmt.setObject(1, UUID.randomUUID());
             stmt.setObject(2, taskId);
             stmt.setObject(3, userId);
             stmt.setString(4, "member"); // default role
+            return stmt.execute();
         });
     }
 
     public void removeMemberFromTask(UUID taskId, UUID userId) throws SQLException {
-        String sql = "DELETE FROM task_members WHERE task_id = ? AND user_id = ?";
-        executeUpdate(sql, stmt -> {
+        String sql = "WITH removed AS (DELETE FROM task_members WHERE task_id = ? AND user_id = ? RETURNING task_id), " +
+                     TaskCounterSql.counterCte(TaskCounterSql.MEMBERS, "removed", -1) +
+                     " SELECT COUNT(*) FROM removed";
+        executeQuery(sql, stmt -> {
             stmt.setObject(1, taskId);
             stmt.setObject(2, userId);
+            return stmt.execute();
         });
     }
 
@@ -282,6 +784,136 @@ public class TasksDAO extends BaseDAO {
             return members;
         });
     }
+
+    // --- Manual ordering (board_rank, see FractionalRank) ---
+
+    // Highest rank in the project, where new tasks are appended
+    public String getLastRank(UUID projectId) throws SQLException {
+        String sql = "SELECT board_rank FROM tasks WHERE project_id = ? AND deleted_at IS NULL AND board_rank IS NOT NULL " +
+                     "ORDER BY board_rank DESC LIMIT 1";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString("board_rank") : null;
+        });
+    }
+
+    // Ranks of the given live tasks of a project (tasks without a rank map to null)
+    public Map<UUID, String> getRanks(UUID projectId, Collection<UUID> taskIds) throws SQLException {
+        String sql = "SELECT id, board_rank FROM tasks WHERE project_id = ? AND id = ANY(?) AND deleted_at IS NULL";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            stmt.setArray(2, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            Map<UUID, String> ranks = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ranks.put(rs.getObject("id", UUID.class), rs.getString("board_rank"));
+            }
+            return ranks;
+        });
+    }
+
+    // One page of a project's tasks in rank order, after the (rank, id) of the previous page's
+    // last task; served by idx_tasks_project_rank / idx_tasks_project_status_rank
+    public List<Tasks> getTasksByRank(UUID projectId, String status, String afterRank, UUID afterId, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM tasks WHERE project_id = ? AND deleted_at IS NULL AND board_rank IS NOT NULL");
+        if (status != null) {
+            sql.append(" AND status = ?");
+        }
+        if (afterRank != null) {
+            sql.append(" AND (board_rank, id) > (?, ?)");
+        }
+        sql.append(" ORDER BY board_rank, id LIMIT ?");
+        return executeQuery(sql.toString(), stmt -> {
+            int index = 1;
+            stmt.setObject(index++, projectId);
+            if (status != null) {
+                stmt.setString(index++, status);
+            }
+            if (afterRank != null) {
+                stmt.setString(index++, afterRank);
+                stmt.setObject(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            List<Tasks> tasks = new ArrayList<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(mapResultSetToTask(rs));
+            }
+            return tasks;
+        });
+    }
+
+    // Cheap once ranks are backfilled: only idx_tasks_rank_maintenance (a handful of rows) is read
+    public boolean hasUnrankedTasks(UUID projectId) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM tasks WHERE project_id = ? AND deleted_at IS NULL AND board_rank IS NULL)";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getBoolean(1);
+        });
+    }
+
+    // Projects with tasks that have no rank yet or a rank grown past MAX_RANK_LENGTH
+    public List<UUID> findProjectsToRebalance(int limit) throws SQLException {
+        String sql = "SELECT DISTINCT project_id FROM tasks WHERE deleted_at IS NULL AND project_id IS NOT NULL " +
+                     "AND (board_rank IS NULL OR length(board_rank) > " + MAX_RANK_LENGTH + ") LIMIT ?";
+        return executeQuery(sql, stmt -> {
+            stmt.setInt(1, limit);
+            List<UUID> projects = new ArrayList<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                projects.add(rs.getObject("project_id", UUID.class));
+            }
+            return projects;
+        });
+    }
+
+    // Current order of a project's live tasks (unranked ones last, oldest first): id -> rank.
+    // Tasks with the same rank keep the (rank, id) order getTasksByRank shows them in.
+    public LinkedHashMap<UUID, String> getRankOrder(UUID projectId) throws SQLException {
+        String sql = "SELECT id, board_rank FROM tasks WHERE project_id = ? AND deleted_at IS NULL " +
+                     "ORDER BY board_rank NULLS LAST, CASE WHEN board_rank IS NULL THEN created_at END, id";
+        return executeQuery(sql, stmt -> {
+            stmt.setObject(1, projectId);
+            LinkedHashMap<UUID, String> order = new LinkedHashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                order.put(rs.getObject("id", UUID.class), rs.getString("board_rank"));
+            }
+            return order;
+        });
+    }
+
+    // Rewrites ranks in one statement, skipping rows whose rank changed since it was read (a move
+    // that happened meanwhile wins). Not a content change, so the version stays as it is.
+    public int rewriteRanks(List<UUID> ids, List<String> oldRanks, List<String> newRanks) throws SQLException {
+        String sql = "UPDATE tasks t SET board_rank = v.new_rank " +
+                     "FROM unnest(?::uuid[], ?::text[], ?::text[]) AS v(id, old_rank, new_rank) " +
+                     "WHERE t.id = v.id AND t.board_rank IS NOT DISTINCT FROM v.old_rank";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", ids.toArray()));
+            stmt.setArray(2, stmt.getConnection().createArrayOf("text", oldRanks.toArray()));
+            stmt.setArray(3, stmt.getConnection().createArrayOf("text", newRanks.toArray()));
+            return stmt.executeUpdate();
+        });
+    }
+
+    // Members of many tasks in one query, keyed by task id (tasks without members are absent)
+    public Map<UUID, List<UUID>> getTaskMembersByTaskIds(Collection<UUID> taskIds) throws SQLException {
+        String sql = "SELECT task_id, user_id FROM task_members WHERE task_id = ANY(?) ORDER BY task_id, created_at";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", taskIds.toArray()));
+            Map<UUID, List<UUID>> members = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                members.computeIfAbsent(rs.getObject("task_id", UUID.class), id -> new ArrayList<>())
+                        .add(rs.getObject("user_id", UUID.class));
+            }
+            return members;
+        });
+    }
+
     public List<Tasks> getTasksByProjectId(UUID projectId) throws SQLException {
         String sql = "SELECT * FROM tasks WHERE project_id = ? AND deleted_at IS NULL";
         return executeQuery(sql, stmt -> {
@@ -353,7 +985,7 @@ public class TasksDAO extends BaseDAO {
 
     // Add method to update task priority
     public void updateTaskPriority(UUID taskId, TaskPriority priority) throws SQLException {
-        String sql = "UPDATE tasks SET priority = ?, updated_at = now() WHERE id = ?";
+        String sql = "UPDATE tasks SET priority = ?, updated_at = now(), version = version + 1 WHERE id = ?";
         executeUpdate(sql, stmt -> {
             stmt.setString(1, priority.name());
             stmt.setObject(2, taskId);
@@ -491,6 +1123,45 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
+    // Display info (username, email, avatar) of the given users, keyed by id
+    public Map<UUID, Map<String, Object>> getUsersByIds(Collection<UUID> userIds) throws SQLException {
+        String sql = "SELECT id, username, email, avatar FROM users WHERE id = ANY(?)";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", userIds.toArray()));
+            Map<UUID, Map<String, Object>> users = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                UUID id = rs.getObject("id", UUID.class);
+                Map<String, Object> user = new HashMap<>();
+                user.put("id", id);
+                user.put("username", rs.getString("username"));
+                user.put("email", rs.getString("email"));
+                user.put("avatar", rs.getString("avatar"));
+                users.put(id, user);
+            }
+            return users;
+        });
+    }
+
+    // Display fields only (no email), for member lists rendered to every project member
+    public Map<UUID, Map<String, Object>> getUserDisplayByIds(Collection<UUID> userIds) throws SQLException {
+        String sql = "SELECT id, username, avatar FROM users WHERE id = ANY(?)";
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", userIds.toArray()));
+            Map<UUID, Map<String, Object>> users = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                UUID id = rs.getObject("id", UUID.class);
+                Map<String, Object> user = new HashMap<>();
+                user.put("id", id);
+                user.put("username", rs.getString("username"));
+                user.put("avatar", rs.getString("avatar"));
+                users.put(id, user);
+            }
+            return users;
+        });
+    }
+
     public List<String> getTaskTypes(UUID projectId) throws SQLException {
         String sql = "SELECT DISTINCT label FROM tasks WHERE project_id = ? AND label IS NOT NULL AND deleted_at IS NULL ORDER BY label";
         
@@ -578,51 +1249,42 @@ public class TasksDAO extends BaseDAO {
         } catch (SQLException e) {
             // Ignore if deleted_at column doesn't exist
         }
+
+        try {
+            builder.version(rs.getLong("version"));
+        } catch (SQLException e) {
+            // Ignore if version column doesn't exist
+        }
+
+        try {
+            builder.rank(rs.getString("board_rank"));
+        } catch (SQLException e) {
+            // Ignore if board_rank column doesn't exist
+        }
         
         return builder.build();
     }
 
-    // Get project activity - returns recent task updates as activity data
-    public List<Object> getProjectActivity(UUID projectId) throws SQLException {
-        String sql = """
-            SELECT t.id, t.title, t.status, t.assignee_id, t.updated_at, t.created_at,
-                   u.username as assignee_name
-            FROM tasks t
-            LEFT JOIN users u ON t.assignee_id = u.id
-            WHERE t.project_id = ?
-            ORDER BY t.updated_at DESC
-            LIMIT 10
-            """;
-            
+    // Get overdue tasks for a specific project
+    public List<Tasks> getOverdueTasks(UUID projectId) throws SQLException {
+        String sql = "SELECT * FROM tasks WHERE project_id = ? AND due_date < CURRENT_DATE AND status != 'DONE' AND deleted_at IS NULL ORDER BY due_date ASC";
+        
         return executeQuery(sql, stmt -> {
             stmt.setObject(1, projectId);
+            List<Tasks> overdueTasks = new ArrayList<>();
             ResultSet rs = stmt.executeQuery();
-            List<Object> activities = new ArrayList<>();
-            
             while (rs.next()) {
-                // Create activity object with task update information
-                var activity = new java.util.HashMap<String, Object>();
-                activity.put("id", rs.getObject("id", UUID.class));
-                activity.put("type", "task_updated");
-                activity.put("user", rs.getString("assignee_name") != null ? rs.getString("assignee_name") : "Unknown User");
-                activity.put("task", rs.getString("title"));
-                activity.put("taskKey", "TASK-" + rs.getObject("id", UUID.class).toString().substring(0, 8));
-                activity.put("status", rs.getString("status"));
-                activity.put("timestamp", rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : rs.getTimestamp("created_at").toLocalDateTime());
-                
-                activities.add(activity);
+                overdueTasks.add(mapResultSetToTask(rs));
             }
-            
-            return activities;
+            return overdueTasks;
         });
     }
 
-    // Get overdue tasks for a specific project
-    public List<Tasks> getOverdueTasks(UUID projectId) throws SQLException {
-        String sql = "SELECT * FROM tasks WHERE project_id = ? AND due_date < CURRENT_DATE AND status != 'DONE' ORDER BY due_date ASC";
+    // Get all overdue tasks across all projects
+    public List<Tasks> getAllOverdueTasks() throws SQLException {
+        String sql = "SELECT * FROM tasks WHERE due_date < CURRENT_DATE AND status != 'DONE' AND deleted_at IS NULL ORDER BY due_date ASC";
         
         return executeQuery(sql, stmt -> {
-            stmt.setObject(1, projectId);
             List<Tasks> overdueTasks = new ArrayList<>();
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -632,11 +1294,23 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
-    // Get all overdue tasks across all projects
-    public List<Tasks> getAllOverdueTasks() throws SQLException {
-        String sql = "SELECT * FROM tasks WHERE due_date < CURRENT_DATE AND status != 'DONE' ORDER BY due_date ASC";
-        
-        return executeQuery(sql, stmt -> {
+    // Assigned, open tasks that became overdue since the last scan: either their due date passed
+    // after the due-date watermark, or they were edited after the updated_at watermark (e.g. reassigned
+    // or reopened). Null watermarks mean a full scan.
+    public List<Tasks> getNewlyOverdueTasks(LocalDate dueFrom, LocalDate dueBefore, LocalDateTime updatedSince) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT * FROM tasks WHERE deleted_at IS NULL AND status != 'DONE' AND assignee_id IS NOT NULL AND due_date < ?");
+        if (dueFrom != null && updatedSince != null) {
+            sql.append(" AND (due_date >= ? OR updated_at >= ?)");
+        }
+        sql.append(" ORDER BY due_date ASC");
+
+        return executeQuery(sql.toString(), stmt -> {
+            stmt.setObject(1, dueBefore);
+            if (dueFrom != null && updatedSince != null) {
+                stmt.setObject(2, dueFrom);
+                stmt.setTimestamp(3, Timestamp.valueOf(updatedSince));
+            }
             List<Tasks> overdueTasks = new ArrayList<>();
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -646,4 +1320,18 @@ public class TasksDAO extends BaseDAO {
         });
     }
 
+    // Project names for a set of projects in one query
+    public Map<UUID, String> getProjectNames(Set<UUID> projectIds) throws SQLException {
+        String sql = "SELECT id, name FROM projects WHERE id = ANY(?)";
+
+        return executeQuery(sql, stmt -> {
+            stmt.setArray(1, stmt.getConnection().createArrayOf("uuid", projectIds.toArray()));
+            Map<UUID, String> names = new HashMap<>();
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                names.put(rs.getObject("id", UUID.class), rs.getString("name"));
+            }
+            return names;
+        });
+    }
 }
@@ -0,0 +1,245 @@
+package com.tmnhat.tasksservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.common.exception.ResourceNotFoundException;
+import com.tmnhat.common.exception.TooManyRequestsException;
+import com.tmnhat.tasksservice.model.AsyncJob;
+import com.tmnhat.tasksservice.payload.enums.JobStatus;
+import com.tmnhat.tasksservice.payload.enums.JobType;
+import com.tmnhat.tasksservice.repository.AsyncJobDAO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs long operations (AI training, bulk estimation) on a bounded background executor.
+// Job state lives in async_jobs so any instance can answer status polls; a running job is
+// kept alive by a heartbeat and reaped as FAILED if its instance disappears.
+@Service
+public class AsyncJobService {
+
+    // Handed to a running job for progress reporting and cooperative cancellation
+    public interface JobContext {
+        JobContext NONE = new JobContext() {
+            @Override
+            public void reportProgress(int done, int total) {}
+
+            @Override
+            public boolean isCancelled() { return false; }
+        };
+
+        void reportProgress(int done, int total);
+
+        boolean isCancelled();
+    }
+
+    @FunctionalInterface
+    public interface JobBody {
+        Object run(JobContext context) throws Exception;
+    }
+
+    @Autowired
+    private AsyncJobDAO asyncJobDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jobs.executor.threads:2}")
+    private int threads;
+
+    @Value("${jobs.executor.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${jobs.progress-flush-ms:1000}")
+    private long progressFlushMs;
+
+    @Value("${jobs.stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    @Value("${jobs.retention-days:7}")
+    private int retentionDays;
+
+    private ThreadPoolExecutor executor;
+    // Jobs queued or running on this instance
+    private final Map<UUID, RunningJob> localJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "async-job");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    // Queues a job and returns it immediately. If the same job (type + project) is already
+    // queued or running, that job is returned instead of starting a second one.
+    public AsyncJob submit(JobType type, UUID projectId, UUID requestedBy, JobBody body) {
+        UUID jobId = UUID.randomUUID();
+        try {
+            if (!asyncJobDAO.insertJob(jobId, type, projectId, requestedBy)) {
+                AsyncJob active = asyncJobDAO.findActiveJob(type, projectId);
+                if (active != null) {
+                    return active;
+                }
+                throw new TooManyRequestsException("A " + type + " job is finishing, try again shortly");
+            }
+
+            RunningJob job = new RunningJob(jobId);
+            localJobs.put(jobId, job);
+            try {
+                executor.execute(() -> run(job, body));
+            } catch (RejectedExecutionException e) {
+                localJobs.remove(jobId);
+                asyncJobDAO.finishJob(jobId, JobStatus.FAILED, null, "Job queue is full");
+                throw new TooManyRequestsException("Too many background jobs queued, try again later");
+            }
+            return asyncJobDAO.getJob(jobId);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error submitting job: " + e.getMessage());
+        }
+    }
+
+    public AsyncJob getJob(UUID jobId) {
+        try {
+            AsyncJob job = asyncJobDAO.getJob(jobId);
+            if (job == null) {
+                throw new ResourceNotFoundException("Job not found with ID " + jobId);
+            }
+            return job;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving job: " + e.getMessage());
+        }
+    }
+
+    // A queued job is cancelled at once; a running job stops at its next progress checkpoint
+    public AsyncJob cancel(UUID jobId) {
+        AsyncJob job = getJob(jobId);
+        if (job.getStatus().isFinished()) {
+            return job;
+        }
+        try {
+            if (!asyncJobDAO.cancelQueuedJob(jobId)) {
+                asyncJobDAO.requestCancel(jobId);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error cancelling job: " + e.getMessage());
+        }
+        RunningJob local = localJobs.get(jobId);
+        if (local != null) {
+            local.cancelled = true;
+        }
+        return getJob(jobId);
+    }
+
+    private void run(RunningJob job, JobBody body) {
+        try {
+            if (!asyncJobDAO.markRunning(job.id)) {
+                return; // cancelled while queued
+            }
+            Object result = body.run(job);
+            job.flush();
+            asyncJobDAO.finishJob(job.id, job.cancelled ? JobStatus.CANCELLED : JobStatus.SUCCEEDED, toJson(result), null);
+        } catch (Exception e) {
+            System.err.println("Job " + job.id + " failed: " + e.getMessage());
+            try {
+                asyncJobDAO.finishJob(job.id, job.cancelled ? JobStatus.CANCELLED : JobStatus.FAILED, null, e.getMessage());
+            } catch (SQLException ex) {
+                System.err.println("Failed to record failure of job " + job.id + ": " + ex.getMessage());
+            }
+        } finally {
+            localJobs.remove(job.id);
+        }
+    }
+
+    private String toJson(Object result) {
+        try {
+            return result != null ? objectMapper.writeValueAsString(result) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Heartbeat for local jobs (also picks up cancel requests made through another instance),
+    // then reap jobs whose instance stopped heartbeating and drop old finished jobs
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-ms:30000}", initialDelayString = "${jobs.heartbeat-ms:30000}")
+    public void maintainJobs() {
+        try {
+            if (!localJobs.isEmpty()) {
+                Set<UUID> cancelled = asyncJobDAO.heartbeat(localJobs.keySet());
+                for (UUID id : cancelled) {
+                    RunningJob job = localJobs.get(id);
+                    if (job != null) {
+                        job.cancelled = true;
+                    }
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int reaped = asyncJobDAO.failStaleJobs(now.minusNanos(staleAfterMs * 1_000_000L), "Job stopped responding (service restarted?)");
+            if (reaped > 0) {
+                System.out.println("Marked " + reaped + " stale background job(s) as failed");
+            }
+            asyncJobDAO.deleteFinishedBefore(now.minusDays(retentionDays));
+        } catch (Exception e) {
+            System.err.println("Background job maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private class RunningJob implements JobContext {
+        private final UUID id;
+        private volatile boolean cancelled;
+        private volatile int done;
+        private volatile int total;
+        private long lastFlushNanos;
+
+        RunningJob(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public void reportProgress(int done, int total) {
+            this.done = done;
+            this.total = total;
+            if (System.nanoTime() - lastFlushNanos >= progressFlushMs * 1_000_000L || done >= total) {
+                flush();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Progress writes are throttled; each one also reports back a pending cancel request
+        void flush() {
+            lastFlushNanos = System.nanoTime();
+            try {
+                if (asyncJobDAO.updateProgress(id, done, total)) {
+                    cancelled = true;
+                }
+            } catch (SQLException e) {
+                System.err.println("Failed to save progress of job " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
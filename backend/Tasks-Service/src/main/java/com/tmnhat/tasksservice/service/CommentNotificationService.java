@@ -0,0 +1,215 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import com.tmnhat.tasksservice.model.Comment;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.repository.CommentsDAO;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Sends the notifications of a new comment or reply in the background, all in one
+// /api/notifications/batch call: MENTIONED_IN_COMMENT for @mentioned project members,
+// COMMENT_REPLY for the author of the parent comment and TASK_COMMENT for the task's
+// watchers (assignee, creator and task members). Each recipient gets one notification,
+// the most specific one, and the comment author gets none.
+@Service
+public class CommentNotificationService {
+
+    // @username, not preceded by a word character (so e-mail addresses don't match)
+    private static final Pattern MENTION = Pattern.compile("(?<![\\p{L}\\p{N}_.])@([\\p{L}\\p{N}_.-]{2,50})");
+    private static final int MAX_MENTIONS = 20;
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Autowired
+    private CommentsDAO commentsDAO;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Value("${comments.notifications.queue-capacity:500}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "comment-notify");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    // Queues the notifications of a just-saved comment; parent is the replied-to comment or null.
+    // Never fails the caller: when the queue is full the notifications are dropped and logged.
+    public void commentAdded(Comment comment, Comment parent) {
+        try {
+            executor.execute(() -> {
+                try {
+                    notifyComment(comment, parent);
+                } catch (Exception e) {
+                    System.err.println("Failed to send notifications for comment " + comment.getId() + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Comment notification queue full, dropped notifications for comment " + comment.getId());
+        }
+    }
+
+    private void notifyComment(Comment comment, Comment parent) throws Exception {
+        Tasks task = tasksDAO.getTaskById(comment.getTaskId());
+        UUID authorId = parseUserId(comment.getUserId());
+        if (task == null || authorId == null) {
+            return;
+        }
+
+        Set<String> mentioned = extractMentions(comment.getContent());
+        String authorName = "Someone";
+        // recipient -> notification type, first (most specific) one wins
+        Map<UUID, String> recipients = new LinkedHashMap<>();
+        // Mentioned users and the author's name in one query; mentions of non-members are ignored
+        for (Map<String, Object> user : commentsDAO.findMentionCandidates(task.getProjectId(), mentioned, authorId)) {
+            UUID userId = (UUID) user.get("id");
+            String username = (String) user.get("username");
+            if (userId.equals(authorId) && username != null) {
+                authorName = username;
+            }
+            if (Boolean.TRUE.equals(user.get("member")) && username != null
+                    && mentioned.contains(username.toLowerCase(Locale.ROOT))) {
+                recipients.putIfAbsent(userId, "MENTIONED_IN_COMMENT");
+            }
+        }
+
+        UUID parentAuthorId = parent != null ? parseUserId(parent.getUserId()) : null;
+        if (parentAuthorId != null) {
+            recipients.putIfAbsent(parentAuthorId, "COMMENT_REPLY");
+        }
+
+        List<UUID> watchers = new ArrayList<>();
+        watchers.add(task.getAssigneeId());
+        watchers.add(task.getCreatedBy());
+        watchers.addAll(tasksDAO.getTaskMembers(task.getId()));
+        for (UUID watcher : watchers) {
+            if (watcher != null) {
+                recipients.putIfAbsent(watcher, "TASK_COMMENT");
+            }
+        }
+        recipients.remove(authorId);
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        String projectName = null;
+        if (task.getProjectId() != null) {
+            projectName = tasksDAO.getProjectNames(Set.of(task.getProjectId())).get(task.getProjectId());
+        }
+
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (Map.Entry<UUID, String> recipient : recipients.entrySet()) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", recipient.getValue());
+            payload.put("title", titleFor(recipient.getValue()));
+            payload.put("message", messageFor(recipient.getValue(), authorName, task.getTitle()));
+            payload.put("recipientUserId", recipient.getKey().toString());
+            payload.put("actorUserId", authorId.toString());
+            payload.put("actorUserName", authorName);
+            payload.put("taskId", task.getId().toString());
+            payload.put("commentId", comment.getId());
+            if (task.getProjectId() != null) {
+                payload.put("projectId", task.getProjectId().toString());
+                payload.put("projectName", projectName != null ? projectName : "Unknown Project");
+            }
+            payloads.add(payload);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String url = serviceUrls.getNotificationServiceUrl() + "/api/notifications/batch";
+        ResponseEntity<Map> response = resilienceRegistry.guard(ResilienceRegistry.NOTIFICATION_SERVICE).call(
+                () -> restTemplate.postForEntity(url, new HttpEntity<>(payloads, headers), Map.class),
+                () -> null);
+        if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+            System.err.println("Notification-Service unavailable, dropped " + payloads.size() + " notification(s) for comment " + comment.getId());
+        }
+    }
+
+    // Distinct lower-cased usernames mentioned in the text
+    static Set<String> extractMentions(String content) {
+        Set<String> usernames = new LinkedHashSet<>();
+        if (content == null) {
+            return usernames;
+        }
+        Matcher matcher = MENTION.matcher(content);
+        while (matcher.find() && usernames.size() < MAX_MENTIONS) {
+            // A trailing '.' or '-' is punctuation, not part of the name
+            String username = matcher.group(1).replaceAll("[.\\-]+$", "");
+            if (username.length() > 1) {
+                usernames.add(username.toLowerCase(Locale.ROOT));
+            }
+        }
+        return usernames;
+    }
+
+    private static UUID parseUserId(String userId) {
+        try {
+            return userId != null ? UUID.fromString(userId) : null;
+        } catch (IllegalArgumentException e) {
+            return null; // e.g. "SYSTEM" comments
+        }
+    }
+
+    private static String titleFor(String type) {
+        return switch (type) {
+            case "MENTIONED_IN_COMMENT" -> "You were mentioned";
+            case "COMMENT_REPLY" -> "New reply";
+            default -> "New comment";
+        };
+    }
+
+    private static String messageFor(String type, String authorName, String taskTitle) {
+        return switch (type) {
+            case "MENTIONED_IN_COMMENT" -> authorName + " mentioned you in a comment on \"" + taskTitle + "\"";
+            case "COMMENT_REPLY" -> authorName + " replied to your comment on \"" + taskTitle + "\"";
+            default -> authorName + " commented on \"" + taskTitle + "\"";
+        };
+    }
+}
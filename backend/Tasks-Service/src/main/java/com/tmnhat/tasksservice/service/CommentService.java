@@ -1,21 +1,37 @@
 package com.tmnhat.tasksservice.service;
 
 import com.tmnhat.tasksservice.model.Comment;
+import com.tmnhat.tasksservice.model.CommentThread;
 import com.tmnhat.tasksservice.repository.CommentsDAO;
+import com.tmnhat.common.exception.BadRequestException;
 import com.tmnhat.common.exception.DatabaseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class CommentService {
+
+    private static final int DEFAULT_THREAD_PAGE_SIZE = 20;
+    private static final int MAX_THREAD_PAGE_SIZE = 100;
     
     @Autowired
     private CommentsDAO commentsDAO;
+
+    @Autowired
+    private TaskCounterService taskCounterService;
+
+    @Autowired
+    private CommentNotificationService commentNotificationService;
     
     // Get all comments for a task
     public List<Comment> getCommentsByTaskId(UUID taskId) {
@@ -38,7 +54,10 @@ public class CommentService {
                     .isDeleted(false)
                     .build();
             
-            return commentsDAO.addComment(comment);
+            Comment saved = commentsDAO.addComment(comment);
+            // Mentions and watchers are notified in the background
+            commentNotificationService.commentAdded(saved, null);
+            return saved;
         } catch (SQLException e) {
             throw new DatabaseException("Error adding comment: " + e.getMessage());
         }
@@ -63,7 +82,9 @@ public class CommentService {
                     .isDeleted(false)
                     .build();
             
-            return commentsDAO.addComment(reply);
+            Comment saved = commentsDAO.addComment(reply);
+            commentNotificationService.commentAdded(saved, parentComment);
+            return saved;
         } catch (SQLException e) {
             throw new DatabaseException("Error adding reply: " + e.getMessage());
         }
@@ -101,21 +122,16 @@ public class CommentService {
                 throw new IllegalArgumentException("You can only delete your own comments");
             }
             
-            comment.setIsDeleted(true);
-            comment.setUpdatedAt(LocalDateTime.now());
-            commentsDAO.updateComment(comment);
+            // Also decrements the task's comment counter
+            commentsDAO.softDeleteComment(commentId);
         } catch (SQLException e) {
             throw new DatabaseException("Error deleting comment: " + e.getMessage());
         }
     }
     
-    // Get comment count for a task
+    // Get comment count for a task (maintained counter, no COUNT(*) over comments)
     public Long getCommentCount(UUID taskId) {
-        try {
-            return commentsDAO.countByTaskIdAndNotDeleted(taskId);
-        } catch (SQLException e) {
-            throw new DatabaseException("Error counting comments: " + e.getMessage());
-        }
+        return (long) taskCounterService.getCounters(taskId).getComments();
     }
     
     // Get comment by ID
@@ -135,4 +151,59 @@ public class CommentService {
             throw new DatabaseException("Error retrieving replies: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    // One page of top-level comments, oldest first, each with its whole reply tree:
+    // "items" and "nextCursor" (null on the last page)
+    public Map<String, Object> getCommentThread(UUID taskId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_THREAD_PAGE_SIZE : Math.min(limit, MAX_THREAD_PAGE_SIZE);
+
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterTime = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (Exception e) {
+                throw new BadRequestException("Invalid comment cursor");
+            }
+        }
+
+        CommentsDAO.ThreadRows rows;
+        try {
+            rows = commentsDAO.findThreadPage(taskId, afterTime, afterId, pageSize);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving comment thread: " + e.getMessage());
+        }
+
+        // Rows are ordered by depth, so every parent is already in the map when its replies arrive
+        Map<Long, CommentThread> byId = new HashMap<>();
+        List<CommentThread> roots = new ArrayList<>();
+        for (CommentThread node : rows.nodes) {
+            byId.put(node.getComment().getId(), node);
+            if (node.getDepth() == 0) {
+                roots.add(node);
+            } else {
+                byId.get(node.getComment().getParentCommentId()).getReplies().add(node);
+            }
+        }
+        // Deepest rows first, so each node's count is final before it is added to its parent
+        for (int i = rows.nodes.size() - 1; i >= 0; i--) {
+            CommentThread node = rows.nodes.get(i);
+            if (node.getDepth() > 0) {
+                CommentThread parent = byId.get(node.getComment().getParentCommentId());
+                parent.setReplyCount(parent.getReplyCount() + node.getReplyCount() + 1);
+            }
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", roots);
+        page.put("nextCursor", rows.hasMore ? encodeThreadCursor(roots.get(roots.size() - 1).getComment()) : null);
+        return page;
+    }
+
+    private String encodeThreadCursor(Comment comment) {
+        String raw = comment.getCreatedAt() + "|" + comment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
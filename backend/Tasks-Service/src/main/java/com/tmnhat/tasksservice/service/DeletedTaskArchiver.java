@@ -0,0 +1,57 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Periodically moves tasks that have been soft-deleted for longer than the retention window out
+// of the hot tasks table into tasks_archive, so tasks and its indexes only grow with live (and
+// recently deleted) data. Works in small batches with a pause in between to keep lock times and
+// WAL bursts short; restore and the deleted-task listing read both tables (see TasksDAO).
+// Rows that reference an archived task (comments, members, ...) are moved into its archive row and
+// come back with it on restore; tasks that still have subtasks wait for the subtasks.
+@Component
+public class DeletedTaskArchiver {
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Value("${tasks.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${tasks.archive.batch-size:200}")
+    private int batchSize;
+
+    @Value("${tasks.archive.batch-pause-ms:250}")
+    private long batchPauseMs;
+
+    // Upper bound per run; whatever is left is picked up by the next run
+    @Value("${tasks.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${tasks.archive.interval-ms:3600000}",
+               initialDelayString = "${tasks.archive.initial-delay-ms:300000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int archived = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int moved = tasksDAO.archiveDeletedTasks(cutoff, batchSize);
+                archived += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Task archival failed: " + e.getMessage());
+        }
+        if (archived > 0) {
+            System.out.println("Task archival: moved " + archived + " task(s) deleted before " + cutoff + " to tasks_archive");
+        }
+    }
+}
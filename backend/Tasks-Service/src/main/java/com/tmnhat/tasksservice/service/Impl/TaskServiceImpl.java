@@ -1,15 +1,38 @@
 package com.tmnhat.tasksservice.service.Impl;
 
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.ConflictException;
 import com.tmnhat.common.exception.DatabaseException;
 import com.tmnhat.common.exception.ResourceNotFoundException;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import com.tmnhat.tasksservice.model.AsyncJob;
+import com.tmnhat.tasksservice.model.TaskWithMembers;
 import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.payload.enums.JobType;
+import com.tmnhat.tasksservice.payload.enums.TaskEventType;
+import com.tmnhat.tasksservice.payload.enums.TaskPriority;
 import com.tmnhat.tasksservice.payload.enums.TaskStatus;
+import com.tmnhat.tasksservice.repository.ScanWatermarkDAO;
 import com.tmnhat.tasksservice.repository.TasksDAO;
+import com.tmnhat.tasksservice.service.AsyncJobService;
+import com.tmnhat.tasksservice.service.LocalEstimatorService;
+import com.tmnhat.tasksservice.service.TaskDependencyService;
+import com.tmnhat.tasksservice.service.TaskEventService;
+import com.tmnhat.tasksservice.service.TaskRankService;
 import com.tmnhat.tasksservice.service.TaskService;
+import com.tmnhat.tasksservice.service.TaskWriteCoalescer;
+import com.tmnhat.tasksservice.utils.EstimateCache;
+import com.tmnhat.tasksservice.utils.UserDisplayCache;
 import com.tmnhat.tasksservice.validation.TaskValidator;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -17,22 +40,73 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class TaskServiceImpl implements TaskService {
 
     private final TasksDAO tasksDAO = new TasksDAO();
 
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private TaskEventService taskEventService;
+
+    @Autowired
+    private UserDisplayCache userDisplayCache;
+
+    @Autowired
+    private TaskWriteCoalescer taskWriteCoalescer;
+
+    @Autowired
+    private TaskRankService taskRankService;
+
     @Override
     public void addTask(Tasks task) {
         try {
             TaskValidator.validateTask(task);
+            // New tasks go to the end of the project's manual order
+            task.setRank(taskRankService.appendRank(task.getProjectId()));
             tasksDAO.addTask(task);
+            taskDependencyService.onTaskAdded(task.getProjectId(), task.getId(), task.getStoryPoint());
+            taskEventService.record(task, TaskEventType.TASK_CREATED, task.getCreatedBy());
             
             // NOTE: Removed automatic notification sending - frontend will handle this
             System.out.println("🔄 Task created: " + task.getTitle() + " - Frontend should handle notification");
@@ -51,51 +125,141 @@ public class TaskServiceImpl implements TaskService {
         try {
             TaskValidator.validateTaskId(id);
             TaskValidator.validateTask(task);
-            Tasks existingTask = tasksDAO.getTaskById(id);
-            if (existingTask == null) {
-                throw new ResourceNotFoundException("Task not found with ID " + id);
+
+            // A full update writes every editable field; createdBy is kept when not given
+            Map<String, Object> columns = new LinkedHashMap<>();
+            columns.put("title", task.getTitle());
+            columns.put("description", task.getDescription());
+            columns.put("status", task.getStatus());
+            columns.put("story_point", task.getStoryPoint());
+            columns.put("assignee_id", task.getAssigneeId());
+            if (task.getCreatedBy() != null) {
+                columns.put("created_by", task.getCreatedBy());
             }
-            
-            // Check if status changed for notification (but don't send here - let frontend handle it)
-            boolean statusChanged = existingTask.getStatus() != task.getStatus();
-            TaskStatus oldStatus = existingTask.getStatus();
-            TaskStatus newStatus = task.getStatus();
-            
-            // Set the ID on the task object to ensure it's not null
+            columns.put("due_date", task.getDueDate());
+            columns.put("completed_at", task.getCompletedAt());
+            columns.put("parent_task_id", task.getParentTaskId());
+            columns.put("label", task.getLabel());
+            columns.put("priority", task.getPriority() != null ? task.getPriority() : TaskPriority.MEDIUM);
+
+            Tasks updated = applyUpdate(id, columns, task.getVersion(), actorUserId);
             task.setId(id);
-            
-            // Preserve essential fields from existing task if they're missing in the update
-            if (task.getProjectId() == null) {
-                task.setProjectId(existingTask.getProjectId());
-            }
-            if (task.getSprintId() == null) {
-                task.setSprintId(existingTask.getSprintId());
-            }
-            if (task.getCreatedAt() == null) {
-                task.setCreatedAt(existingTask.getCreatedAt());
-            }
-            // Preserve createdBy if not provided
-            if (task.getCreatedBy() == null) {
-                task.setCreatedBy(existingTask.getCreatedBy());
-            }
-            
-            // Update the task
-            tasksDAO.updateTask(id, task);
-            
-            // NOTE: Removed automatic notification sending - frontend will handle this
-            // Frontend will call notification API directly when needed
-            if (statusChanged) {
-                System.out.println("🔄 Task status changed from " + oldStatus + " to " + newStatus + 
-                                 " - Frontend should handle notification");
+            task.setVersion(updated.getVersion());
+        } catch (BadRequestException | ResourceNotFoundException | ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error updating task: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Tasks patchTask(UUID id, Map<String, Object> fields, Long expectedVersion, String actorUserId) {
+        try {
+            TaskValidator.validateTaskId(id);
+            Map<String, Object> columns = toUpdateColumns(fields);
+            if (columns.isEmpty()) {
+                throw new BadRequestException("No task fields to update");
             }
-            
+            return applyUpdate(id, columns, expectedVersion, actorUserId);
+        } catch (BadRequestException | ResourceNotFoundException | ConflictException e) {
+            throw e;
         } catch (Exception e) {
             throw new DatabaseException("Error updating task: " + e.getMessage());
         }
     }
 
+    // One conditional UPDATE; only when it writes nothing is the task read again, to tell a
+    // missing task (404) from a stale version (409)
+    private Tasks applyUpdate(UUID id, Map<String, Object> columns, Long expectedVersion, String actorUserId) throws SQLException {
+        // A queued status change of this task goes first, so it can't overwrite this update later
+        taskWriteCoalescer.flushTask(id);
+        TasksDAO.TaskUpdate update = tasksDAO.updateTask(id, columns, expectedVersion);
+        if (update == null) {
+            Long currentVersion = tasksDAO.getTaskVersion(id);
+            if (currentVersion == null) {
+                throw new ResourceNotFoundException("Task not found with ID " + id);
+            }
+            throw new ConflictException("Task was changed by someone else (version " + expectedVersion
+                    + " is stale, current version is " + currentVersion + "); reload it and retry");
+        }
+
+        Tasks updated = update.getTask();
+        taskDependencyService.onTaskUpdated(updated.getProjectId(), id, updated.getStoryPoint());
+        // Status, story point and sprint changes get their own events (the sprint burndown is
+        // built from them); any other edit is a plain TASK_UPDATED
+        UUID actorId = parseActorId(actorUserId);
+        boolean recorded = false;
+        if (update.getPreviousStatus() != updated.getStatus()) {
+            taskEventService.record(updated, TaskEventType.STATUS_CHANGED, actorId, update.getPreviousStatus(), updated.getStatus());
+            recorded = true;
+        }
+        if (update.getPreviousStoryPoint() != updated.getStoryPoint()) {
+            taskEventService.record(updated, TaskEventType.STORY_POINT_CHANGED, actorId, update.getPreviousStoryPoint(), updated.getStoryPoint());
+            recorded = true;
+        }
+        if (!Objects.equals(update.getPreviousSprintId(), updated.getSprintId())) {
+            taskEventService.record(updated, TaskEventType.SPRINT_CHANGED, actorId, update.getPreviousSprintId(), updated.getSprintId());
+            recorded = true;
+        }
+        if (!recorded) {
+            taskEventService.record(updated, TaskEventType.TASK_UPDATED, actorId);
+        }
+        return updated;
+    }
+
+    // Request fields (JSON names) of a partial update -> column values. Absent fields are left
+    // alone; read-only fields are ignored, unknown ones rejected.
+    private static Map<String, Object> toUpdateColumns(Map<String, Object> fields) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object value = field.getValue();
+            try {
+                switch (field.getKey()) {
+                    case "title" -> {
+                        if (value == null || value.toString().trim().isEmpty()) {
+                            throw new BadRequestException("Task title cannot be empty");
+                        }
+                        columns.put("title", value.toString());
+                    }
+                    case "description" -> columns.put("description", value != null ? value.toString() : null);
+                    case "label" -> columns.put("label", value != null ? value.toString() : null);
+                    case "status" -> {
+                        if (value == null) {
+                            throw new BadRequestException("Task status cannot be null");
+                        }
+                        columns.put("status", TaskStatus.valueOf(value.toString()));
+                    }
+                    case "priority" -> columns.put("priority", value != null ? TaskPriority.valueOf(value.toString()) : TaskPriority.MEDIUM);
+                    case "storyPoint" -> columns.put("story_point", value != null ? Integer.parseInt(value.toString()) : 0);
+                    case "assigneeId" -> columns.put("assignee_id", value != null ? UUID.fromString(value.toString()) : null);
+                    case "parentTaskId" -> columns.put("parent_task_id", value != null ? UUID.fromString(value.toString()) : null);
+                    case "sprintId" -> {
+                        if (value == null) {
+                            throw new BadRequestException("Sprint ID cannot be null");
+                        }
+                        columns.put("sprint_id", UUID.fromString(value.toString()));
+                    }
+                    case "dueDate" -> columns.put("due_date", value != null ? LocalDate.parse(value.toString()) : null);
+                    case "completedAt" -> columns.put("completed_at", value != null ? LocalDateTime.parse(value.toString()) : null);
+                    case "id", "projectId", "createdBy", "createdAt", "updatedAt", "deletedAt", "tags", "version", "rank" -> {
+                        // read-only here
+                    }
+                    default -> throw new BadRequestException("Unknown task field: " + field.getKey());
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid value for " + field.getKey() + ": " + value);
+            }
+        }
+        return columns;
+    }
+
     @Override
     public void deleteTask(UUID id) {
+        deleteTask(id, null);
+    }
+
+    @Override
+    public void deleteTask(UUID id, String actorUserId) {
         try {
             TaskValidator.validateTaskId(id);
             Tasks existingTask = tasksDAO.getTaskById(id);
@@ -109,6 +273,8 @@ public class TaskServiceImpl implements TaskService {
                              " - Frontend should handle TASK_DELETED notification");
             
             tasksDAO.deleteTask(id);
+            taskDependencyService.onTaskDeleted(existingTask.getProjectId(), id);
+            taskEventService.record(existingTask, TaskEventType.TASK_DELETED, parseActorId(actorUserId));
         } catch (Exception e) {
             throw new DatabaseException("Error deleting task: " + e.getMessage());
         }
@@ -122,16 +288,32 @@ public class TaskServiceImpl implements TaskService {
             if (task == null) {
                 throw new ResourceNotFoundException("Task not found with ID " + id);
             }
-            return task;
+            return taskWriteCoalescer.overlay(task);
         } catch (Exception e) {
             throw new DatabaseException("Error retrieving task: " + e.getMessage());
         }
     }
 
+    @Override
+    public Map<UUID, Tasks> getTasksByIds(Collection<UUID> ids) {
+        try {
+            Map<UUID, Tasks> tasks = new HashMap<>();
+            if (!ids.isEmpty()) {
+                for (Tasks task : taskWriteCoalescer.overlay(tasksDAO.getTasksByIds(ids))) {
+                    tasks.put(task.getId(), task);
+                }
+            }
+            return tasks;
+        } catch (Exception e) {
+            throw new DatabaseException("Error retrieving tasks: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Tasks> getTasksByStatusAndProjectAndSprint(String status, UUID projectId, UUID sprintId) {
         try {
-            return tasksDAO.getTasksByStatusAndProjectAndSprint(status, projectId, sprintId);
+            taskWriteCoalescer.flushPending();
+            return taskWriteCoalescer.overlay(tasksDAO.getTasksByStatusAndProjectAndSprint(status, projectId, sprintId));
         } catch (Exception e) {
             throw new RuntimeException("Failed to filter tasks", e);
         }
@@ -140,7 +322,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public List<Tasks> getAllTasks() {
         try {
-            return tasksDAO.getAllTasks();
+            return taskWriteCoalescer.overlay(tasksDAO.getAllTasks());
         } catch (Exception e) {
             throw new DatabaseException("Error retrieving tasks: " + e.getMessage());
         }
@@ -148,6 +330,11 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void assignTask(UUID taskId, UUID userId) {
+        assignTask(taskId, userId, null);
+    }
+
+    @Override
+    public void assignTask(UUID taskId, UUID userId, String actorUserId) {
         try {
             Tasks task = tasksDAO.getTaskById(taskId);
             if (task == null) {
@@ -155,6 +342,7 @@ public class TaskServiceImpl implements TaskService {
             }
             
             tasksDAO.assignTask(taskId, userId);
+            taskEventService.record(task, TaskEventType.TASK_ASSIGNED, parseActorId(actorUserId), task.getAssigneeId(), userId);
             
             // ✅ FIXED: Send notification to the assigned user (userId), not the one who assigned
             String projectName = getProjectName(task.getProjectId());
@@ -175,32 +363,49 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public void changeTaskStatus(UUID taskId, String status, String actorUserId) {
         try {
-            Tasks task = tasksDAO.getTaskById(taskId);
-            if (task == null) {
-                throw new ResourceNotFoundException("Task not found with ID " + taskId);
-            }
-            
-            // Store old status for logging
-            TaskStatus oldStatus = task.getStatus();
-            TaskStatus newStatus = TaskStatus.valueOf(status);
-            
-            // Update status in database
-            tasksDAO.changeTaskStatus(taskId, status);
-            
-
+            Tasks task = getTaskById(taskId);
+            changeTaskStatus(task, parseStatus(status), actorUserId);
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             throw new DatabaseException("Error changing task status: " + e.getMessage());
         }
     }
 
+    // Queued in the write coalescer: acknowledged now, written together with the other changes
+    // of the same short window; the task (already read by the caller) supplies the old status
+    @Override
+    public void changeTaskStatus(Tasks task, TaskStatus status, String actorUserId) {
+        taskWriteCoalescer.changeStatus(task, status, parseActorId(actorUserId));
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Invalid task status: " + status);
+        }
+    }
+
     @Override
     public void updateStoryPoint(UUID taskId, int storyPoint) {
+        updateStoryPoint(taskId, storyPoint, null);
+    }
+
+    @Override
+    public void updateStoryPoint(UUID taskId, int storyPoint, String actorUserId) {
         try {
             Tasks task = tasksDAO.getTaskById(taskId);
             if (task == null) {
                 throw new ResourceNotFoundException("Task not found with ID " + taskId);
             }
-            tasksDAO.updateStoryPoint(taskId, storyPoint);
+            // The event's from value is the one the update replaced, not the one read above
+            Integer previous = tasksDAO.updateStoryPoint(taskId, storyPoint);
+            if (previous == null) {
+                throw new ResourceNotFoundException("Task not found with ID " + taskId);
+            }
+            taskDependencyService.onTaskUpdated(task.getProjectId(), taskId, storyPoint);
+            taskEventService.record(task, TaskEventType.STORY_POINT_CHANGED, parseActorId(actorUserId), previous, storyPoint);
         } catch (Exception e) {
             throw new DatabaseException("Error updating story point: " + e.getMessage());
         }
@@ -208,13 +413,22 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void addSubtask(UUID parentTaskId, Tasks subtask) {
+        addSubtask(parentTaskId, subtask, null);
+    }
+
+    @Override
+    public void addSubtask(UUID parentTaskId, Tasks subtask, String actorUserId) {
         try {
             Tasks parentTask = tasksDAO.getTaskById(parentTaskId);
             if (parentTask == null) {
                 throw new ResourceNotFoundException("Parent Task not found with ID " + parentTaskId);
             }
             subtask.setParentTaskId(parentTaskId);
+            subtask.setRank(taskRankService.appendRank(subtask.getProjectId()));
             tasksDAO.addTask(subtask);
+            taskDependencyService.onTaskAdded(subtask.getProjectId(), subtask.getId(), subtask.getStoryPoint());
+            UUID actorId = parseActorId(actorUserId);
+            taskEventService.record(parentTask, TaskEventType.SUBTASK_ADDED, actorId != null ? actorId : subtask.getCreatedBy(), null, subtask.getId());
         } catch (Exception e) {
             throw new DatabaseException("Error adding subtask: " + e.getMessage());
         }
@@ -222,18 +436,43 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void linkTasks(UUID taskId, UUID relatedTaskId) {
+        linkTasks(taskId, relatedTaskId, null);
+    }
+
+    @Override
+    public void linkTasks(UUID taskId, UUID relatedTaskId, String actorUserId) {
         try {
-            // Nếu  có bảng task_relations
-            tasksDAO.linkTasks(taskId, relatedTaskId);
+            taskDependencyService.linkTasks(taskId, relatedTaskId);
+            taskEventService.record(tasksDAO.getTaskById(taskId), TaskEventType.TASK_LINKED, parseActorId(actorUserId), null, relatedTaskId);
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new DatabaseException("Error linking tasks: " + e.getMessage());
         }
     }
 
+    @Override
+    public void unlinkTasks(UUID taskId, UUID relatedTaskId) {
+        unlinkTasks(taskId, relatedTaskId, null);
+    }
+
+    @Override
+    public void unlinkTasks(UUID taskId, UUID relatedTaskId, String actorUserId) {
+        try {
+            taskDependencyService.unlinkTasks(taskId, relatedTaskId);
+            taskEventService.record(tasksDAO.getTaskById(taskId), TaskEventType.TASK_UNLINKED, parseActorId(actorUserId), relatedTaskId, null);
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error unlinking tasks: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Tasks> filterTasks(String status, UUID assigneeId) {
         try {
-            return tasksDAO.filterTasks(status, assigneeId);
+            taskWriteCoalescer.flushPending();
+            return taskWriteCoalescer.overlay(tasksDAO.filterTasks(status, assigneeId));
         } catch (Exception e) {
             throw new DatabaseException("Error filtering tasks: " + e.getMessage());
         }
@@ -242,7 +481,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public List<Tasks> searchTasks(String keyword) {
         try {
-            return tasksDAO.searchTasks(keyword);
+            return taskWriteCoalescer.overlay(tasksDAO.searchTasks(keyword));
         } catch (Exception e) {
             throw new DatabaseException("Error searching tasks: " + e.getMessage());
         }
@@ -251,7 +490,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public List<Tasks> getTasksBySprintId(UUID sprintId) {
         try {
-            return tasksDAO.getTasksBySprintId(sprintId);
+            return taskWriteCoalescer.overlay(tasksDAO.getTasksBySprintId(sprintId));
         } catch (Exception e) {
             throw new DatabaseException("Error retrieving tasks by sprint: " + e.getMessage());
         }
@@ -268,6 +507,11 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void commentOnTask(UUID taskId, String comment) {
+        commentOnTask(taskId, comment, null);
+    }
+
+    @Override
+    public void commentOnTask(UUID taskId, String comment, String actorUserId) {
         try {
             Tasks task = tasksDAO.getTaskById(taskId);
             if (task == null) {
@@ -275,6 +519,7 @@ public class TaskServiceImpl implements TaskService {
             }
             
             tasksDAO.addCommentToTask(taskId, comment);
+            taskEventService.record(task, TaskEventType.COMMENT_ADDED, parseActorId(actorUserId));
             
             // Send notification to assigned user about new comment
             if (task.getAssigneeId() != null) {
@@ -291,6 +536,11 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void attachFileToTask(UUID taskId, MultipartFile file) {
+        attachFileToTask(taskId, file, null);
+    }
+
+    @Override
+    public void attachFileToTask(UUID taskId, MultipartFile file, String actorUserId) {
         try {
             Tasks task = tasksDAO.getTaskById(taskId);
             if (task == null) {
@@ -298,6 +548,7 @@ public class TaskServiceImpl implements TaskService {
             }
             
             tasksDAO.attachFileToTask(taskId, file);
+            taskEventService.record(task, TaskEventType.FILE_ATTACHED, parseActorId(actorUserId), null, file.getOriginalFilename());
             
             // Send notification about file attachment
             if (task.getAssigneeId() != null) {
@@ -316,6 +567,11 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void addMemberToTask(UUID taskId, UUID userId) {
+        addMemberToTask(taskId, userId, null);
+    }
+
+    @Override
+    public void addMemberToTask(UUID taskId, UUID userId, String actorUserId) {
         try {
             Tasks task = tasksDAO.getTaskById(taskId);
             if (task == null) {
@@ -323,6 +579,7 @@ public class TaskServiceImpl implements TaskService {
             }
             
             tasksDAO.addMemberToTask(taskId, userId);
+            taskEventService.record(task, TaskEventType.MEMBER_ADDED, parseActorId(actorUserId), null, userId);
             
             // Send notification to new member
             String projectName = getProjectName(task.getProjectId());
@@ -337,8 +594,14 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public void removeMemberFromTask(UUID taskId, UUID userId) {
+        removeMemberFromTask(taskId, userId, null);
+    }
+
+    @Override
+    public void removeMemberFromTask(UUID taskId, UUID userId, String actorUserId) {
         try {
             tasksDAO.removeMemberFromTask(taskId, userId);
+            taskEventService.record(tasksDAO.getTaskById(taskId), TaskEventType.MEMBER_REMOVED, parseActorId(actorUserId), userId, null);
         } catch (Exception e) {
             throw new DatabaseException("Error removing member from task: " + e.getMessage());
         }
@@ -353,10 +616,40 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    // Members of every task with display info: one query for all memberships, user info from
+    // UserDisplayCache (itself one query for whatever is not cached)
+    @Override
+    public List<TaskWithMembers> withMembers(List<Tasks> tasks) {
+        try {
+            List<UUID> taskIds = new ArrayList<>(tasks.size());
+            for (Tasks task : tasks) {
+                taskIds.add(task.getId());
+            }
+            Map<UUID, List<UUID>> membersByTask = taskIds.isEmpty() ? new HashMap<>() : tasksDAO.getTaskMembersByTaskIds(taskIds);
+            Set<UUID> userIds = new HashSet<>();
+            for (List<UUID> members : membersByTask.values()) {
+                userIds.addAll(members);
+            }
+            Map<UUID, Map<String, Object>> users = userDisplayCache.getAll(userIds);
+
+            List<TaskWithMembers> result = new ArrayList<>(tasks.size());
+            for (Tasks task : tasks) {
+                List<Map<String, Object>> members = new ArrayList<>();
+                for (UUID userId : membersByTask.getOrDefault(task.getId(), List.of())) {
+                    members.add(users.getOrDefault(userId, Map.of("id", userId)));
+                }
+                result.add(new TaskWithMembers(task, members));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new DatabaseException("Error retrieving task members: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Tasks> getTasksByProjectId(UUID projectId) {
         try {
-            return tasksDAO.getTasksByProjectId(projectId);
+            return taskWriteCoalescer.overlay(tasksDAO.getTasksByProjectId(projectId));
         } catch (Exception e) {
             throw new RuntimeException("Failed to get tasks by projectId", e);
         }
@@ -365,16 +658,18 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public List<Tasks> getTasksByProjectIdSorted(UUID projectId, String sortBy, String sortOrder) {
         try {
-            return tasksDAO.getTasksByProjectIdSorted(projectId, sortBy, sortOrder);
+            return taskWriteCoalescer.overlay(tasksDAO.getTasksByProjectIdSorted(projectId, sortBy, sortOrder));
         } catch (Exception e) {
             throw new RuntimeException("Failed to get sorted tasks by projectId", e);
         }
     }
 
     @Override
-    public List<Object> getProjectActivity(UUID projectId) {
+    public Map<String, Object> getProjectActivity(UUID projectId, String cursor, Integer limit) {
         try {
-            return tasksDAO.getProjectActivity(projectId);
+            return taskEventService.getProjectActivity(projectId, cursor, limit);
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             throw new DatabaseException("Error retrieving project activity: " + e.getMessage());
         }
@@ -388,8 +683,11 @@ public class TaskServiceImpl implements TaskService {
                                                   String endDate, String sprintId) {
         try {
             TaskValidator.validateProjectId(projectId);
-            return tasksDAO.getFilteredTasksForCalendar(projectId, search, assigneeIds, 
-                                                       types, statuses, startDate, endDate, sprintId);
+            if (statuses != null && !statuses.isEmpty()) {
+                taskWriteCoalescer.flushPending();
+            }
+            return taskWriteCoalescer.overlay(tasksDAO.getFilteredTasksForCalendar(projectId, search, assigneeIds, 
+                                                       types, statuses, startDate, endDate, sprintId));
         } catch (Exception e) {
             throw new DatabaseException("Error filtering tasks for calendar: " + e.getMessage());
         }
@@ -425,12 +723,101 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
-    // AI Service Configuration
-    private static final String AI_SERVICE_URL = System.getenv().getOrDefault("AI_SERVICE_URL", "http://ai-service:8088");
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Shared pooled clients; AI calls use the long read timeout
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("longRunningRestTemplate")
+    private RestTemplate aiRestTemplate;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Autowired
+    private AsyncJobService asyncJobService;
+
+    @Autowired
+    private EstimateCache estimateCache;
+
+    @Autowired
+    private LocalEstimatorService localEstimatorService;
+
+    // off | fallback (when the AI service fails or is slow) | primary (AI service only when the local index cannot answer)
+    @Value("${ai.local-estimator.mode:fallback}")
+    private String localEstimatorMode;
+
+    @Value("${ai.local-estimator.remote-deadline-ms:3000}")
+    private long remoteDeadlineMs;
+
+    private static final String LOCAL_PRIMARY = "primary";
+    private static final String LOCAL_FALLBACK = "fallback";
+
+    @Autowired
+    private ScanWatermarkDAO scanWatermarkDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Training data is streamed with the shared JDK client (RestTemplate would buffer the body)
+    @Autowired
+    private HttpClient serviceHttpClient;
+
+    @Value("${services.http.long-read-timeout-ms:300000}")
+    private long longReadTimeoutMs;
+
+    // Rows per fetch from the training data cursor
+    @Value("${ai.training.fetch-size:500}")
+    private int trainingFetchSize;
+
+    static final String TRAINING_WATERMARK = "ai.training.updated_at";
+    private static final long TRAINING_OVERLAP_MINUTES = 1;
+
+    // Bulk estimation: tasks per /estimate/batch request and batches in flight at once
+    @Value("${ai.estimate.batch-size:25}")
+    private int estimateBatchSize;
+
+    @Value("${ai.estimate.concurrency:3}")
+    private int estimateConcurrency;
+
+    // Remote calls of single estimates in fallback mode; kept apart from the bulk pool so a
+    // user's estimate never queues behind a bulk job's chunks
+    @Value("${ai.local-estimator.remote-threads:4}")
+    private int singleEstimateThreads;
+
+    private ExecutorService estimateExecutor;
+    private ExecutorService singleEstimateExecutor;
+
+    @PostConstruct
+    void startEstimateExecutor() {
+        estimateExecutor = Executors.newFixedThreadPool(Math.max(1, estimateConcurrency), r -> {
+            Thread thread = new Thread(r, "ai-estimate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        singleEstimateExecutor = Executors.newFixedThreadPool(Math.max(1, singleEstimateThreads), r -> {
+            Thread thread = new Thread(r, "ai-estimate-single");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopEstimateExecutor() {
+        estimateExecutor.shutdownNow();
+        singleEstimateExecutor.shutdownNow();
+    }
 
     @Override
     public Object estimateStoryPoints(UUID taskId) {
+        return estimateStoryPoints(taskId, null);
+    }
+
+    @Override
+    public Object estimateStoryPoints(UUID taskId, String actorUserId) {
         try {
             // Get task details
             Tasks task = tasksDAO.getTaskById(taskId);
@@ -438,44 +825,33 @@ public class TaskServiceImpl implements TaskService {
                 throw new ResourceNotFoundException("Task not found with ID " + taskId);
             }
 
-            // Prepare request for AI service - send fields directly without "task" wrapper
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("title", task.getTitle());
-            requestBody.put("description", task.getDescription() != null ? task.getDescription() : "");
-            requestBody.put("label", ""); // Default empty label
-            requestBody.put("priority", task.getPriority() != null ? task.getPriority() : "MEDIUM");
-            requestBody.put("attachments_count", 0); // Default 0 attachments
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Call AI service
-            ResponseEntity<Map> response = restTemplate.exchange(
-                AI_SERVICE_URL + "/estimate",
-                HttpMethod.POST,
-                entity,
-                Map.class
-            );
+            // Unchanged content is answered from the estimate cache without calling the AI service
+            Map<String, Object> request = buildEstimateRequest(task);
+            String contentHash = EstimateCache.contentHash(request);
+            Map<String, Object> aiResponse = estimateCache.get(contentHash);
+            boolean cached = aiResponse != null;
+            if (!cached) {
+                aiResponse = estimateSingle(contentHash, request);
+            }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> aiResponse = response.getBody();
-                
-                // Update task with AI estimation
-                Integer estimatedPoints = (Integer) aiResponse.get("estimated_story_points");
-                if (estimatedPoints != null && estimatedPoints.intValue() > 0) {
-                    tasksDAO.updateStoryPoint(taskId, estimatedPoints);
+            // Update task with AI estimation
+            Integer estimatedPoints = (Integer) aiResponse.get("estimated_story_points");
+            if (estimatedPoints != null && estimatedPoints.intValue() > 0) {
+                // Null if the task was deleted while it was being estimated
+                Integer previous = tasksDAO.updateStoryPoint(taskId, estimatedPoints);
+                if (previous != null) {
+                    taskDependencyService.onTaskUpdated(task.getProjectId(), taskId, estimatedPoints);
+                    taskEventService.record(task, TaskEventType.STORY_POINT_CHANGED, parseActorId(actorUserId), previous, estimatedPoints);
                 }
-
-                // Return response with success flag
-                Map<String, Object> result = new HashMap<>();
-                result.put("success", true);
-                result.put("data", aiResponse);
-                return result;
-            } else {
-                throw new RuntimeException("AI service returned error");
             }
 
+            // Return response with success flag
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("data", aiResponse);
+            result.put("cached", cached);
+            return result;
+
         } catch (Exception e) {
             // Return error response in consistent format
             Map<String, Object> errorResult = new HashMap<>();
@@ -487,47 +863,48 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     public Object trainAIModel() {
+        return trainAIModel(false);
+    }
+
+    // Incremental by default: only tasks changed since the last successful training are sent.
+    // The first run (or fullRetrain) sends every trainable task and replaces the AI training set.
+    @Override
+    public Object trainAIModel(boolean fullRetrain) {
         try {
-            // Get all tasks from database for training
-            List<Tasks> allTasks = tasksDAO.getAllTasks();
-            
-            // Prepare training data
-            Map<String, Object> requestBody = new HashMap<>();
-            List<Map<String, Object>> tasks = new ArrayList<>();
-            
-            for (Tasks task : allTasks) {
-                if (task.getStoryPoint() > 0) {
-                    Map<String, Object> taskData = new HashMap<>();
-                    taskData.put("title", task.getTitle());
-                    taskData.put("description", task.getDescription() != null ? task.getDescription() : "");
-                    taskData.put("storyPoint", task.getStoryPoint());
-                    tasks.add(taskData);
-                }
-            }
-            
-            requestBody.put("tasks", tasks);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Call AI service
-            ResponseEntity<Map> response = restTemplate.exchange(
-                AI_SERVICE_URL + "/train",
-                HttpMethod.POST,
-                entity,
-                Map.class
+            LocalDateTime changedSince = fullRetrain ? null : scanWatermarkDAO.getWatermark(TRAINING_WATERMARK);
+            LocalDateTime startedAt = LocalDateTime.now();
+
+            // Call AI service (fails fast while the AI breaker is open)
+            Map<String, Object> aiResponse = resilienceRegistry.guard(ResilienceRegistry.AI_SERVICE).call(
+                () -> streamTrainingData(changedSince),
+                () -> { throw new RuntimeException("AI service unavailable"); }
             );
+            if (aiResponse == null) {
+                // The AI service lost its stored training set, so the changes alone would replace
+                // it: start over from the beginning with every task
+                scanWatermarkDAO.clearWatermark(TRAINING_WATERMARK);
+                aiResponse = resilienceRegistry.guard(ResilienceRegistry.AI_SERVICE).call(
+                    () -> streamTrainingData(null),
+                    () -> { throw new RuntimeException("AI service unavailable"); }
+                );
+            }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> result = new HashMap<>();
-                result.put("success", true);
-                result.put("data", response.getBody());
-                return result;
-            } else {
-                throw new RuntimeException("AI service training failed");
+            // Estimates of the previous model are no longer valid
+            Object modelVersion = aiResponse != null ? aiResponse.get("model_version") : null;
+            if (modelVersion != null) {
+                estimateCache.observeModelVersion(modelVersion.toString());
             }
 
+            // Rows updated while the stream ran are sent again next time (upserts are idempotent)
+            scanWatermarkDAO.setWatermark(TRAINING_WATERMARK, startedAt.minusMinutes(TRAINING_OVERLAP_MINUTES));
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("mode", aiResponse != null && aiResponse.get("mode") != null ? aiResponse.get("mode")
+                    : changedSince == null ? "full" : "incremental");
+            result.put("data", aiResponse);
+            return result;
+
         } catch (Exception e) {
             Map<String, Object> errorResult = new HashMap<>();
             errorResult.put("success", false);
@@ -536,51 +913,176 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    // Posts training rows to /train/stream as NDJSON while they are read from the DB cursor.
+    // The body goes through a pipe that the HTTP client drains, so neither side holds the
+    // whole data set; the last line {"end": true, "count": n} lets the AI service reject a
+    // stream that was cut off. Returns null if an incremental stream was rejected because the AI
+    // service has no stored training set to apply it to (HTTP 409).
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> streamTrainingData(LocalDateTime changedSince) {
+        String mode = changedSince == null ? "full" : "incremental";
+        try {
+            PipedInputStream body = new PipedInputStream(64 * 1024);
+            PipedOutputStream pipe = new PipedOutputStream(body);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(serviceUrls.getAiServiceUrl() + "/train/stream?mode=" + mode))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .timeout(Duration.ofMillis(longReadTimeoutMs))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(() -> body))
+                    .build();
+            CompletableFuture<HttpResponse<String>> pending = serviceHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            // If the request ends early (refused, rejected) the writer must not block on a full pipe
+            pending.whenComplete((response, error) -> {
+                try {
+                    body.close();
+                } catch (IOException ignored) {
+                }
+            });
+
+            int[] count = {0};
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(pipe, StandardCharsets.UTF_8))) {
+                tasksDAO.streamTrainingTasks(changedSince, trainingFetchSize, task -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("id", task.getId());
+                    if (task.getDeletedAt() != null || task.getStoryPoint() <= 0) {
+                        row.put("deleted", true);
+                    } else {
+                        row.put("title", task.getTitle());
+                        row.put("description", task.getDescription() != null ? task.getDescription() : "");
+                        row.put("storyPoint", task.getStoryPoint());
+                        row.put("priority", task.getPriority() != null ? task.getPriority().name() : null);
+                        row.put("task_type", task.getLabel());
+                    }
+                    try {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+                writer.write("{\"end\":true,\"count\":" + count[0] + "}\n");
+            } catch (IOException | UncheckedIOException e) {
+                // Pipe closed because the request already finished; its outcome is reported below
+                if (!pending.isDone()) {
+                    throw e;
+                }
+            }
+
+            HttpResponse<String> response = pending.get();
+            if (changedSince != null && response.statusCode() == 409) {
+                return null;
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new RuntimeException("AI service training failed (HTTP " + response.statusCode() + "): " + response.body());
+            }
+            return objectMapper.readValue(response.body(), Map.class);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public Object bulkEstimateStoryPoints(UUID projectId) {
+        return bulkEstimateStoryPoints(projectId, AsyncJobService.JobContext.NONE);
+    }
+
+    @Override
+    public Object bulkEstimateStoryPoints(UUID projectId, AsyncJobService.JobContext context) {
+        return bulkEstimateStoryPoints(projectId, context, null);
+    }
+
+    // actorId: who started the estimate, recorded on the STORY_POINT_CHANGED events
+    private Object bulkEstimateStoryPoints(UUID projectId, AsyncJobService.JobContext context, UUID actorId) {
         try {
-            // Get all tasks for the project
+            // Get all tasks for the project; only tasks without story points are estimated
             List<Tasks> projectTasks = tasksDAO.getTasksByProjectId(projectId);
+            List<Tasks> pending = new ArrayList<>();
+            for (Tasks task : projectTasks) {
+                if (task.getStoryPoint() <= 0) {
+                    pending.add(task);
+                }
+            }
+
+            // One AI request per chunk, at most ai.estimate.concurrency chunks in flight
+            int batchSize = Math.max(1, estimateBatchSize);
+            List<Future<List<Map<String, Object>>>> chunks = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<Tasks> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                chunks.add(estimateExecutor.submit(() -> estimateChunk(chunk)));
+            }
+            // On cancel, chunks not started yet are dropped and the finished ones are still saved
+            List<Map<String, Object>> estimates = new ArrayList<>(pending.size());
+            context.reportProgress(0, pending.size());
+            for (Future<List<Map<String, Object>>> chunk : chunks) {
+                if (context.isCancelled()) {
+                    chunk.cancel(false);
+                    continue;
+                }
+                estimates.addAll(chunk.get());
+                context.reportProgress(estimates.size(), pending.size());
+            }
+
             List<Map<String, Object>> results = new ArrayList<>();
+            Map<UUID, Integer> newPoints = new LinkedHashMap<>();
+            List<Tasks> estimatedTasks = new ArrayList<>();
             int successCount = 0;
             int failCount = 0;
 
-            for (Tasks task : projectTasks) {
-                try {
-                    // Skip tasks that already have story points
-                    if (task.getStoryPoint() > 0) {
-                        continue;
-                    }
+            for (int i = 0; i < estimates.size(); i++) {
+                Tasks task = pending.get(i);
+                Map<String, Object> estimate = estimates.get(i);
 
-                    Object estimationResult = estimateStoryPoints(task.getId());
-                    Map<String, Object> taskResult = new HashMap<>();
-                    taskResult.put("taskId", task.getId());
-                    taskResult.put("title", task.getTitle());
-                    taskResult.put("result", estimationResult);
-                    
-                    if (estimationResult instanceof Map && ((Map<?, ?>) estimationResult).get("success").equals(true)) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
-                    
-                    results.add(taskResult);
-                } catch (Exception e) {
+                Map<String, Object> estimationResult = new HashMap<>();
+                if (estimate.get("error") != null) {
                     failCount++;
-                    Map<String, Object> taskResult = new HashMap<>();
-                    taskResult.put("taskId", task.getId());
-                    taskResult.put("title", task.getTitle());
-                    taskResult.put("error", e.getMessage());
-                    results.add(taskResult);
+                    estimationResult.put("success", false);
+                    estimationResult.put("error", "AI estimation failed: " + estimate.get("error"));
+                } else {
+                    successCount++;
+                    estimationResult.put("success", true);
+                    estimationResult.put("data", estimate);
+                    Object points = estimate.get("estimated_story_points");
+                    if (points instanceof Number && ((Number) points).intValue() > 0) {
+                        newPoints.put(task.getId(), ((Number) points).intValue());
+                        estimatedTasks.add(task);
+                    }
                 }
+
+                Map<String, Object> taskResult = new HashMap<>();
+                taskResult.put("taskId", task.getId());
+                taskResult.put("title", task.getTitle());
+                taskResult.put("result", estimationResult);
+                results.add(taskResult);
             }
 
+            // Persist every estimate with a single UPDATE, then events in one batch for the tasks
+            // actually written (points set by hand or tasks deleted meanwhile are left alone)
+            Map<UUID, Integer> written = tasksDAO.updateStoryPoints(newPoints);
+            List<Tasks> writtenTasks = new ArrayList<>(written.size());
+            List<Integer> oldPoints = new ArrayList<>(written.size());
+            List<Integer> writtenPoints = new ArrayList<>(written.size());
+            for (Tasks task : estimatedTasks) {
+                if (!written.containsKey(task.getId())) {
+                    continue;
+                }
+                taskDependencyService.onTaskUpdated(task.getProjectId(), task.getId(), newPoints.get(task.getId()));
+                writtenTasks.add(task);
+                oldPoints.add(written.get(task.getId()));
+                writtenPoints.add(newPoints.get(task.getId()));
+            }
+            taskEventService.recordAll(writtenTasks, TaskEventType.STORY_POINT_CHANGED, actorId,
+                    oldPoints, writtenPoints);
+
             Map<String, Object> bulkResult = new HashMap<>();
             bulkResult.put("success", true);
             bulkResult.put("totalTasks", projectTasks.size());
             bulkResult.put("successCount", successCount);
             bulkResult.put("failCount", failCount);
             bulkResult.put("results", results);
+            bulkResult.put("cancelled", context.isCancelled());
             return bulkResult;
 
         } catch (Exception e) {
@@ -591,14 +1093,198 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    @Override
+    public AsyncJob startTrainAIModelJob(String actorUserId, boolean fullRetrain) {
+        return asyncJobService.submit(JobType.TRAIN_AI_MODEL, null, parseActorId(actorUserId), context -> {
+            context.reportProgress(0, 1);
+            Object result = requireSuccess(trainAIModel(fullRetrain));
+            context.reportProgress(1, 1);
+            return result;
+        });
+    }
+
+    @Override
+    public AsyncJob startBulkEstimateJob(UUID projectId, String actorUserId) {
+        UUID actorId = parseActorId(actorUserId);
+        return asyncJobService.submit(JobType.BULK_ESTIMATE, projectId, actorId,
+                context -> requireSuccess(bulkEstimateStoryPoints(projectId, context, actorId)));
+    }
+
+    // The AI operations report failure as {"success": false, "error": ...}; a job must fail instead
+    private Object requireSuccess(Object result) {
+        if (result instanceof Map && Boolean.FALSE.equals(((Map<?, ?>) result).get("success"))) {
+            throw new RuntimeException(String.valueOf(((Map<?, ?>) result).get("error")));
+        }
+        return result;
+    }
+
+    // Estimates one chunk: cached content is answered from the estimate cache and only the
+    // distinct misses go to the AI service. Returns one entry per task, in order: the AI
+    // response, or a map with "error". Never throws.
+    private List<Map<String, Object>> estimateChunk(List<Tasks> chunk) {
+        List<String> hashes = new ArrayList<>(chunk.size());
+        Map<String, Map<String, Object>> misses = new LinkedHashMap<>();
+        for (Tasks task : chunk) {
+            Map<String, Object> request = buildEstimateRequest(task);
+            String contentHash = EstimateCache.contentHash(request);
+            hashes.add(contentHash);
+            misses.put(contentHash, request);
+        }
+
+        Map<String, Map<String, Object>> estimates = new HashMap<>(estimateCache.getAll(hashes));
+        misses.keySet().removeAll(estimates.keySet());
+        if (LOCAL_PRIMARY.equals(localEstimatorMode)) {
+            for (Map.Entry<String, Map<String, Object>> miss : misses.entrySet()) {
+                Map<String, Object> local = localEstimatorService.estimate(miss.getValue());
+                if (local != null) {
+                    estimates.put(miss.getKey(), local);
+                }
+            }
+            misses.keySet().removeAll(estimates.keySet());
+        }
+        if (!misses.isEmpty()) {
+            estimates.putAll(requestEstimates(misses));
+        }
+        if (LOCAL_FALLBACK.equals(localEstimatorMode)) {
+            for (Map.Entry<String, Map<String, Object>> miss : misses.entrySet()) {
+                if (estimates.get(miss.getKey()).get("error") != null) {
+                    Map<String, Object> local = localEstimatorService.estimate(miss.getValue());
+                    if (local != null) {
+                        estimates.put(miss.getKey(), local);
+                    }
+                }
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(chunk.size());
+        for (String contentHash : hashes) {
+            results.add(estimates.get(contentHash));
+        }
+        return results;
+    }
+
+    // One estimate that is not cached. mode=primary answers locally when it can; mode=fallback
+    // waits for the AI service at most ai.local-estimator.remote-deadline-ms and answers locally
+    // after that or on failure (a late remote answer still goes into the estimate cache).
+    private Map<String, Object> estimateSingle(String contentHash, Map<String, Object> request) throws Exception {
+        if (LOCAL_PRIMARY.equals(localEstimatorMode)) {
+            Map<String, Object> local = localEstimatorService.estimate(request);
+            if (local != null) {
+                return local;
+            }
+        }
+        if (!LOCAL_FALLBACK.equals(localEstimatorMode)) {
+            // Call AI service (fails fast while the AI breaker is open)
+            Map<String, Object> response = postToAiService("/estimate", request);
+            estimateCache.put(contentHash, response);
+            return response;
+        }
+
+        CompletableFuture<Map<String, Object>> remote = CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = postToAiService("/estimate", request);
+            estimateCache.put(contentHash, response);
+            return response;
+        }, singleEstimateExecutor);
+        try {
+            return remote.get(remoteDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            Map<String, Object> local = localEstimatorService.estimate(request);
+            if (local != null) {
+                return local;
+            }
+            if (e instanceof TimeoutException) {
+                // Nothing to answer locally: keep waiting for the AI service
+                return remote.get();
+            }
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // One /estimate/batch call for the given requests (keyed by content hash); successful
+    // responses are added to the estimate cache. Failures are returned per entry. Never throws.
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> requestEstimates(Map<String, Map<String, Object>> requests) {
+        List<String> hashes = new ArrayList<>(requests.keySet());
+        Map<String, Map<String, Object>> estimates = new HashMap<>();
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("tasks", new ArrayList<>(requests.values()));
+            Map<String, Object> response = postToAiService("/estimate/batch", body);
+            Object results = response.get("results");
+            if (!(results instanceof List) || ((List<?>) results).size() != hashes.size()) {
+                throw new RuntimeException("AI service returned an incomplete batch");
+            }
+            for (int i = 0; i < hashes.size(); i++) {
+                estimates.put(hashes.get(i), ((List<Map<String, Object>>) results).get(i));
+            }
+            estimateCache.putAll(estimates, (String) response.get("model_version"));
+        } catch (HttpClientErrorException.NotFound e) {
+            // AI service without the batch endpoint: fall back to one call per task
+            for (String contentHash : hashes) {
+                try {
+                    Map<String, Object> response = postToAiService("/estimate", requests.get(contentHash));
+                    estimates.put(contentHash, response);
+                    estimateCache.put(contentHash, response);
+                } catch (Exception ex) {
+                    estimates.put(contentHash, Map.of("error", String.valueOf(ex.getMessage())));
+                }
+            }
+        } catch (Exception e) {
+            for (String contentHash : hashes) {
+                estimates.put(contentHash, Map.of("error", String.valueOf(e.getMessage())));
+            }
+        }
+        return estimates;
+    }
+
+    // Request body of /estimate - fields are sent directly without a "task" wrapper
+    private Map<String, Object> buildEstimateRequest(Tasks task) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("title", task.getTitle());
+        requestBody.put("description", task.getDescription() != null ? task.getDescription() : "");
+        requestBody.put("label", ""); // Default empty label
+        requestBody.put("priority", task.getPriority() != null ? task.getPriority() : "MEDIUM");
+        requestBody.put("attachments_count", 0); // Default 0 attachments
+        return requestBody;
+    }
+
+    // POSTs JSON to the AI service through its bulkhead/breaker (fails fast while the breaker is open)
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> postToAiService(String path, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Object> entity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<Map> response = resilienceRegistry.guard(ResilienceRegistry.AI_SERVICE).call(
+            () -> aiRestTemplate.exchange(serviceUrls.getAiServiceUrl() + path, HttpMethod.POST, entity, Map.class),
+            () -> { throw new RuntimeException("AI service unavailable"); }
+        );
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("AI service returned error");
+        }
+        return response.getBody();
+    }
+
+    // Actor ids arrive as optional header strings
+    private UUID parseActorId(String actorUserId) {
+        try {
+            return actorUserId != null ? UUID.fromString(actorUserId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     // Helper method to get project name (you might need to implement this)
     private String getProjectName(UUID projectId) {
         try {
             // Call Projects Service to get project name
-            String url = "http://localhost:8086/api/projects/" + projectId;
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            String url = serviceUrls.getProjectsServiceUrl() + "/api/projects/" + projectId;
+            ResponseEntity<Map> response = resilienceRegistry.guard(ResilienceRegistry.PROJECTS_SERVICE).call(
+                () -> restTemplate.getForEntity(url, Map.class),
+                () -> null
+            );
             
-            if (response.getBody() != null && response.getBody().get("data") != null) {
+            if (response != null && response.getBody() != null && response.getBody().get("data") != null) {
                 Map<String, Object> projectData = (Map<String, Object>) response.getBody().get("data");
                 return (String) projectData.get("name");
             }
@@ -638,6 +1324,11 @@ public class TaskServiceImpl implements TaskService {
     // ✅ NEW: Task restore methods implementation
     @Override
     public void restoreTask(UUID taskId) {
+        restoreTask(taskId, null);
+    }
+
+    @Override
+    public void restoreTask(UUID taskId, String actorUserId) {
         try {
             TaskValidator.validateTaskId(taskId);
             Tasks existingTask = tasksDAO.getTaskByIdIncludeDeleted(taskId);
@@ -645,6 +1336,8 @@ public class TaskServiceImpl implements TaskService {
                 throw new ResourceNotFoundException("Task not found with ID " + taskId);
             }
             tasksDAO.restoreTask(taskId);
+            taskDependencyService.invalidate(existingTask.getProjectId());
+            taskEventService.record(existingTask, TaskEventType.TASK_RESTORED, parseActorId(actorUserId));
         } catch (Exception e) {
             throw new DatabaseException("Error restoring task: " + e.getMessage());
         }
@@ -652,12 +1345,18 @@ public class TaskServiceImpl implements TaskService {
     
     @Override
     public void restoreTasksByProject(UUID projectId) {
+        restoreTasksByProject(projectId, null);
+    }
+
+    @Override
+    public void restoreTasksByProject(UUID projectId, String actorUserId) {
         try {
             if (projectId == null) {
                 throw new IllegalArgumentException("Project ID cannot be null");
             }
-            tasksDAO.restoreTasksByProject(projectId);
-            System.out.println("✅ All tasks restored for project: " + projectId);
+            int restored = tasksDAO.restoreTasksByProject(projectId, parseActorId(actorUserId));
+            taskDependencyService.invalidate(projectId);
+            System.out.println("✅ " + restored + " task(s) restored for project: " + projectId);
         } catch (Exception e) {
             throw new DatabaseException("Error restoring tasks for project: " + e.getMessage());
         }
@@ -0,0 +1,95 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.tasksservice.payload.enums.TaskStatus;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import com.tmnhat.tasksservice.utils.LocalStoryPointEstimator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps a LocalStoryPointEstimator over finished tasks (DONE, with story points) in sync with the
+// tasks table: a full load first, then on every sync only the rows updated since the previous one.
+// Answers in the same shape as the AI service /estimate, marked with "source": "local".
+@Service
+public class LocalEstimatorService {
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Value("${ai.local-estimator.neighbours:7}")
+    private int neighbours;
+
+    // Below this many indexed tasks the local estimator does not answer
+    @Value("${ai.local-estimator.min-tasks:20}")
+    private int minTasks;
+
+    @Value("${ai.training.fetch-size:500}")
+    private int fetchSize;
+
+    private volatile LocalStoryPointEstimator estimator;
+    private LocalDateTime syncedUntil;
+
+    @Scheduled(fixedDelayString = "${ai.local-estimator.sync-ms:30000}")
+    public synchronized void sync() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            // The first load builds a fresh index next to the (empty) current one
+            LocalStoryPointEstimator target = syncedUntil == null ? new LocalStoryPointEstimator(neighbours) : estimator;
+            tasksDAO.streamTrainingTasks(syncedUntil, fetchSize, task -> {
+                if (task.getDeletedAt() == null && task.getStoryPoint() > 0 && task.getStatus() == TaskStatus.DONE) {
+                    target.put(task.getId(), task.getTitle(), task.getDescription(), task.getStoryPoint());
+                } else {
+                    target.remove(task.getId());
+                }
+            });
+            if (syncedUntil == null) {
+                System.out.println("Local estimator loaded " + target.size() + " finished tasks");
+            }
+            estimator = target;
+            // Overlap so rows committed while the scan ran are picked up next time
+            syncedUntil = startedAt.minusMinutes(1);
+        } catch (Exception e) {
+            System.err.println("Local estimator sync failed: " + e.getMessage());
+        }
+    }
+
+    // Null when the index is too small or no finished task shares a term with the request
+    public Map<String, Object> estimate(Map<String, Object> estimateRequest) {
+        LocalStoryPointEstimator current = estimator;
+        if (current == null || current.size() < minTasks) {
+            return null;
+        }
+        Object title = estimateRequest.get("title");
+        Object description = estimateRequest.get("description");
+        LocalStoryPointEstimator.Estimate estimate = current.estimate(
+                title != null ? title.toString() : "", description != null ? description.toString() : "");
+        if (estimate == null) {
+            return null;
+        }
+
+        List<Map<String, Object>> similarTasks = new ArrayList<>();
+        for (LocalStoryPointEstimator.Neighbour neighbour : estimate.getNeighbours()) {
+            Map<String, Object> similar = new HashMap<>();
+            similar.put("taskId", neighbour.getTaskId());
+            similar.put("storyPoint", neighbour.getStoryPoint());
+            similar.put("similarity", Math.round(neighbour.getSimilarity() * 1000) / 1000.0);
+            similarTasks.add(similar);
+        }
+        Map<String, Object> features = new HashMap<>();
+        features.put("similar_tasks", similarTasks);
+        features.put("matched_terms", estimate.getMatchedTerms());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("estimated_story_points", estimate.getStoryPoints());
+        response.put("confidence", Math.round(Math.min(0.95, 0.4 + 0.5 * estimate.getTopSimilarity()) * 100) / 100.0);
+        response.put("reasoning", "Based on " + similarTasks.size() + " similar completed tasks");
+        response.put("features_used", features);
+        response.put("source", "local");
+        return response;
+    }
+}
@@ -0,0 +1,132 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.repository.ScanWatermarkDAO;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Periodically finds tasks that became overdue since the previous run and sends one
+// TASK_OVERDUE notification per assignee to Notification-Service in batches.
+// Replaces the client-side check that every open project homescreen used to run.
+@Component
+public class OverdueTaskScanner {
+
+    static final String DUE_DATE_WATERMARK = "overdue.due_date";
+    static final String UPDATED_AT_WATERMARK = "overdue.updated_at";
+
+    // Edits committed while a scan is running may carry an updated_at slightly before the scan start
+    private static final long UPDATED_AT_OVERLAP_MINUTES = 1;
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @Autowired
+    private ScanWatermarkDAO watermarkDAO;
+
+    @Value("${tasks.overdue-scan.batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${tasks.overdue-scan.interval-ms:60000}",
+               initialDelayString = "${tasks.overdue-scan.initial-delay-ms:30000}")
+    public void scan() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDate today = startedAt.toLocalDate();
+
+            LocalDateTime dueWatermark = watermarkDAO.getWatermark(DUE_DATE_WATERMARK);
+            LocalDateTime updatedWatermark = watermarkDAO.getWatermark(UPDATED_AT_WATERMARK);
+            LocalDate dueFrom = dueWatermark != null ? dueWatermark.toLocalDate() : null;
+
+            List<Tasks> overdueTasks = tasksDAO.getNewlyOverdueTasks(dueFrom, today, updatedWatermark);
+            if (!overdueTasks.isEmpty()) {
+                if (!sendNotifications(overdueTasks)) {
+                    // Keep the old watermarks so the same window is scanned again next time;
+                    // Notification-Service drops the duplicates
+                    return;
+                }
+                System.out.println("Overdue scan: notified " + overdueTasks.size() + " overdue task(s)");
+            }
+
+            watermarkDAO.setWatermark(DUE_DATE_WATERMARK, today.atStartOfDay());
+            watermarkDAO.setWatermark(UPDATED_AT_WATERMARK, startedAt.minusMinutes(UPDATED_AT_OVERLAP_MINUTES));
+        } catch (Exception e) {
+            System.err.println("Overdue scan failed: " + e.getMessage());
+        }
+    }
+
+    private boolean sendNotifications(List<Tasks> overdueTasks) throws Exception {
+        Set<UUID> projectIds = new HashSet<>();
+        for (Tasks task : overdueTasks) {
+            if (task.getProjectId() != null) {
+                projectIds.add(task.getProjectId());
+            }
+        }
+        Map<UUID, String> projectNames = projectIds.isEmpty() ? new HashMap<>() : tasksDAO.getProjectNames(projectIds);
+
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (Tasks task : overdueTasks) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "TASK_OVERDUE");
+            payload.put("title", "Task Overdue");
+            payload.put("message", "Task \"" + task.getTitle() + "\" is overdue and needs your attention");
+            payload.put("recipientUserId", task.getAssigneeId().toString());
+            payload.put("actorUserId", task.getAssigneeId().toString());
+            payload.put("actorUserName", "System");
+            payload.put("taskId", task.getId().toString());
+            if (task.getProjectId() != null) {
+                payload.put("projectId", task.getProjectId().toString());
+                payload.put("projectName", projectNames.getOrDefault(task.getProjectId(), "Unknown Project"));
+            }
+            payloads.add(payload);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String url = serviceUrls.getNotificationServiceUrl() + "/api/notifications/batch";
+
+        boolean allSent = true;
+        for (int from = 0; from < payloads.size(); from += batchSize) {
+            List<Map<String, Object>> chunk = payloads.subList(from, Math.min(from + batchSize, payloads.size()));
+            try {
+                ResponseEntity<Map> response = resilienceRegistry.guard(ResilienceRegistry.NOTIFICATION_SERVICE).call(
+                        () -> restTemplate.postForEntity(url, new HttpEntity<>(chunk, headers), Map.class),
+                        () -> null);
+                if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+                    allSent = false;
+                }
+            } catch (Exception e) {
+                System.err.println("Overdue scan: failed to send notification batch: " + e.getMessage());
+                allSent = false;
+            }
+        }
+        return allSent;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.tasksservice.model.TaskCounters;
+import com.tmnhat.tasksservice.repository.TaskCounterDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Comment, attachment and member counts for many tasks in one read of task_counters.
+// Tasks that have no counter row yet (older than the table) get one seeded on first read.
+@Service
+public class TaskCounterService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @Autowired
+    private TaskCounterDAO taskCounterDAO;
+
+    // Counts keyed by task id; ids of tasks that don't exist are left out
+    public Map<UUID, TaskCounters> getCounters(Collection<UUID> taskIds) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            throw new BadRequestException("taskIds must not be empty");
+        }
+        Set<UUID> distinct = new LinkedHashSet<>(taskIds);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " task ids per request");
+        }
+        try {
+            Map<UUID, TaskCounters> counters = taskCounterDAO.getCounters(distinct);
+            if (counters.size() < distinct.size()) {
+                List<UUID> missing = new ArrayList<>();
+                for (UUID id : distinct) {
+                    if (!counters.containsKey(id)) {
+                        missing.add(id);
+                    }
+                }
+                counters.putAll(taskCounterDAO.seedCounters(missing));
+            }
+            return counters;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving task counters: " + e.getMessage());
+        }
+    }
+
+    public TaskCounters getCounters(UUID taskId) {
+        TaskCounters counters = getCounters(List.of(taskId)).get(taskId);
+        return counters != null ? counters : new TaskCounters(taskId, 0, 0, 0);
+    }
+}
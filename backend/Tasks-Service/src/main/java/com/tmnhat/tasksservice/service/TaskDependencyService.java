@@ -0,0 +1,175 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.common.exception.ResourceNotFoundException;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import com.tmnhat.tasksservice.utils.TaskDependencyGraph;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps one TaskDependencyGraph per project. A graph is loaded from task_links on first use
+// and then maintained incrementally by the task mutations, so queries never go back to SQL.
+// The project of each task in a loaded graph is kept too, so a query by task id only reads the
+// task from SQL the first time its project is used.
+@Service
+public class TaskDependencyService {
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+    private final Map<UUID, TaskDependencyGraph> graphs = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> taskProjects = new ConcurrentHashMap<>();
+
+    // --- Link changes ---
+
+    // relatedTaskId blocks taskId
+    public void linkTasks(UUID taskId, UUID relatedTaskId) {
+        Tasks task = requireTask(taskId);
+        Tasks related = requireTask(relatedTaskId);
+        if (!task.getProjectId().equals(related.getProjectId())) {
+            throw new BadRequestException("Only tasks of the same project can be linked");
+        }
+
+        TaskDependencyGraph graph = getGraph(task.getProjectId());
+        // Serialize link writes per project so the cycle check and the insert see the same graph
+        synchronized (graph) {
+            if (graph.getBlockers(taskId, false).contains(relatedTaskId)) {
+                return;
+            }
+            if (graph.wouldCreateCycle(taskId, relatedTaskId)) {
+                throw new BadRequestException("Linking these tasks would create a dependency cycle");
+            }
+            try {
+                tasksDAO.linkTasks(taskId, relatedTaskId);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error linking tasks: " + e.getMessage());
+            }
+            graph.putTask(taskId, task.getStoryPoint());
+            graph.putTask(relatedTaskId, related.getStoryPoint());
+            graph.addDependency(taskId, relatedTaskId);
+        }
+    }
+
+    public void unlinkTasks(UUID taskId, UUID relatedTaskId) {
+        Tasks task = requireTask(taskId);
+        TaskDependencyGraph graph = getGraph(task.getProjectId());
+        synchronized (graph) {
+            try {
+                tasksDAO.unlinkTasks(taskId, relatedTaskId);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error unlinking tasks: " + e.getMessage());
+            }
+            graph.removeDependency(taskId, relatedTaskId);
+        }
+    }
+
+    // --- Queries ---
+
+    // Project of a task, from memory once its project's graph is loaded
+    public UUID getProjectId(UUID taskId) {
+        UUID projectId = taskProjects.get(taskId);
+        if (projectId == null) {
+            projectId = requireTask(taskId).getProjectId();
+            getGraph(projectId);
+        }
+        return projectId;
+    }
+
+    public List<UUID> getBlockers(UUID taskId, boolean transitive) {
+        return getGraph(getProjectId(taskId)).getBlockers(taskId, transitive);
+    }
+
+    public List<UUID> getBlockedBy(UUID taskId, boolean transitive) {
+        return getGraph(getProjectId(taskId)).getBlockedBy(taskId, transitive);
+    }
+
+    public List<UUID> getTopologicalOrder(UUID projectId) {
+        return getGraph(projectId).topologicalOrder();
+    }
+
+    public TaskDependencyGraph.CriticalPath getCriticalPath(UUID projectId) {
+        return getGraph(projectId).criticalPath();
+    }
+
+    // --- Hooks called by TaskServiceImpl; they only touch graphs that are already loaded ---
+
+    public void onTaskAdded(UUID projectId, UUID taskId, int storyPoint) {
+        onTaskUpdated(projectId, taskId, storyPoint);
+    }
+
+    public void onTaskUpdated(UUID projectId, UUID taskId, int storyPoint) {
+        TaskDependencyGraph graph = projectId != null ? graphs.get(projectId) : null;
+        if (graph != null) {
+            graph.putTask(taskId, storyPoint);
+            taskProjects.put(taskId, projectId);
+        }
+    }
+
+    public void onTaskDeleted(UUID projectId, UUID taskId) {
+        TaskDependencyGraph graph = projectId != null ? graphs.get(projectId) : null;
+        if (graph != null) {
+            graph.removeTask(taskId);
+        }
+        taskProjects.remove(taskId);
+    }
+
+    // Drop the cached graph; it is rebuilt on next access (used after restores)
+    public void invalidate(UUID projectId) {
+        if (projectId != null) {
+            graphs.remove(projectId);
+            taskProjects.values().removeIf(projectId::equals);
+        }
+    }
+
+    // Loaded outside the map so the SQL never runs under a ConcurrentHashMap bin lock; when two
+    // callers load the same project at once, the first graph stored wins
+    private TaskDependencyGraph getGraph(UUID projectId) {
+        TaskDependencyGraph graph = graphs.get(projectId);
+        if (graph != null) {
+            return graph;
+        }
+        TaskDependencyGraph loaded = loadGraph(projectId);
+        TaskDependencyGraph existing = graphs.putIfAbsent(projectId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private TaskDependencyGraph loadGraph(UUID projectId) {
+        try {
+            TaskDependencyGraph graph = new TaskDependencyGraph();
+            for (Tasks task : tasksDAO.getTasksByProjectId(projectId)) {
+                graph.putTask(task.getId(), task.getStoryPoint());
+                taskProjects.put(task.getId(), projectId);
+            }
+            for (Map.Entry<UUID, List<UUID>> entry : tasksDAO.getTaskLinksByProject(projectId).entrySet()) {
+                for (UUID blockerId : entry.getValue()) {
+                    if (!graph.addDependency(entry.getKey(), blockerId)) {
+                        System.err.println("Skipping cyclic task link " + blockerId + " -> " + entry.getKey());
+                    }
+                }
+            }
+            return graph;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error loading task dependencies: " + e.getMessage());
+        }
+    }
+
+    private Tasks requireTask(UUID taskId) {
+        try {
+            Tasks task = tasksDAO.getTaskById(taskId);
+            if (task == null) {
+                throw new ResourceNotFoundException("Task not found with ID " + taskId);
+            }
+            if (task.getProjectId() == null) {
+                throw new BadRequestException("Task " + taskId + " does not belong to a project");
+            }
+            return task;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving task: " + e.getMessage());
+        }
+    }
+}
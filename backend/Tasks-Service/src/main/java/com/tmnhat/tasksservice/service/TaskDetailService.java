@@ -0,0 +1,227 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.tasksservice.model.CommentThread;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.repository.AttachmentDAO;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import com.tmnhat.tasksservice.utils.PermissionUtil;
+import com.tmnhat.tasksservice.utils.PermissionUtil.TaskPermission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Everything the task detail panel shows, in one call: the task, the first page of the comment
+// thread, members, attachments and the display info of every user involved. The parts are
+// loaded concurrently, so the call takes about as long as the slowest part; a part that fails
+// or misses the deadline is left out and listed in "missing" instead of failing the whole call.
+@Service
+public class TaskDetailService {
+
+    public static class Result {
+        private final boolean notFound;
+        private final boolean forbidden;
+        private final Map<String, Object> data;
+        private final List<String> missing;
+        private final long elapsedMs;
+
+        Result(boolean notFound, boolean forbidden, Map<String, Object> data, List<String> missing, long elapsedMs) {
+            this.notFound = notFound;
+            this.forbidden = forbidden;
+            this.data = data;
+            this.missing = missing;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public boolean isNotFound() { return notFound; }
+        public boolean isForbidden() { return forbidden; }
+        public Map<String, Object> getData() { return data; }
+        public List<String> getMissing() { return missing; }
+        public long getElapsedMs() { return elapsedMs; }
+    }
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private AttachmentDAO attachmentDAO;
+
+    @Autowired
+    private PermissionUtil permissionUtil;
+
+    @Autowired
+    private TaskWriteCoalescer taskWriteCoalescer;
+
+    @Value("${tasks.detail.deadline-ms:2000}")
+    private long deadlineMs;
+
+    @Value("${tasks.detail.comment-page-size:20}")
+    private int commentPageSize;
+
+    @Value("${tasks.detail.threads:16}")
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        // When the queue is full the request thread runs the part itself: slower, never rejected
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16), r -> {
+                    Thread thread = new Thread(r, "task-detail");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    public Result getTaskDetail(UUID taskId, UUID viewerId) {
+        long started = System.nanoTime();
+        long deadline = started + deadlineMs * 1_000_000L;
+
+        CompletableFuture<Tasks> task = CompletableFuture.supplyAsync(() -> call(() -> taskWriteCoalescer.overlay(tasksDAO.getTaskById(taskId))), executor);
+        // The permission check (Projects-Service, usually cached) only needs the project id
+        CompletableFuture<Boolean> allowed = task.thenApplyAsync(t -> t == null || viewerId == null || t.getProjectId() == null
+                || permissionUtil.hasTaskPermission(viewerId, t.getProjectId(), TaskPermission.VIEW_TASK), executor);
+        CompletableFuture<Map<String, Object>> comments = CompletableFuture.supplyAsync(
+                () -> commentService.getCommentThread(taskId, null, commentPageSize), executor);
+        CompletableFuture<List<UUID>> members = CompletableFuture.supplyAsync(() -> call(() -> tasksDAO.getTaskMembers(taskId)), executor);
+        CompletableFuture<List<Map<String, Object>>> attachments = CompletableFuture.supplyAsync(
+                () -> call(() -> attachmentDAO.findByTaskId(taskId)), executor);
+        // Users are looked up once the parts naming them are in (or have failed)
+        CompletableFuture<Map<UUID, Map<String, Object>>> users = CompletableFuture.allOf(task, comments, members)
+                .handle((ignored, error) -> null)
+                .thenApplyAsync(ignored -> call(() -> {
+                    Set<UUID> userIds = referencedUsers(valueOrNull(task), valueOrNull(comments), valueOrNull(members));
+                    return userIds.isEmpty() ? new HashMap<UUID, Map<String, Object>>() : tasksDAO.getUsersByIds(userIds);
+                }), executor);
+
+        // The task and the permission decision are required; everything else is best effort
+        Tasks loadedTask;
+        try {
+            loadedTask = task.get(remaining(deadline), TimeUnit.MILLISECONDS);
+            if (loadedTask != null && !allowed.get(remaining(deadline), TimeUnit.MILLISECONDS)) {
+                cancelAll(comments, members, attachments, users);
+                return new Result(false, true, null, List.of(), elapsedMs(started));
+            }
+        } catch (TimeoutException e) {
+            cancelAll(task, allowed, comments, members, attachments, users);
+            throw new DatabaseException("Timed out loading task " + taskId);
+        } catch (ExecutionException | InterruptedException e) {
+            cancelAll(comments, members, attachments, users);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new DatabaseException("Error retrieving task: " + cause.getMessage());
+        }
+        if (loadedTask == null) {
+            cancelAll(comments, members, attachments, users);
+            return new Result(true, false, null, List.of(), elapsedMs(started));
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        data.put("task", loadedTask);
+        collect(data, missing, "comments", comments, deadline);
+        collect(data, missing, "members", members, deadline);
+        collect(data, missing, "attachments", attachments, deadline);
+        collect(data, missing, "users", users, deadline);
+        return new Result(false, false, data, missing, elapsedMs(started));
+    }
+
+    private static Set<UUID> referencedUsers(Tasks task, Map<String, Object> comments, List<UUID> members) {
+        Set<UUID> ids = new HashSet<>();
+        if (task != null) {
+            ids.add(task.getAssigneeId());
+            ids.add(task.getCreatedBy());
+        }
+        if (members != null) {
+            ids.addAll(members);
+        }
+        if (comments != null && comments.get("items") instanceof List<?> items) {
+            for (Object item : items) {
+                addCommentAuthors(ids, (CommentThread) item);
+            }
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    private static void addCommentAuthors(Set<UUID> ids, CommentThread node) {
+        try {
+            ids.add(UUID.fromString(node.getComment().getUserId()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // "SYSTEM" and other non-user authors have no profile
+        }
+        for (CommentThread reply : node.getReplies()) {
+            addCommentAuthors(ids, reply);
+        }
+    }
+
+    private static <T> void collect(Map<String, Object> data, List<String> missing, String name,
+                                    CompletableFuture<T> part, long deadline) {
+        try {
+            data.put(name, part.get(remaining(deadline), TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            part.cancel(false);
+            missing.add(name);
+            System.err.println("Task detail: " + name + " unavailable (" + (e instanceof TimeoutException ? "deadline exceeded" : e.getMessage()) + ")");
+        }
+    }
+
+    // Result of a finished part, null if it failed or was cancelled
+    private static <T> T valueOrNull(CompletableFuture<T> part) {
+        return part.isDone() && !part.isCompletedExceptionally() ? part.join() : null;
+    }
+
+    private static void cancelAll(CompletableFuture<?>... parts) {
+        for (CompletableFuture<?> part : parts) {
+            part.cancel(false);
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, (deadline - System.nanoTime()) / 1_000_000L);
+    }
+
+    private static long elapsedMs(long started) {
+        return (System.nanoTime() - started) / 1_000_000L;
+    }
+
+    @FunctionalInterface
+    private interface SQLSupplier<T> {
+        T get() throws Exception;
+    }
+
+    // Runs a DAO call inside a CompletableFuture stage, rethrowing checked exceptions unchecked
+    private static <T> T call(SQLSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
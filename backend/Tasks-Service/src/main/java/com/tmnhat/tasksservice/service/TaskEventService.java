@@ -0,0 +1,166 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.tasksservice.model.TaskEvent;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.payload.enums.TaskEventType;
+import com.tmnhat.tasksservice.repository.TaskEventDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+// Writes the task_events log and serves the project activity feed from it
+@Service
+public class TaskEventService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Monthly partitions are created this many months ahead
+    private static final int PARTITIONS_AHEAD = 2;
+
+    @Autowired
+    private TaskEventDAO taskEventDAO;
+
+    // Best effort: a failed append is logged and never fails the mutation that caused it
+    public void record(Tasks task, TaskEventType type, UUID actorId, Object fromValue, Object toValue) {
+        if (task == null || task.getId() == null) {
+            return;
+        }
+        try {
+            taskEventDAO.appendEvent(new TaskEvent.Builder()
+                    .projectId(task.getProjectId())
+                    .taskId(task.getId())
+                    .taskTitle(task.getTitle())
+                    .eventType(type)
+                    .actorId(actorId)
+                    .fromValue(fromValue)
+                    .toValue(toValue)
+                    .build());
+        } catch (Exception e) {
+            System.err.println("Failed to record " + type + " event for task " + task.getId() + ": " + e.getMessage());
+        }
+    }
+
+    public void record(Tasks task, TaskEventType type, UUID actorId) {
+        record(task, type, actorId, null, null);
+    }
+
+    // Same as record() for many tasks at once, written in one batch
+    public void recordAll(List<Tasks> tasks, TaskEventType type, UUID actorId, List<?> fromValues, List<?> toValues) {
+        List<TaskEvent> events = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Tasks task = tasks.get(i);
+            events.add(new TaskEvent.Builder()
+                    .projectId(task.getProjectId())
+                    .taskId(task.getId())
+                    .taskTitle(task.getTitle())
+                    .eventType(type)
+                    .actorId(actorId)
+                    .fromValue(fromValues.get(i))
+                    .toValue(toValues.get(i))
+                    .build());
+        }
+        try {
+            taskEventDAO.appendEvents(events);
+        } catch (Exception e) {
+            System.err.println("Failed to record " + events.size() + " " + type + " events: " + e.getMessage());
+        }
+    }
+
+    // One page of the feed: "items" newest first and "nextCursor" (null on the last page)
+    public Map<String, Object> getProjectActivity(UUID projectId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        LocalDateTime beforeTime = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeTime = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (Exception e) {
+                throw new BadRequestException("Invalid activity cursor");
+            }
+        }
+
+        try {
+            // Fetch one extra row to know whether another page exists
+            List<TaskEvent> events = taskEventDAO.getProjectEvents(projectId, beforeTime, beforeId, pageSize + 1);
+            boolean hasMore = events.size() > pageSize;
+            if (hasMore) {
+                events = events.subList(0, pageSize);
+            }
+
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (TaskEvent event : events) {
+                items.add(toActivity(event));
+            }
+
+            Map<String, Object> page = new HashMap<>();
+            page.put("items", items);
+            page.put("nextCursor", hasMore ? encodeCursor(events.get(events.size() - 1)) : null);
+            return page;
+        } catch (Exception e) {
+            throw new DatabaseException("Error retrieving project activity: " + e.getMessage());
+        }
+    }
+
+    // Keeps the current and upcoming monthly partitions in place so inserts never land in the
+    // default one, and gives months that did end up there (e.g. while a check failed) their own
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tasks.events.partition-check-ms:21600000}")
+    public void ensurePartitions() {
+        Set<YearMonth> months = new TreeSet<>();
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+            months.add(month.plusMonths(i));
+        }
+        try {
+            months.addAll(taskEventDAO.getMonthsInDefaultPartition());
+        } catch (Exception e) {
+            System.err.println("Could not read the task_events default partition: " + e.getMessage());
+        }
+        for (YearMonth partition : months) {
+            try {
+                taskEventDAO.ensureMonthlyPartition(partition);
+            } catch (Exception e) {
+                System.err.println("Could not create task_events partition for " + partition + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Same keys the summary page already reads (type, userId, task, taskKey, status, timestamp)
+    private Map<String, Object> toActivity(TaskEvent event) {
+        Map<String, Object> activity = new HashMap<>();
+        activity.put("id", event.getId());
+        activity.put("type", event.getEventType().name().toLowerCase());
+        activity.put("userId", event.getActorId());
+        activity.put("taskId", event.getTaskId());
+        activity.put("task", event.getTaskTitle());
+        activity.put("taskKey", "TASK-" + event.getTaskId().toString().substring(0, 8));
+        if (event.getEventType() == TaskEventType.STATUS_CHANGED) {
+            activity.put("status", event.getToValue());
+        }
+        activity.put("from", event.getFromValue());
+        activity.put("to", event.getToValue());
+        activity.put("timestamp", event.getOccurredAt());
+        return activity;
+    }
+
+    private String encodeCursor(TaskEvent event) {
+        String raw = event.getOccurredAt() + "|" + event.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
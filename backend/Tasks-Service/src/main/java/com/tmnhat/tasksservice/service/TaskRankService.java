@@ -0,0 +1,212 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.common.exception.BadRequestException;
+import com.tmnhat.common.exception.ConflictException;
+import com.tmnhat.common.exception.DatabaseException;
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.payload.enums.TaskStatus;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import com.tmnhat.tasksservice.utils.FractionalRank;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Manual ordering of a project's tasks on the board and in the backlog. Each task has a
+// fractional rank (FractionalRank): a move computes a rank between its new neighbours and writes
+// only the moved row, through the write coalescer like status changes. Ranks that have grown long
+// from many moves into the same gap, and tasks created before ranks existed, are fixed by an
+// occasional rebalance that spreads the project's ranks evenly again.
+@Service
+public class TaskRankService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Autowired
+    private TaskWriteCoalescer taskWriteCoalescer;
+
+    @Value("${tasks.rank.rebalance-projects-per-run:100}")
+    private int projectsPerRun;
+
+    // Moves and rebalances of one project run one at a time (striped by project): a move computes
+    // its rank from the neighbours' ranks, which a rebalance running in between would replace
+    private final Object[] projectLocks = new Object[64];
+
+    {
+        for (int i = 0; i < projectLocks.length; i++) {
+            projectLocks[i] = new Object();
+        }
+    }
+
+    private Object lockFor(UUID projectId) {
+        return projectLocks[Math.floorMod(projectId != null ? projectId.hashCode() : 0, projectLocks.length)];
+    }
+
+    // Rank for a task appended at the end of its project
+    public String appendRank(UUID projectId) throws Exception {
+        return FractionalRank.withTieBreak(FractionalRank.after(projectId != null ? tasksDAO.getLastRank(projectId) : null));
+    }
+
+    // Moves the (just read) task between previousId and nextId, either of which may be null for the
+    // start/end of the list, optionally into another status column. Returns the new rank.
+    public String move(Tasks task, UUID previousId, UUID nextId, TaskStatus status, UUID actorId) {
+        if ((previousId != null && previousId.equals(nextId)) || task.getId().equals(previousId) || task.getId().equals(nextId)) {
+            throw new BadRequestException("Invalid neighbours for task " + task.getId());
+        }
+        try {
+            synchronized (lockFor(task.getProjectId())) {
+                Map<UUID, String> ranks = neighbourRanks(task.getProjectId(), previousId, nextId);
+                if (ranks.containsValue(null) || (previousId != null && nextId != null
+                        && ranks.get(previousId).equals(ranks.get(nextId)))) {
+                    // Neighbours from before ranks existed, or with the same rank (appended at the
+                    // same time) and so no room between them: rank the project now and look again
+                    rebalance(task.getProjectId());
+                    ranks = neighbourRanks(task.getProjectId(), previousId, nextId);
+                }
+                String before = previousId != null ? ranks.get(previousId) : null;
+                String after = nextId != null ? ranks.get(nextId) : null;
+                if (before != null && after != null && before.compareTo(after) >= 0) {
+                    throw new ConflictException("The board has changed since it was loaded; reload it and retry");
+                }
+                String rank = FractionalRank.between(before, after);
+                taskWriteCoalescer.change(task, status, rank, actorId);
+                return rank;
+            }
+        } catch (BadRequestException | ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error moving task: " + e.getMessage());
+        }
+    }
+
+    // Ranks of the neighbours, including moves not written yet
+    private Map<UUID, String> neighbourRanks(UUID projectId, UUID previousId, UUID nextId) throws Exception {
+        List<UUID> ids = new ArrayList<>(2);
+        if (previousId != null) {
+            ids.add(previousId);
+        }
+        if (nextId != null) {
+            ids.add(nextId);
+        }
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<UUID, String> ranks = tasksDAO.getRanks(projectId, ids);
+        for (UUID id : ids) {
+            if (!ranks.containsKey(id)) {
+                throw new BadRequestException("Task " + id + " is not a live task of this project");
+            }
+            String pending = taskWriteCoalescer.pendingRank(id);
+            if (pending != null) {
+                ranks.put(id, pending);
+            }
+        }
+        return ranks;
+    }
+
+    // One page of the project's tasks in rank order (optionally one status column):
+    // "items" and "nextCursor" (null on the last page)
+    public Map<String, Object> getRankedTasks(UUID projectId, String status, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (status != null) {
+            try {
+                TaskStatus.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid task status: " + status);
+            }
+        }
+
+        String afterRank = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterRank = parts[0];
+                afterId = UUID.fromString(parts[1]);
+            } catch (Exception e) {
+                throw new BadRequestException("Invalid rank cursor");
+            }
+        }
+
+        try {
+            if (afterRank == null && tasksDAO.hasUnrankedTasks(projectId)) {
+                rebalance(projectId);
+            }
+            // Fetch one extra row to know whether another page exists
+            List<Tasks> tasks = tasksDAO.getTasksByRank(projectId, status, afterRank, afterId, pageSize + 1);
+            boolean hasMore = tasks.size() > pageSize;
+            if (hasMore) {
+                tasks = tasks.subList(0, pageSize);
+            }
+
+            // The cursor continues from where the database query stopped, so it is taken before
+            // the overlay replaces ranks with moves not written yet
+            String nextCursor = hasMore ? encodeCursor(tasks.get(tasks.size() - 1)) : null;
+            Map<String, Object> page = new HashMap<>();
+            page.put("items", taskWriteCoalescer.overlay(tasks));
+            page.put("nextCursor", nextCursor);
+            return page;
+        } catch (Exception e) {
+            throw new DatabaseException("Error retrieving ranked tasks: " + e.getMessage());
+        }
+    }
+
+    private static String encodeCursor(Tasks last) {
+        String raw = last.getRank() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Spreads the ranks of a project's tasks evenly, keeping their order (unranked tasks go last,
+    // oldest first). Moves not written yet are written first so they land in the old rank space;
+    // no new move of the project can be computed until the new ranks are written.
+    public void rebalance(UUID projectId) throws Exception {
+        synchronized (lockFor(projectId)) {
+            taskWriteCoalescer.flushPending();
+            LinkedHashMap<UUID, String> order = tasksDAO.getRankOrder(projectId);
+            String[] newRanks = FractionalRank.evenlySpaced(order.size());
+            List<UUID> ids = new ArrayList<>(order.size());
+            List<String> oldRanks = new ArrayList<>(order.size());
+            List<String> ranks = new ArrayList<>(order.size());
+            int i = 0;
+            for (Map.Entry<UUID, String> task : order.entrySet()) {
+                if (!newRanks[i].equals(task.getValue())) {
+                    ids.add(task.getKey());
+                    oldRanks.add(task.getValue());
+                    ranks.add(newRanks[i]);
+                }
+                i++;
+            }
+            if (!ids.isEmpty()) {
+                tasksDAO.rewriteRanks(ids, oldRanks, ranks);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.rank.rebalance-interval-ms:600000}",
+               initialDelayString = "${tasks.rank.rebalance-initial-delay-ms:60000}")
+    public void rebalanceLongRanks() {
+        try {
+            List<UUID> projects = tasksDAO.findProjectsToRebalance(projectsPerRun);
+            for (UUID projectId : projects) {
+                rebalance(projectId);
+            }
+            if (!projects.isEmpty()) {
+                System.out.println("Rank rebalance: re-ranked " + projects.size() + " project(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Rank rebalance failed: " + e.getMessage());
+        }
+    }
+}
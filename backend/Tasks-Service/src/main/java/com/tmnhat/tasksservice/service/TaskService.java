@@ -1,9 +1,13 @@
 package com.tmnhat.tasksservice.service;
 
 
+import com.tmnhat.tasksservice.model.AsyncJob;
+import com.tmnhat.tasksservice.model.TaskWithMembers;
 import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.payload.enums.TaskStatus;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -12,20 +16,33 @@ public interface TaskService {
     void addTask(Tasks task);
     void updateTask(UUID id, Tasks task);
     void updateTask(UUID id, Tasks task, String actorUserId);
+    // Writes only the given fields; expectedVersion (may be null) guards against concurrent edits
+    Tasks patchTask(UUID id, Map<String, Object> fields, Long expectedVersion, String actorUserId);
     void deleteTask(UUID id);
+    void deleteTask(UUID id, String actorUserId);
     Tasks getTaskById(UUID id);
+    Map<UUID, Tasks> getTasksByIds(Collection<UUID> ids);
     List<Tasks> getAllTasks();
     void assignTask(UUID taskId, UUID userId);
+    void assignTask(UUID taskId, UUID userId, String actorUserId);
     void changeTaskStatus(UUID taskId, String status);
     void changeTaskStatus(UUID taskId, String status, String actorUserId);
+    void changeTaskStatus(Tasks task, TaskStatus status, String actorUserId);
     void updateStoryPoint(UUID taskId, int storyPoint);
+    void updateStoryPoint(UUID taskId, int storyPoint, String actorUserId);
     void addSubtask(UUID parentTaskId, Tasks subtask);
+    void addSubtask(UUID parentTaskId, Tasks subtask, String actorUserId);
     void linkTasks(UUID taskId, UUID relatedTaskId);
+    void linkTasks(UUID taskId, UUID relatedTaskId, String actorUserId);
+    void unlinkTasks(UUID taskId, UUID relatedTaskId);
+    void unlinkTasks(UUID taskId, UUID relatedTaskId, String actorUserId);
     List<Tasks> filterTasks(String status, UUID assigneeId);
     List<Tasks> searchTasks(String keyword) ;
     List<Tasks> paginateTasks(int page, int size);
     void commentOnTask(UUID taskId, String comment);
+    void commentOnTask(UUID taskId, String comment, String actorUserId);
     void attachFileToTask(UUID taskId, MultipartFile file);
+    void attachFileToTask(UUID taskId, MultipartFile file, String actorUserId);
     List<Tasks> getTasksBySprintId(UUID sprintId);
     List<Tasks> getTasksByProjectId(UUID projectId);
     List<Tasks> getTasksByProjectIdSorted(UUID projectId, String sortBy, String sortOrder);
@@ -33,11 +50,14 @@ public interface TaskService {
 
     //Members
     void addMemberToTask(UUID taskId, UUID userId);
+    void addMemberToTask(UUID taskId, UUID userId, String actorUserId);
     void removeMemberFromTask(UUID taskId, UUID userId);
+    void removeMemberFromTask(UUID taskId, UUID userId, String actorUserId);
     List<UUID> getTaskMembers(UUID taskId);
+    List<TaskWithMembers> withMembers(List<Tasks> tasks);
 
     // Activity
-    List<Object> getProjectActivity(UUID projectId);
+    Map<String, Object> getProjectActivity(UUID projectId, String cursor, Integer limit);
 
     // Calendar Filter Methods
     List<Tasks> getFilteredTasksForCalendar(UUID projectId, String search, 
@@ -50,8 +70,15 @@ public interface TaskService {
 
     // AI Story Point Estimation Methods
     Object estimateStoryPoints(UUID taskId);
+    Object estimateStoryPoints(UUID taskId, String actorUserId);
     Object trainAIModel();
+    Object trainAIModel(boolean fullRetrain);
     Object bulkEstimateStoryPoints(UUID projectId);
+    Object bulkEstimateStoryPoints(UUID projectId, AsyncJobService.JobContext context);
+
+    // Same operations as background jobs; poll /api/tasks/jobs/{id} for the result
+    AsyncJob startTrainAIModelJob(String actorUserId, boolean fullRetrain);
+    AsyncJob startBulkEstimateJob(UUID projectId, String actorUserId);
 
     // Overdue Tasks Methods
     List<Tasks> getOverdueTasks(UUID projectId);
@@ -62,7 +89,9 @@ public interface TaskService {
 
     // Task restore methods
     void restoreTask(UUID taskId);
+    void restoreTask(UUID taskId, String actorUserId);
     void restoreTasksByProject(UUID projectId);
+    void restoreTasksByProject(UUID projectId, String actorUserId);
     List<Tasks> getDeletedTasksByProject(UUID projectId);
     Tasks getTaskByIdIncludeDeleted(UUID taskId);
 }
\ No newline at end of file
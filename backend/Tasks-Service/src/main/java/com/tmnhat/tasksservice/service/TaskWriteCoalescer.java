@@ -0,0 +1,283 @@
+package com.tmnhat.tasksservice.service;
+
+import com.tmnhat.tasksservice.model.Tasks;
+import com.tmnhat.tasksservice.payload.enums.TaskEventType;
+import com.tmnhat.tasksservice.payload.enums.TaskStatus;
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Absorbs bursts of board mutations (a card dragged across several columns fires one status and
+// rank change per drop): changes are acknowledged right away, merged per task for a short window and
+// then written for all tasks in one UPDATE. Reads through TaskService see pending changes
+// (overlay), so a client always reads back what it just wrote. Pending changes live in this
+// instance's memory; a task's burst is expected to reach the same instance. A failed write stays
+// queued and is retried every window until it succeeds; shutdown writes what is queued and logs
+// every change it could not write, so nothing is dropped without a trace.
+@Service
+public class TaskWriteCoalescer {
+
+    // Flush rounds on shutdown before the remaining changes are given up (and logged)
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Autowired
+    private TaskEventService taskEventService;
+
+    @Value("${tasks.write-coalescing.window-ms:250}")
+    private long windowMs;
+
+    @Value("${tasks.write-coalescing.max-batch:500}")
+    private int maxBatch;
+
+    // Merged changes not written yet, and the ones being written right now; a change moves from
+    // the first map to the second before it leaves the first, so readers always find it
+    private final Map<UUID, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, PendingWrite> flushing = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flusher;
+
+    private static final class PendingWrite {
+        private final Tasks task;             // as read when the burst started (id, project, title)
+        private final TaskStatus status;      // latest requested status, null if unchanged
+        private final String rank;            // latest requested rank, null if unchanged
+        private final UUID actorId;           // who made the latest change
+        private final int attempts;           // failed writes so far
+
+        PendingWrite(Tasks task, TaskStatus status, String rank, UUID actorId, int attempts) {
+            this.task = task;
+            this.status = status;
+            this.rank = rank;
+            this.actorId = actorId;
+            this.attempts = attempts;
+        }
+
+        // This change on top of an older pending one of the same task
+        PendingWrite after(PendingWrite older) {
+            return new PendingWrite(older.task, status != null ? status : older.status,
+                    rank != null ? rank : older.rank, actorId, Math.min(attempts, older.attempts));
+        }
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        // Own thread rather than @Scheduled: the shared scheduler also runs long jobs (archival)
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-write-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopFlusher() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write whatever is still queued before the instance goes away
+        for (int i = 0; i < SHUTDOWN_ATTEMPTS && !pending.isEmpty(); i++) {
+            while (flush()) {
+                // until everything is written or a batch fails
+            }
+        }
+        for (Map.Entry<UUID, PendingWrite> lost : pending.entrySet()) {
+            System.err.println("Lost board change of task " + lost.getKey() + " on shutdown (status " + lost.getValue().status
+                    + ", rank " + lost.getValue().rank + ") after " + lost.getValue().attempts + " failed write(s)");
+        }
+    }
+
+    // Queues a status and/or rank change (null: unchanged) of the given, just read task; merged
+    // with earlier pending changes of the same task
+    public void change(Tasks task, TaskStatus status, String rank, UUID actorId) {
+        pending.merge(task.getId(), new PendingWrite(task, status, rank, actorId, 0),
+                (older, newer) -> newer.after(older));
+    }
+
+    public void changeStatus(Tasks task, TaskStatus status, UUID actorId) {
+        change(task, status, null, actorId);
+    }
+
+    // Rank a task will have once its pending changes are written, null if none is pending
+    public String pendingRank(UUID taskId) {
+        PendingWrite queued = pending.get(taskId);
+        if (queued != null && queued.rank != null) {
+            return queued.rank;
+        }
+        PendingWrite inFlight = flushing.get(taskId);
+        return inFlight != null ? inFlight.rank : null;
+    }
+
+    // Applies pending changes to a task read from the database. Every queued flush bumps the
+    // version by one, so the version shown is the one the row will have once they are written.
+    public Tasks overlay(Tasks task) {
+        if (task == null || (pending.isEmpty() && flushing.isEmpty())) {
+            return task;
+        }
+        PendingWrite queued = pending.get(task.getId());
+        PendingWrite inFlight = flushing.get(task.getId());
+        if (queued == null && inFlight == null) {
+            return task;
+        }
+        for (PendingWrite write : new PendingWrite[]{inFlight, queued}) {
+            if (write != null && write.status != null) {
+                task.setStatus(write.status);
+            }
+            if (write != null && write.rank != null) {
+                task.setRank(write.rank);
+            }
+        }
+        if (task.getVersion() != null) {
+            task.setVersion(task.getVersion() + (queued != null ? 1 : 0) + (inFlight != null ? 1 : 0));
+        }
+        return task;
+    }
+
+    public List<Tasks> overlay(List<Tasks> tasks) {
+        if (!pending.isEmpty() || !flushing.isEmpty()) {
+            for (Tasks task : tasks) {
+                overlay(task);
+            }
+        }
+        return tasks;
+    }
+
+    // Writes the pending change of one task now, e.g. before a full update of the same task. A
+    // change already being written by the flusher is waited for (it holds flushLock until done).
+    public void flushTask(UUID taskId) {
+        if (!pending.containsKey(taskId) && !flushing.containsKey(taskId)) {
+            return;
+        }
+        synchronized (flushLock) {
+            Map<UUID, PendingWrite> batch = new LinkedHashMap<>();
+            take(taskId, batch);
+            write(batch);
+        }
+    }
+
+    // Writes everything queued so far (and waits for a flush in progress), for reads that filter
+    // on status in SQL: an overlay can fix the rows returned but cannot add or drop any
+    public void flushPending() {
+        if (pending.isEmpty() && flushing.isEmpty()) {
+            return;
+        }
+        // Bounded: changes queued meanwhile by other requests are not this read's writes
+        int rounds = pending.size() / Math.max(1, maxBatch) + 1;
+        for (int i = 0; i < rounds; i++) {
+            flush();
+        }
+    }
+
+    // Writes one batch; false if there was nothing to write or the write failed
+    boolean flush() {
+        synchronized (flushLock) {
+            Map<UUID, PendingWrite> batch = new LinkedHashMap<>();
+            for (UUID taskId : pending.keySet()) {
+                if (batch.size() >= maxBatch) {
+                    break;
+                }
+                take(taskId, batch);
+            }
+            return write(batch);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Task write flush failed: " + e.getMessage());
+        }
+    }
+
+    private void take(UUID taskId, Map<UUID, PendingWrite> batch) {
+        // Atomic with merge() on the same task: a change is either in this batch or stays queued
+        pending.computeIfPresent(taskId, (id, write) -> {
+            flushing.put(id, write);
+            batch.put(id, write);
+            return null;
+        });
+    }
+
+    private boolean write(Map<UUID, PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return false;
+        }
+        List<UUID> ids = new ArrayList<>(batch.size());
+        List<String> statuses = new ArrayList<>(batch.size());
+        List<String> ranks = new ArrayList<>(batch.size());
+        for (Map.Entry<UUID, PendingWrite> entry : batch.entrySet()) {
+            ids.add(entry.getKey());
+            statuses.add(entry.getValue().status != null ? entry.getValue().status.name() : null);
+            ranks.add(entry.getValue().rank);
+        }
+        Map<UUID, TaskStatus> previous;
+        try {
+            previous = tasksDAO.applyBoardChanges(ids, statuses, ranks);
+        } catch (Exception e) {
+            System.err.println("Failed to write " + batch.size() + " coalesced task change(s), retrying: " + e.getMessage());
+            requeue(batch);
+            return false;
+        }
+        try {
+            recordEvents(batch, previous);
+        } finally {
+            batch.forEach(flushing::remove);
+        }
+        return true;
+    }
+
+    // Failed changes go back into the queue, under any newer change of the same task
+    private void requeue(Map<UUID, PendingWrite> batch) {
+        for (Map.Entry<UUID, PendingWrite> entry : batch.entrySet()) {
+            PendingWrite failed = entry.getValue();
+            pending.merge(entry.getKey(),
+                    new PendingWrite(failed.task, failed.status, failed.rank, failed.actorId, failed.attempts + 1),
+                    (newer, retry) -> newer.after(retry));
+            flushing.remove(entry.getKey(), failed);
+        }
+    }
+
+    // One STATUS_CHANGED event per written task for the whole burst, from the status the row had
+    // when the UPDATE locked it to the last requested one; tasks the UPDATE did not touch (deleted
+    // meanwhile), bursts that ended where the row was and rank moves are not events
+    private void recordEvents(Map<UUID, PendingWrite> batch, Map<UUID, TaskStatus> previous) {
+        Map<UUID, List<PendingWrite>> byActor = new HashMap<>();
+        for (Map.Entry<UUID, PendingWrite> entry : batch.entrySet()) {
+            PendingWrite write = entry.getValue();
+            if (write.status != null && previous.containsKey(entry.getKey()) && previous.get(entry.getKey()) != write.status) {
+                byActor.computeIfAbsent(write.actorId, id -> new ArrayList<>()).add(write);
+            }
+        }
+        for (Map.Entry<UUID, List<PendingWrite>> group : byActor.entrySet()) {
+            List<Tasks> tasks = new ArrayList<>();
+            List<TaskStatus> from = new ArrayList<>();
+            List<TaskStatus> to = new ArrayList<>();
+            for (PendingWrite write : group.getValue()) {
+                tasks.add(write.task);
+                from.add(previous.get(write.task.getId()));
+                to.add(write.status);
+            }
+            taskEventService.recordAll(tasks, TaskEventType.STATUS_CHANGED, group.getKey(), from, to);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.tmnhat.tasksservice.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import com.tmnhat.tasksservice.repository.EstimateCacheDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// AI estimate responses keyed by a hash of the normalized estimate request (title, description,
+// label, priority), so unchanged tasks are never sent to the AI service twice.
+// A bounded LRU map in front of the estimate_cache table; everything is tied to the AI model
+// version and dropped as soon as a different version is seen.
+@Component
+public class EstimateCache {
+
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    @Value("${ai.estimate-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    private EstimateCacheDAO estimateCacheDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceUrls serviceUrls;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    // Unknown until the AI service has been reached; nothing is cached meanwhile
+    private volatile String modelVersion;
+
+    private final Map<String, Map<String, Object>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // SHA-256 over the fields the model reads; case and whitespace differences do not matter
+    public static String contentHash(Map<String, Object> estimateRequest) {
+        StringBuilder content = new StringBuilder();
+        for (String field : new String[]{"title", "description", "label", "priority"}) {
+            Object value = estimateRequest.get(field);
+            content.append(value == null ? "" : value.toString().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+            content.append('\u0000');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> get(String contentHash) {
+        return getAll(List.of(contentHash)).get(contentHash);
+    }
+
+    // Cached responses for the given hashes: memory first, then one query for the rest
+    public Map<String, Map<String, Object>> getAll(Collection<String> contentHashes) {
+        String version = modelVersion;
+        Map<String, Map<String, Object>> found = new HashMap<>();
+        if (version == null || contentHashes.isEmpty()) {
+            return found;
+        }
+
+        List<String> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (String hash : contentHashes) {
+                Map<String, Object> response = entries.get(hash);
+                if (response != null) {
+                    found.put(hash, response);
+                } else {
+                    missing.add(hash);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        try {
+            Map<String, Map<String, Object>> loaded = new HashMap<>();
+            for (Map.Entry<String, String> row : estimateCacheDAO.getResponses(missing, version).entrySet()) {
+                loaded.put(row.getKey(), objectMapper.readValue(row.getValue(), RESPONSE_TYPE));
+            }
+            remember(loaded, version);
+            found.putAll(loaded);
+        } catch (Exception e) {
+            System.err.println("Estimate cache lookup failed: " + e.getMessage());
+        }
+        return found;
+    }
+
+    public void put(String contentHash, Map<String, Object> response) {
+        Map<String, Map<String, Object>> responses = new HashMap<>();
+        responses.put(contentHash, response);
+        putAll(responses, (String) response.get("model_version"));
+    }
+
+    // Stores successful responses produced by the given model version; error entries are skipped
+    public void putAll(Map<String, Map<String, Object>> responses, String version) {
+        observeModelVersion(version);
+        if (version == null || !version.equals(modelVersion)) {
+            return;
+        }
+        Map<String, Map<String, Object>> cacheable = new HashMap<>();
+        Map<String, String> rows = new HashMap<>();
+        try {
+            for (Map.Entry<String, Map<String, Object>> entry : responses.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().get("error") == null) {
+                    cacheable.put(entry.getKey(), entry.getValue());
+                    rows.put(entry.getKey(), objectMapper.writeValueAsString(entry.getValue()));
+                }
+            }
+            remember(cacheable, version);
+            estimateCacheDAO.putResponses(rows, version);
+        } catch (Exception e) {
+            System.err.println("Failed to store estimates in cache: " + e.getMessage());
+        }
+    }
+
+    // Called with the version reported by the AI service; a new version invalidates everything
+    public void observeModelVersion(String version) {
+        if (version == null || version.equals(modelVersion)) {
+            return;
+        }
+        synchronized (entries) {
+            if (version.equals(modelVersion)) {
+                return;
+            }
+            System.out.println("AI model version changed (" + modelVersion + " -> " + version + "), clearing estimate cache");
+            modelVersion = version;
+            entries.clear();
+        }
+        try {
+            estimateCacheDAO.deleteOtherVersions(version);
+        } catch (Exception e) {
+            System.err.println("Failed to purge old estimates: " + e.getMessage());
+        }
+    }
+
+    // Picks up retraining done through another instance (or directly on the AI service)
+    @Scheduled(fixedDelayString = "${ai.estimate-cache.version-check-ms:60000}")
+    public void refreshModelVersion() {
+        try {
+            Map<?, ?> status = resilienceRegistry.guard(ResilienceRegistry.AI_SERVICE).call(
+                () -> restTemplate.getForObject(serviceUrls.getAiServiceUrl() + "/model/status", Map.class),
+                () -> null
+            );
+            if (status != null && status.get("model_version") != null) {
+                observeModelVersion(status.get("model_version").toString());
+            }
+        } catch (Exception e) {
+            System.err.println("AI model version check failed: " + e.getMessage());
+        }
+    }
+
+    // Only added while the version is still current
+    private void remember(Map<String, Map<String, Object>> responses, String version) {
+        synchronized (entries) {
+            if (Objects.equals(version, modelVersion)) {
+                entries.putAll(responses);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tmnhat.tasksservice.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fractional ranks for manual ordering: a rank is the digits of a base-62 fraction ("0"-"9",
+// "A"-"Z", "a"-"z", in ASCII order, compared with COLLATE "C"), so there is always room for a
+// new rank between any two and a move only rewrites the moved row. Ranks never end in '0'
+// (the lowest digit), which keeps string order equal to numeric order.
+public final class FractionalRank {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int APPEND_DIGITS = 3;
+
+    private FractionalRank() {
+    }
+
+    // A rank strictly between before and after; null stands for the start/end of the list
+    public static String between(String before, String after) {
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Rank " + before + " is not before " + after);
+        }
+        StringBuilder rank = new StringBuilder();
+        for (int i = 0; ; i++) {
+            int low = before != null && i < before.length() ? digit(before.charAt(i)) : 0;
+            int high = after != null ? (i < after.length() ? digit(after.charAt(i)) : 0) : BASE;
+            if (high - low > 1) {
+                return rank.append(DIGITS.charAt((low + high) / 2)).toString();
+            }
+            rank.append(DIGITS.charAt(low));
+            if (low < high) {
+                // The prefix is now below after's, so after no longer limits the remaining digits
+                after = null;
+            }
+        }
+    }
+
+    // A rank right after the given one (null: the first rank of an empty list). Adds one unit at
+    // the third digit instead of halving the remaining space, so a project can append ~200k tasks
+    // before ranks grow past three characters; past "zzz" the next three digits count the same way.
+    public static String after(String last) {
+        if (last == null || last.isEmpty()) {
+            return String.valueOf(DIGITS.charAt(BASE / 2));
+        }
+        int start = 0;
+        while (start + APPEND_DIGITS <= last.length() && isHighest(last.substring(start, start + APPEND_DIGITS))) {
+            start += APPEND_DIGITS;
+        }
+        char[] digits = new char[APPEND_DIGITS];
+        for (int i = 0; i < APPEND_DIGITS; i++) {
+            digits[i] = start + i < last.length() ? last.charAt(start + i) : '0';
+        }
+        // Not all digits are the highest one here, so the carry stops inside the window
+        for (int i = APPEND_DIGITS - 1; i >= 0; i--) {
+            int value = digit(digits[i]);
+            if (value < BASE - 1) {
+                digits[i] = DIGITS.charAt(value + 1);
+                break;
+            }
+            digits[i] = '0';
+        }
+        return stripZeros(last.substring(0, start) + new String(digits));
+    }
+
+    // The rank with two random digits added (the last one never '0'), still below after(rank):
+    // the rank is first padded with '0' up to the digit after() steps. Two tasks appended at the
+    // same time read the same last rank; this keeps them from getting the same rank, which would
+    // leave no room for a move between them.
+    public static String withTieBreak(String rank) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int length = after(rank).length();
+        StringBuilder padded = new StringBuilder(rank);
+        while (padded.length() < length) {
+            padded.append('0');
+        }
+        return padded.append(DIGITS.charAt(random.nextInt(BASE))).append(DIGITS.charAt(1 + random.nextInt(BASE - 1))).toString();
+    }
+
+    // count ranks spread evenly over the whole range, all of the same (minimal) length plus one
+    // spare digit, so the list has room for many moves before the next rebalance
+    public static String[] evenlySpaced(int count) {
+        int width = 1;
+        long space = BASE;
+        while (space <= count) {
+            width++;
+            space *= BASE;
+        }
+        width++;
+        space *= BASE;
+        long step = space / (count + 1L);
+
+        String[] ranks = new String[count];
+        for (int i = 0; i < count; i++) {
+            long value = step * (i + 1);
+            char[] digits = new char[width];
+            for (int position = width - 1; position >= 0; position--) {
+                digits[position] = DIGITS.charAt((int) (value % BASE));
+                value /= BASE;
+            }
+            ranks[i] = stripZeros(new String(digits));
+        }
+        return ranks;
+    }
+
+    private static int digit(char c) {
+        int value = DIGITS.indexOf(c);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid rank character: " + c);
+        }
+        return value;
+    }
+
+    private static boolean isHighest(String digits) {
+        for (int i = 0; i < digits.length(); i++) {
+            if (digit(digits.charAt(i)) != BASE - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripZeros(String rank) {
+        int end = rank.length();
+        while (end > 1 && rank.charAt(end - 1) == '0') {
+            end--;
+        }
+        return rank.substring(0, end);
+    }
+}
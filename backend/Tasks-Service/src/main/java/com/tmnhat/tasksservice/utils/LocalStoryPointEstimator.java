@@ -0,0 +1,344 @@
+package com.tmnhat.tasksservice.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory TF-IDF nearest-neighbour story point estimator.
+ * Each finished task is a document (title counted twice + description) with its final story points.
+ * An estimate is the similarity-weighted median of the k most similar documents, found through an
+ * inverted index so only documents sharing a term with the query are scored. Documents live in
+ * int slots and postings are primitive arrays, so a query is a few array scans without boxing.
+ * Documents can be added, replaced and removed one at a time; document norms use the idf values
+ * of when they were added and are recomputed once the corpus size has drifted enough.
+ */
+public class LocalStoryPointEstimator {
+
+    // Estimates are rounded to these (also the steps LocalEstimatorBenchmark scores against)
+    static final int[] FIBONACCI = {1, 2, 3, 5, 8, 13, 21};
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "of",
+            "on", "or", "the", "this", "to", "with", "when", "should", "can", "will", "we", "our", "all"));
+    // Norms are recomputed when the document count moved this much (relative) since the last
+    // refresh; small corpora refresh on almost every put, which is cheap and keeps their scores exact
+    private static final double NORM_REFRESH_DRIFT = 0.2;
+
+    private final int k;
+    // Documents by slot; freed slots are null and reused
+    private final List<Document> slots = new ArrayList<>();
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    // term -> slots of the documents containing it, with the term count in each
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int documentsAtNormRefresh;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LocalStoryPointEstimator(int k) {
+        this.k = Math.max(1, k);
+    }
+
+    // --- Index maintenance ---
+
+    // Adds or replaces the document of a task
+    public void put(UUID taskId, String title, String description, int storyPoint) {
+        Map<String, Integer> terms = termCounts(title, description);
+        lock.writeLock().lock();
+        try {
+            removeDocument(taskId);
+            if (terms.isEmpty() || storyPoint <= 0) {
+                return;
+            }
+            Integer free = freeSlots.poll();
+            int slot = free != null ? free : slots.size();
+            Document document = new Document(taskId, terms, storyPoint);
+            if (free != null) {
+                slots.set(slot, document);
+            } else {
+                slots.add(document);
+            }
+            slotOf.put(taskId, slot);
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new Postings()).add(slot, term.getValue());
+            }
+            document.norm = norm(terms);
+            refreshNormsIfDrifted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID taskId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            slotOf.clear();
+            freeSlots.clear();
+            postings.clear();
+            documentsAtNormRefresh = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Queries ---
+
+    // Returns null when no indexed task shares a term with the query
+    public Estimate estimate(String title, String description) {
+        Map<String, Integer> queryTerms = termCounts(title, description);
+        lock.readLock().lock();
+        try {
+            if (queryTerms.isEmpty() || slotOf.isEmpty()) {
+                return null;
+            }
+
+            // Accumulate dot products over the postings of the query terms only
+            double[] dots = new double[slots.size()];
+            int[] touched = new int[slots.size()];
+            int touchedCount = 0;
+            double queryNormSquared = 0;
+            List<String> matchedTerms = new ArrayList<>();
+            for (Map.Entry<String, Integer> term : queryTerms.entrySet()) {
+                Postings docs = postings.get(term.getKey());
+                if (docs == null) {
+                    continue;
+                }
+                double idf = idf(docs.size);
+                double queryWeight = term.getValue() * idf;
+                queryNormSquared += queryWeight * queryWeight;
+                matchedTerms.add(term.getKey());
+                double factor = queryWeight * idf;
+                for (int i = 0; i < docs.size; i++) {
+                    int slot = docs.slots[i];
+                    if (dots[slot] == 0) {
+                        touched[touchedCount++] = slot;
+                    }
+                    dots[slot] += factor * docs.counts[i];
+                }
+            }
+            if (touchedCount == 0 || queryNormSquared == 0) {
+                return null;
+            }
+
+            // Keep the k most similar documents
+            double queryNorm = Math.sqrt(queryNormSquared);
+            PriorityQueue<Neighbour> top = new PriorityQueue<>((a, b) -> Double.compare(a.similarity, b.similarity));
+            for (int i = 0; i < touchedCount; i++) {
+                Document document = slots.get(touched[i]);
+                double similarity = dots[touched[i]] / (queryNorm * document.norm);
+                if (top.size() < k) {
+                    top.add(new Neighbour(document.taskId, document.storyPoint, similarity));
+                } else if (similarity > top.peek().similarity) {
+                    top.poll();
+                    top.add(new Neighbour(document.taskId, document.storyPoint, similarity));
+                }
+            }
+
+            List<Neighbour> neighbours = new ArrayList<>(top);
+            neighbours.sort((a, b) -> Double.compare(b.similarity, a.similarity));
+            return new Estimate(weightedMedian(neighbours), neighbours.get(0).similarity, neighbours, matchedTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helpers ---
+
+    // Lower-cased letter/digit runs (any script), stop words and 1-char tokens dropped; the title counts twice
+    static Map<String, Integer> termCounts(String title, String description) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        addTerms(counts, title, 2);
+        addTerms(counts, description, 1);
+        return counts;
+    }
+
+    private static void addTerms(Map<String, Integer> counts, String text, int weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                counts.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0 + (double) slotOf.size() / documentFrequency);
+    }
+
+    private double norm(Map<String, Integer> terms) {
+        double sum = 0;
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            Postings docs = postings.get(term.getKey());
+            double weight = term.getValue() * idf(docs != null ? docs.size : 1);
+            sum += weight * weight;
+        }
+        return sum > 0 ? Math.sqrt(sum) : 1;
+    }
+
+    private void refreshNormsIfDrifted() {
+        int size = slotOf.size();
+        if (Math.abs(size - documentsAtNormRefresh) <= NORM_REFRESH_DRIFT * documentsAtNormRefresh) {
+            return;
+        }
+        for (Document document : slots) {
+            if (document != null) {
+                document.norm = norm(document.terms);
+            }
+        }
+        documentsAtNormRefresh = size;
+    }
+
+    private void removeDocument(UUID taskId) {
+        Integer slot = slotOf.remove(taskId);
+        if (slot == null) {
+            return;
+        }
+        Document document = slots.set(slot, null);
+        freeSlots.push(slot);
+        for (String term : document.terms.keySet()) {
+            Postings docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(slot);
+                if (docs.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // Similarity-weighted median of the neighbours' points, snapped to the Fibonacci scale
+    private static int weightedMedian(List<Neighbour> neighbours) {
+        List<Neighbour> byPoints = new ArrayList<>(neighbours);
+        byPoints.sort((a, b) -> Integer.compare(a.storyPoint, b.storyPoint));
+        double total = 0;
+        for (Neighbour neighbour : byPoints) {
+            total += neighbour.similarity;
+        }
+        double running = 0;
+        for (Neighbour neighbour : byPoints) {
+            running += neighbour.similarity;
+            if (running >= total / 2) {
+                return toFibonacci(neighbour.storyPoint);
+            }
+        }
+        return toFibonacci(byPoints.get(byPoints.size() - 1).storyPoint);
+    }
+
+    static int toFibonacci(int points) {
+        int best = FIBONACCI[0];
+        for (int value : FIBONACCI) {
+            if (Math.abs(value - points) < Math.abs(best - points)) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    // Growable parallel arrays (slot, term count); removal swaps the last entry in
+    private static class Postings {
+        private int[] slots = new int[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        void add(int slot, int count) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            slots[size] = slot;
+            counts[size] = count;
+            size++;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    counts[i] = counts[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class Document {
+        private final UUID taskId;
+        private final Map<String, Integer> terms;
+        private final int storyPoint;
+        private double norm;
+
+        Document(UUID taskId, Map<String, Integer> terms, int storyPoint) {
+            this.taskId = taskId;
+            this.terms = terms;
+            this.storyPoint = storyPoint;
+        }
+    }
+
+    public static class Neighbour {
+        private final UUID taskId;
+        private final int storyPoint;
+        private final double similarity;
+
+        Neighbour(UUID taskId, int storyPoint, double similarity) {
+            this.taskId = taskId;
+            this.storyPoint = storyPoint;
+            this.similarity = similarity;
+        }
+
+        public UUID getTaskId() { return taskId; }
+        public int getStoryPoint() { return storyPoint; }
+        public double getSimilarity() { return similarity; }
+    }
+
+    // Estimated points, similarity of the closest neighbour (0..1) and the evidence used
+    public static class Estimate {
+        private final int storyPoints;
+        private final double topSimilarity;
+        private final List<Neighbour> neighbours;
+        private final List<String> matchedTerms;
+
+        Estimate(int storyPoints, double topSimilarity, List<Neighbour> neighbours, List<String> matchedTerms) {
+            this.storyPoints = storyPoints;
+            this.topSimilarity = topSimilarity;
+            this.neighbours = Collections.unmodifiableList(neighbours);
+            this.matchedTerms = Collections.unmodifiableList(matchedTerms);
+        }
+
+        public int getStoryPoints() { return storyPoints; }
+        public double getTopSimilarity() { return topSimilarity; }
+        public List<Neighbour> getNeighbours() { return neighbours; }
+        public List<String> getMatchedTerms() { return matchedTerms; }
+    }
+}
@@ -0,0 +1,160 @@
+package com.tmnhat.tasksservice.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Short-lived cache of Projects-Service permission maps keyed by (userId, projectId).
+// A null permission map is a negative entry ("not a member") and expires sooner.
+// Projects-Service invalidates entries when membership or roles change; the TTL bounds staleness
+// if that call is lost. Expired entries are kept up to max-stale-ms so getStale can still answer
+// while Projects-Service is unavailable; get() never returns them.
+@Component
+public class PermissionCache {
+
+    @Value("${permissions.cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${permissions.cache.negative-ttl-ms:5000}")
+    private long negativeTtlMs;
+
+    @Value("${permissions.cache.max-stale-ms:300000}")
+    private long maxStaleMs;
+
+    @Value("${permissions.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Returns the cached entry, or null on a miss. Entry.getPermissions() may itself be null (negative entry).
+    public Entry get(UUID userId, UUID projectId) {
+        Key key = new Key(userId, projectId);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired()) {
+            if (entry != null && entry.isTooStale()) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        if (entry.getPermissions() == null) {
+            negativeHits.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    // Last known entry even if expired (up to max-stale-ms); only used as a fallback while
+    // Projects-Service is unavailable
+    public Entry getStale(UUID userId, UUID projectId) {
+        Entry entry = entries.get(new Key(userId, projectId));
+        return entry != null && !entry.isTooStale() ? entry : null;
+    }
+
+    public void put(UUID userId, UUID projectId, Map<String, Object> permissions) {
+        if (entries.size() >= maxEntries) {
+            evictTooStale();
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        long ttl = permissions != null ? ttlMs : negativeTtlMs;
+        long expiresAt = System.nanoTime() + ttl * 1_000_000L;
+        entries.put(new Key(userId, projectId), new Entry(permissions, expiresAt, expiresAt + maxStaleMs * 1_000_000L));
+    }
+
+    public void invalidate(UUID userId, UUID projectId) {
+        if (entries.remove(new Key(userId, projectId)) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateProject(UUID projectId) {
+        entries.keySet().removeIf(key -> {
+            boolean match = key.projectId.equals(projectId);
+            if (match) {
+                invalidations.increment();
+            }
+            return match;
+        });
+    }
+
+    public void invalidateAll() {
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum() + negativeHits.sum();
+        long total = hitCount + misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private void evictTooStale() {
+        entries.values().removeIf(Entry::isTooStale);
+    }
+
+    public static class Entry {
+        private final Map<String, Object> permissions;
+        private final long expiresAtNanos;
+        private final long staleUntilNanos;
+
+        Entry(Map<String, Object> permissions, long expiresAtNanos, long staleUntilNanos) {
+            this.permissions = permissions;
+            this.expiresAtNanos = expiresAtNanos;
+            this.staleUntilNanos = staleUntilNanos;
+        }
+
+        public Map<String, Object> getPermissions() { return permissions; }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+
+        boolean isTooStale() {
+            return System.nanoTime() - staleUntilNanos > 0;
+        }
+    }
+
+    private static final class Key {
+        private final UUID userId;
+        private final UUID projectId;
+
+        Key(UUID userId, UUID projectId) {
+            this.userId = userId;
+            this.projectId = projectId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return userId.equals(other.userId) && projectId.equals(other.projectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, projectId);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.tmnhat.tasksservice.utils;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.tmnhat.common.config.ServiceUrls;
+import com.tmnhat.common.resilience.ResilienceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 
 import java.util.Map;
 import java.util.UUID;
@@ -11,10 +13,17 @@ import java.util.UUID;
 @Component
 public class PermissionUtil {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private PermissionCache permissionCache;
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
     
-    @Value("${projects.service.url:http://14.225.210.28:8083}")
-    private String PROJECTS_SERVICE_URL;
+    @Autowired
+    private ServiceUrls serviceUrls;
 
     // Permission types enum
     public enum TaskPermission {
@@ -29,31 +38,62 @@ public class PermissionUtil {
 
     // Check if user has permission for task operation
     public boolean hasTaskPermission(UUID userId, UUID projectId, TaskPermission permission) {
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        if (permissions == null) {
+            return false;
+        }
+        return checkTaskPermission(permissions, permission);
+    }
+
+    // Permission map of a user in a project (null if not a member or on error), served from
+    // PermissionCache when possible so repeated checks in one request cost a map lookup
+    public Map<String, Object> getPermissions(UUID userId, UUID projectId) {
+        if (userId == null || projectId == null) {
+            return null;
+        }
+
+        PermissionCache.Entry cached = permissionCache.get(userId, projectId);
+        if (cached != null) {
+            return cached.getPermissions();
+        }
+
+        // When Projects-Service is failing or saturated, answer from the last known entry (or deny)
+        return resilienceRegistry.guard(ResilienceRegistry.PROJECTS_SERVICE).call(
+                () -> fetchPermissions(userId, projectId),
+                () -> stalePermissions(userId, projectId));
+    }
+
+    private Map<String, Object> fetchPermissions(UUID userId, UUID projectId) {
+        // Get user permissions from Projects-Service
+        String url = String.format("%s/api/projects/%s/members/%s/permissions", 
+                                 serviceUrls.getProjectsServiceUrl(), projectId, userId);
+        
+        Map<String, Object> response;
         try {
-            // Get user permissions from Projects-Service
-            String url = String.format("%s/api/projects/%s/members/%s/permissions", 
-                                     PROJECTS_SERVICE_URL, projectId, userId);
-            
             @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response == null || !"SUCCESS".equals(response.get("status"))) {
-                return false;
-            }
-            
+            Map<String, Object> fetched = restTemplate.getForObject(url, Map.class);
+            response = fetched;
+        } catch (HttpClientErrorException e) {
+            // A 4xx is an answer, not an outage: deny as before, without tripping the breaker
+            System.err.println("Permission lookup rejected for user " + userId + " in project " + projectId + ": " + e.getStatusCode());
+            return null;
+        }
+        
+        Map<String, Object> permissions = null;
+        if (response != null && "SUCCESS".equals(response.get("status"))) {
             @SuppressWarnings("unchecked")
-            Map<String, Object> permissions = (Map<String, Object>) response.get("data");
-            
-            if (permissions == null) {
-                return false;
-            }
-            
-            return checkTaskPermission(permissions, permission);
-            
-        } catch (RestClientException e) {
-            System.err.println("Error checking permissions: " + e.getMessage());
-            return false;
+            Map<String, Object> data = (Map<String, Object>) response.get("data");
+            permissions = data;
         }
+        
+        // Cache "not a member" answers too, with the shorter negative TTL
+        permissionCache.put(userId, projectId, permissions);
+        return permissions;
+    }
+
+    private Map<String, Object> stalePermissions(UUID userId, UUID projectId) {
+        PermissionCache.Entry stale = permissionCache.getStale(userId, projectId);
+        return stale != null ? stale.getPermissions() : null;
     }
 
     // Check specific task permission based on user role
@@ -98,24 +138,10 @@ public class PermissionUtil {
         }
     }
 
-    // Get user role in project
+    // Get user role in project (taken from the same cached permission map)
     public String getUserRole(UUID userId, UUID projectId) {
-        try {
-            String url = String.format("%s/api/projects/%s/members/%s/role", 
-                                     PROJECTS_SERVICE_URL, projectId, userId);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && "SUCCESS".equals(response.get("status"))) {
-                return (String) response.get("data");
-            }
-            
-            return null;
-        } catch (RestClientException e) {
-            System.err.println("Error getting user role: " + e.getMessage());
-            return null;
-        }
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        return permissions != null ? (String) permissions.get("role") : null;
     }
 
     // Check if user can update specific task (created by them OR assigned to them OR has admin rights)
@@ -153,32 +179,14 @@ public class PermissionUtil {
         }
         
         // Otherwise, check if they are project owner (ONLY project owners, not scrum masters)
-        try {
-            String url = String.format("%s/api/projects/%s/members/%s/permissions", 
-                                     PROJECTS_SERVICE_URL, projectId, userId);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response == null || !"SUCCESS".equals(response.get("status"))) {
-                return false;
-            }
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> permissions = (Map<String, Object>) response.get("data");
-            
-            if (permissions == null) {
-                return false;
-            }
-            
-            // ✅ ONLY project owners can delete tasks (not scrum masters)
-            Boolean isOwner = (Boolean) permissions.get("isOwner");
-            return Boolean.TRUE.equals(isOwner);
-            
-        } catch (RestClientException e) {
-            System.err.println("Error checking delete permissions: " + e.getMessage());
+        Map<String, Object> permissions = getPermissions(userId, projectId);
+        if (permissions == null) {
             return false;
         }
+        
+        // ✅ ONLY project owners can delete tasks (not scrum masters)
+        Boolean isOwner = (Boolean) permissions.get("isOwner");
+        return Boolean.TRUE.equals(isOwner);
     }
 
     // Permission check result wrapper
@@ -0,0 +1,262 @@
+package com.tmnhat.tasksservice.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory dependency graph of one project, built from task_links.
+ * A row (task_id, related_task_id) means related_task_id blocks task_id.
+ * The graph is kept acyclic: edges that would close a cycle are rejected.
+ */
+public class TaskDependencyGraph {
+
+    private final Map<UUID, Integer> storyPoints = new LinkedHashMap<>();
+    // task -> tasks it waits on
+    private final Map<UUID, Set<UUID>> blockers = new HashMap<>();
+    // task -> tasks waiting on it
+    private final Map<UUID, Set<UUID>> blocking = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Mutations ---
+
+    public void putTask(UUID taskId, int storyPoint) {
+        lock.writeLock().lock();
+        try {
+            storyPoints.put(taskId, Math.max(storyPoint, 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTask(UUID taskId) {
+        lock.writeLock().lock();
+        try {
+            storyPoints.remove(taskId);
+            Set<UUID> waitsOn = blockers.remove(taskId);
+            if (waitsOn != null) {
+                for (UUID blocker : waitsOn) {
+                    removeFrom(blocking, blocker, taskId);
+                }
+            }
+            Set<UUID> waiting = blocking.remove(taskId);
+            if (waiting != null) {
+                for (UUID dependent : waiting) {
+                    removeFrom(blockers, dependent, taskId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds "blockerId blocks taskId". Returns false (and changes nothing) if that would create a cycle.
+    public boolean addDependency(UUID taskId, UUID blockerId) {
+        lock.writeLock().lock();
+        try {
+            if (createsCycle(taskId, blockerId)) {
+                return false;
+            }
+            storyPoints.putIfAbsent(taskId, 0);
+            storyPoints.putIfAbsent(blockerId, 0);
+            blockers.computeIfAbsent(taskId, k -> new LinkedHashSet<>()).add(blockerId);
+            blocking.computeIfAbsent(blockerId, k -> new LinkedHashSet<>()).add(taskId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDependency(UUID taskId, UUID blockerId) {
+        lock.writeLock().lock();
+        try {
+            removeFrom(blockers, taskId, blockerId);
+            removeFrom(blocking, blockerId, taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Queries ---
+
+    public boolean containsTask(UUID taskId) {
+        lock.readLock().lock();
+        try {
+            return storyPoints.containsKey(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean wouldCreateCycle(UUID taskId, UUID blockerId) {
+        lock.readLock().lock();
+        try {
+            return createsCycle(taskId, blockerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tasks that must finish before taskId can start
+    public List<UUID> getBlockers(UUID taskId, boolean transitive) {
+        lock.readLock().lock();
+        try {
+            return transitive ? reachable(blockers, taskId) : new ArrayList<>(blockers.getOrDefault(taskId, Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tasks that are waiting on taskId
+    public List<UUID> getBlockedBy(UUID taskId, boolean transitive) {
+        lock.readLock().lock();
+        try {
+            return transitive ? reachable(blocking, taskId) : new ArrayList<>(blocking.getOrDefault(taskId, Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Kahn's algorithm: every task appears after all of its blockers
+    public List<UUID> topologicalOrder() {
+        lock.readLock().lock();
+        try {
+            return sortTopologically();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Longest chain of dependent tasks, weighted by story points
+    public CriticalPath criticalPath() {
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> distance = new HashMap<>();
+            Map<UUID, UUID> previous = new HashMap<>();
+            UUID end = null;
+            int best = 0;
+
+            for (UUID taskId : sortTopologically()) {
+                int longestBefore = 0;
+                UUID via = null;
+                for (UUID blocker : blockers.getOrDefault(taskId, Collections.emptySet())) {
+                    int d = distance.get(blocker);
+                    if (via == null || d > longestBefore) {
+                        longestBefore = d;
+                        via = blocker;
+                    }
+                }
+                int d = longestBefore + storyPoints.getOrDefault(taskId, 0);
+                distance.put(taskId, d);
+                if (via != null) {
+                    previous.put(taskId, via);
+                }
+                if (end == null || d > best) {
+                    best = d;
+                    end = taskId;
+                }
+            }
+
+            List<UUID> path = new ArrayList<>();
+            for (UUID at = end; at != null; at = previous.get(at)) {
+                path.add(at);
+            }
+            Collections.reverse(path);
+            return new CriticalPath(best, path);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return storyPoints.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helpers (caller holds the lock) ---
+
+    // Adding blockerId -> taskId closes a cycle iff taskId already (transitively) blocks blockerId
+    private boolean createsCycle(UUID taskId, UUID blockerId) {
+        if (taskId.equals(blockerId)) {
+            return true;
+        }
+        return reachable(blockers, blockerId).contains(taskId);
+    }
+
+    private List<UUID> reachable(Map<UUID, Set<UUID>> edges, UUID start) {
+        Set<UUID> seen = new LinkedHashSet<>();
+        Deque<UUID> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (UUID next : edges.getOrDefault(stack.pop(), Collections.emptySet())) {
+                if (seen.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        seen.remove(start);
+        return new ArrayList<>(seen);
+    }
+
+    private List<UUID> sortTopologically() {
+        Map<UUID, Integer> inDegree = new LinkedHashMap<>();
+        for (UUID taskId : storyPoints.keySet()) {
+            inDegree.put(taskId, blockers.getOrDefault(taskId, Collections.emptySet()).size());
+        }
+        Deque<UUID> ready = new ArrayDeque<>();
+        inDegree.forEach((taskId, degree) -> {
+            if (degree == 0) {
+                ready.add(taskId);
+            }
+        });
+
+        List<UUID> order = new ArrayList<>(inDegree.size());
+        while (!ready.isEmpty()) {
+            UUID taskId = ready.poll();
+            order.add(taskId);
+            for (UUID dependent : blocking.getOrDefault(taskId, Collections.emptySet())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static void removeFrom(Map<UUID, Set<UUID>> edges, UUID from, UUID to) {
+        Set<UUID> targets = edges.get(from);
+        if (targets != null) {
+            targets.remove(to);
+            if (targets.isEmpty()) {
+                edges.remove(from);
+            }
+        }
+    }
+
+    // Critical path result: total story points and the chain of tasks from first blocker to last dependent
+    public static class CriticalPath {
+        private final int length;
+        private final List<UUID> path;
+
+        public CriticalPath(int length, List<UUID> path) {
+            this.length = length;
+            this.path = path;
+        }
+
+        public int getLength() { return length; }
+        public List<UUID> getPath() { return path; }
+    }
+}
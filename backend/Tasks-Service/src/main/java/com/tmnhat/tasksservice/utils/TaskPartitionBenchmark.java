@@ -0,0 +1,116 @@
+package com.tmnhat.tasksservice.utils;
+
+import com.tmnhat.common.config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-project query latency of the task list queries against two copies of the tasks table, e.g.
+ * before and after TaskRepartitionTool (tasks vs tasks_partitioned before the swap,
+ * tasks_unpartitioned vs tasks after it). Projects are the largest ones plus an equal number of
+ * random ones, so both big tenants and everyone else are measured.
+ *
+ *   java -cp target/classes:$(cat cp.txt) com.tmnhat.tasksservice.utils.TaskPartitionBenchmark [before] [after] [projects] [rounds]
+ */
+public class TaskPartitionBenchmark {
+
+    // The shapes TasksDAO runs for a project board (see getTasksByProjectId / getTasksByProjectIdSorted)
+    private static final String[] QUERIES = {
+            "SELECT * FROM %s WHERE project_id = ? AND deleted_at IS NULL",
+            "SELECT * FROM %s WHERE project_id = ? AND deleted_at IS NULL ORDER BY updated_at DESC NULLS LAST",
+            "SELECT status, count(*) FROM %s WHERE project_id = ? AND deleted_at IS NULL GROUP BY status",
+    };
+
+    public static void main(String[] args) throws Exception {
+        String before = args.length > 0 ? args[0] : "tasks";
+        String after = args.length > 1 ? args[1] : "tasks_partitioned";
+        int projectCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<UUID> projects = sampleProjects(conn, before, projectCount);
+            System.out.printf("%d project(s), %d round(s) per query%n", projects.size(), rounds);
+            for (String query : QUERIES) {
+                System.out.println();
+                System.out.println(query.formatted("<table>"));
+                for (String table : new String[]{before, after}) {
+                    // Warm up caches and plans before timing
+                    run(conn, query.formatted(table), projects, 2);
+                    long[] latencies = run(conn, query.formatted(table), projects, rounds);
+                    Arrays.sort(latencies);
+                    System.out.printf("  %-22s p50 %8.3f ms  p95 %8.3f ms  p99 %8.3f ms  partitions scanned %s%n", table,
+                            percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                            scannedRelations(conn, query.formatted(table), projects.get(0)));
+                }
+            }
+        }
+    }
+
+    private static List<UUID> sampleProjects(Connection conn, String table, int count) throws SQLException {
+        String sql = ("(SELECT project_id FROM %1$s WHERE project_id IS NOT NULL GROUP BY project_id ORDER BY count(*) DESC LIMIT ?) " +
+                      "UNION (SELECT DISTINCT project_id FROM %1$s WHERE project_id IS NOT NULL ORDER BY random() LIMIT ?)").formatted(table);
+        List<UUID> projects = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, Math.max(1, count / 2));
+            stmt.setInt(2, Math.max(1, count - count / 2));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        if (projects.isEmpty()) {
+            throw new IllegalStateException(table + " has no tasks with a project");
+        }
+        return projects;
+    }
+
+    private static long[] run(Connection conn, String sql, List<UUID> projects, int rounds) throws SQLException {
+        long[] latencies = new long[projects.size() * rounds];
+        int i = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int round = 0; round < rounds; round++) {
+                for (UUID project : projects) {
+                    long start = System.nanoTime();
+                    stmt.setObject(1, project);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            // read every row, like the DAO does
+                        }
+                    }
+                    latencies[i++] = System.nanoTime() - start;
+                }
+            }
+        }
+        return latencies;
+    }
+
+    // Number of table scans in the plan: 1 when the planner pruned to a single partition
+    private static long scannedRelations(Connection conn, String sql, UUID project) throws SQLException {
+        long scans = 0;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql.replace("?", "'" + project + "'::uuid"))) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String line = rs.getString(1);
+                    // a bitmap scan shows up as an index node under its heap scan node
+                    if (line.contains("Scan") && !line.contains("Bitmap Index Scan")) {
+                        scans++;
+                    }
+                }
+            }
+        }
+        return scans;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1_000_000.0;
+    }
+}
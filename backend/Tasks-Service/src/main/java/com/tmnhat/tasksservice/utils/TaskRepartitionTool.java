@@ -0,0 +1,392 @@
+package com.tmnhat.tasksservice.utils;
+
+import com.tmnhat.common.config.DatabaseConnection;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Online migration of the tasks table to declarative hash partitioning by project_id, so every
+ * project-scoped query (WHERE project_id = ?) touches one partition with its own small indexes.
+ * The service keeps running during the migration; only the final swap takes a short write lock.
+ *
+ *   prepare [partitions]   create tasks_partitioned (HASH (project_id), default 16 partitions),
+ *                          copy the non-unique indexes of tasks and start capturing changes
+ *   copy [chunk] [pauseMs] copy existing rows in id order, chunk rows per transaction
+ *   catchup                apply the changes captured since (repeat until the backlog is small)
+ *   swap                   block writes, apply the rest, rename tasks_partitioned to tasks and
+ *                          replace the foreign keys referencing tasks (see below)
+ *   status                 row counts, captured-change backlog and references to tasks
+ *
+ *   java -cp target/classes:$(cat cp.txt) com.tmnhat.tasksservice.utils.TaskRepartitionTool prepare 16
+ *
+ * Compare query latency before and after with TaskPartitionBenchmark (tasks vs tasks_partitioned
+ * once copy and catchup are done, before the swap).
+ *
+ * The old table stays as tasks_unpartitioned until dropped by hand. A partitioned table cannot
+ * have a unique key without the partition key, so tasks gets UNIQUE (project_id, id) plus a plain
+ * index on id (lookups by id alone probe one small index per partition). For the same reason a
+ * foreign key can no longer reference tasks(id): swap replaces each one (comments.task_id,
+ * task_members.task_id, tasks.parent_task_id, ...) by a pair of triggers in the same transaction,
+ * one on the referencing table that checks the task exists (and key-share locks it, as a foreign
+ * key does) and one on tasks that applies the key's ON DELETE action. Task ids never change, so
+ * ON UPDATE is not carried over. prepare refuses foreign keys to tasks other than single-column
+ * ones to tasks(id).
+ */
+public class TaskRepartitionTool {
+
+    private static final String TARGET = "tasks_partitioned";
+    private static final String OLD = "tasks_unpartitioned";
+    private static final String LOG = "tasks_repartition_log";
+    private static final String INDEX_SUFFIX = "_part";
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "status";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            switch (command) {
+                case "prepare" -> prepare(conn, args.length > 1 ? Integer.parseInt(args[1]) : 16);
+                case "copy" -> copy(conn, args.length > 1 ? Integer.parseInt(args[1]) : 5_000,
+                        args.length > 2 ? Long.parseLong(args[2]) : 100);
+                case "catchup" -> System.out.println("Applied " + catchup(conn, 5_000) + " captured change(s)");
+                case "swap" -> swap(conn);
+                case "status" -> status(conn);
+                default -> System.err.println("Unknown command " + command + " (prepare, copy, catchup, swap, status)");
+            }
+        }
+    }
+
+    // A foreign key to tasks(id): constraint oid and name, referencing table (quoted) and column,
+    // and its ON DELETE action (pg_constraint.confdeltype)
+    static final class Reference {
+        final long oid;
+        final String name;
+        final String table;
+        final String column;
+        final String onDelete;
+        final boolean fromTasks;
+
+        Reference(long oid, String name, String table, String column, String onDelete, boolean fromTasks) {
+            this.oid = oid;
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.onDelete = onDelete;
+            this.fromTasks = fromTasks;
+        }
+
+        @Override
+        public String toString() {
+            return table + "." + column + " (ON DELETE " + switch (onDelete) {
+                case "c" -> "CASCADE";
+                case "n" -> "SET NULL";
+                case "d" -> "SET DEFAULT";
+                case "r" -> "RESTRICT";
+                default -> "NO ACTION";
+            } + ")";
+        }
+    }
+
+    static void prepare(Connection conn, int partitions) throws SQLException {
+        // Fails on foreign keys swap could not replace, before anything is created
+        List<Reference> references = references(conn);
+        List<String> indexes = strings(conn,
+                "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() AND tablename = 'tasks' AND indexdef NOT LIKE 'CREATE UNIQUE%'");
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + TARGET + " (LIKE tasks INCLUDING ALL EXCLUDING INDEXES) PARTITION BY HASH (project_id)");
+            for (int i = 0; i < partitions; i++) {
+                stmt.execute(String.format("CREATE TABLE %s_p%d PARTITION OF %s FOR VALUES WITH (MODULUS %d, REMAINDER %d)",
+                        TARGET, i, TARGET, partitions, i));
+            }
+            stmt.execute("ALTER TABLE " + TARGET + " ADD CONSTRAINT tasks" + INDEX_SUFFIX + "_project_id_id_key UNIQUE (project_id, id)");
+            stmt.execute("CREATE INDEX idx_tasks_id" + INDEX_SUFFIX + " ON " + TARGET + " (id)");
+            for (String definition : indexes) {
+                // CREATE INDEX name ON [schema.]tasks USING ... -> CREATE INDEX name_part ON [schema.]tasks_partitioned USING ...
+                stmt.execute(definition.replaceFirst("INDEX (\\S+) ON (ONLY )?(\\S+\\.)?tasks ", "INDEX $1" + INDEX_SUFFIX + " ON $3" + TARGET + " "));
+            }
+
+            // Every write to tasks from here on is replayed by catchup/swap
+            stmt.execute("CREATE TABLE " + LOG + " (seq BIGSERIAL PRIMARY KEY, task_id UUID NOT NULL)");
+            stmt.execute("CREATE INDEX ON " + LOG + " (task_id)");
+            stmt.execute("CREATE OR REPLACE FUNCTION tasks_repartition_capture() RETURNS trigger AS $$ BEGIN "
+                    + "INSERT INTO " + LOG + " (task_id) VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END); "
+                    + "RETURN NULL; END $$ LANGUAGE plpgsql");
+            stmt.execute("CREATE TRIGGER tasks_repartition_capture AFTER INSERT OR UPDATE OR DELETE ON tasks "
+                    + "FOR EACH ROW EXECUTE FUNCTION tasks_repartition_capture()");
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        System.out.println("Prepared " + TARGET + " with " + partitions + " partitions and " + indexes.size() + " copied index(es)");
+        if (!references.isEmpty()) {
+            System.out.println("swap will replace the foreign keys " + references + " by triggers");
+        }
+    }
+
+    // Copies in id order, one short transaction per chunk; rows already copied (a rerun after an
+    // interruption) are replaced, so copy can simply be started again from the beginning. The
+    // delete and insert are separate statements: as sibling CTEs the insert would not see the
+    // delete and a rerun would hit UNIQUE (project_id, id).
+    static void copy(Connection conn, int chunk, long pauseMs) throws SQLException, InterruptedException {
+        String chunkIds = "SELECT id FROM tasks WHERE id > ? ORDER BY id LIMIT ?";
+        String replace = "DELETE FROM " + TARGET + " WHERE id IN (" + chunkIds + ")";
+        String insert = """
+            WITH copied AS (
+                INSERT INTO %s SELECT * FROM tasks WHERE id IN (%s) RETURNING id
+            )
+            SELECT count(*), max(id::text) FROM copied -- text order of a uuid is its sort order
+        """.formatted(TARGET, chunkIds);
+        UUID after = new UUID(0, 0);
+        long total = 0;
+        conn.setAutoCommit(false);
+        try (PreparedStatement replaceStmt = conn.prepareStatement(replace);
+             PreparedStatement insertStmt = conn.prepareStatement(insert)) {
+            // Both statements of a chunk must see the same rows
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            while (true) {
+                int copied;
+                try {
+                    replaceStmt.setObject(1, after);
+                    replaceStmt.setInt(2, chunk);
+                    replaceStmt.executeUpdate();
+                    insertStmt.setObject(1, after);
+                    insertStmt.setInt(2, chunk);
+                    try (ResultSet rs = insertStmt.executeQuery()) {
+                        rs.next();
+                        copied = rs.getInt(1);
+                        if (copied > 0) {
+                            after = UUID.fromString(rs.getString(2));
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                total += copied;
+                if (copied < chunk) {
+                    break;
+                }
+                if (total % (chunk * 20L) == 0) {
+                    System.out.println("Copied " + total + " row(s)");
+                }
+                Thread.sleep(pauseMs);
+            }
+        } finally {
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            conn.setAutoCommit(true);
+        }
+        System.out.println("Copied " + total + " row(s); run catchup, then swap");
+    }
+
+    // Replays captured changes in batches: the current row of every changed task replaces its copy
+    // (or removes it when the task is gone). Delete and insert are separate statements, as in copy;
+    // a task that moved to another project has its old copy removed from the old partition. Each
+    // batch is its own transaction, unless the caller (swap) already has one open. Returns the
+    // number of changes applied.
+    static long catchup(Connection conn, int batch) throws SQLException {
+        String drain = "DELETE FROM " + LOG + " WHERE task_id IN (SELECT task_id FROM " + LOG + " ORDER BY seq LIMIT ?) RETURNING task_id";
+        String replace = "DELETE FROM " + TARGET + " WHERE id = ANY(?)";
+        String insert = "INSERT INTO " + TARGET + " SELECT * FROM tasks WHERE id = ANY(?)";
+        boolean ownTransactions = conn.getAutoCommit();
+        long total = 0;
+        try (PreparedStatement drainStmt = conn.prepareStatement(drain);
+             PreparedStatement replaceStmt = conn.prepareStatement(replace);
+             PreparedStatement insertStmt = conn.prepareStatement(insert)) {
+            if (ownTransactions) {
+                conn.setAutoCommit(false);
+            }
+            while (true) {
+                int applied = 0;
+                try {
+                    drainStmt.setInt(1, batch);
+                    Set<UUID> changed = new HashSet<>();
+                    try (ResultSet rs = drainStmt.executeQuery()) {
+                        while (rs.next()) {
+                            changed.add(rs.getObject(1, UUID.class));
+                            applied++;
+                        }
+                    }
+                    if (!changed.isEmpty()) {
+                        Array ids = conn.createArrayOf("uuid", changed.toArray());
+                        replaceStmt.setArray(1, ids);
+                        replaceStmt.executeUpdate();
+                        insertStmt.setArray(1, ids);
+                        insertStmt.executeUpdate();
+                    }
+                    if (ownTransactions) {
+                        conn.commit();
+                    }
+                } catch (SQLException e) {
+                    if (ownTransactions) {
+                        conn.rollback();
+                    }
+                    throw e;
+                }
+                total += applied;
+                if (applied == 0) {
+                    return total;
+                }
+            }
+        } finally {
+            if (ownTransactions) {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    static void swap(Connection conn) throws SQLException {
+        // Get the bulk of the backlog out of the way before writes are blocked
+        catchup(conn, 5_000);
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LOCAL lock_timeout = '5s'");
+            // Reads go on; writers wait until commit and then see the new table
+            stmt.execute("LOCK TABLE tasks IN EXCLUSIVE MODE");
+            long applied = catchup(conn, 5_000);
+            List<Reference> references = references(conn);
+            stmt.execute("DROP TRIGGER tasks_repartition_capture ON tasks");
+            stmt.execute("ALTER TABLE tasks RENAME TO " + OLD);
+            stmt.execute("ALTER TABLE " + TARGET + " RENAME TO tasks");
+            replaceReferences(stmt, references);
+            // The copied indexes take over the original names (the schema scripts create them by name)
+            for (String index : strings(conn, "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() "
+                    + "AND tablename = 'tasks' AND indexname LIKE '%" + INDEX_SUFFIX + "'")) {
+                String original = index.substring(0, index.length() - INDEX_SUFFIX.length());
+                stmt.execute("ALTER INDEX IF EXISTS " + original + " RENAME TO " + original + "_unpart");
+                stmt.execute("ALTER INDEX " + index + " RENAME TO " + original);
+            }
+            stmt.execute("DROP TABLE " + LOG);
+            stmt.execute("DROP FUNCTION tasks_repartition_capture()");
+            conn.commit();
+            System.out.println("Swapped in the partitioned tasks table (" + applied + " final change(s) applied); old table kept as " + OLD);
+            if (!references.isEmpty()) {
+                System.out.println("Foreign keys " + references + " replaced by triggers");
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    static void status(Connection conn) throws SQLException {
+        System.out.println("tasks: " + strings(conn, "SELECT count(*)::text FROM tasks"));
+        String target = strings(conn, "SELECT to_regclass('" + TARGET + "')::text").get(0);
+        if (target != null) {
+            System.out.println(TARGET + ": " + strings(conn, "SELECT count(*)::text FROM " + TARGET));
+            System.out.println("captured changes pending: " + strings(conn, "SELECT count(*)::text FROM " + LOG));
+        }
+        System.out.println("partitions of tasks: " + strings(conn,
+                "SELECT count(*)::text FROM pg_inherits WHERE inhparent = 'tasks'::regclass"));
+        System.out.println("foreign keys to tasks: " + references(conn));
+        System.out.println("references enforced by triggers: " + strings(conn,
+                "SELECT tgrelid::regclass::text || ' ' || tgname FROM pg_trigger WHERE tgfoid = to_regproc('tasks_fk_check')"));
+    }
+
+    // Foreign keys referencing tasks; fails if one is not a single-column key to tasks(id)
+    static List<Reference> references(Connection conn) throws SQLException {
+        String sql = """
+            SELECT c.oid, c.conname, c.conrelid::regclass::text AS referencing, a.attname, c.confdeltype::text,
+                   array_length(c.conkey, 1) = 1 AND r.attname = 'id' AS simple, c.conrelid = c.confrelid AS from_tasks
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+            JOIN pg_attribute r ON r.attrelid = c.confrelid AND r.attnum = c.confkey[1]
+            WHERE c.contype = 'f' AND c.confrelid = 'tasks'::regclass
+            ORDER BY c.oid
+        """;
+        List<Reference> references = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                if (!rs.getBoolean("simple")) {
+                    throw new IllegalStateException("Foreign key " + rs.getString("conname") + " on " + rs.getString("referencing")
+                            + " does not reference tasks(id) alone; replace it by hand first");
+                }
+                references.add(new Reference(rs.getLong("oid"), rs.getString("conname"), rs.getString("referencing"),
+                        rs.getString("attname"), rs.getString("confdeltype"), rs.getBoolean("from_tasks")));
+            }
+        }
+        return references;
+    }
+
+    // Runs in the swap transaction, after the rename: the foreign keys (now pointing at the old
+    // table) are dropped and each is enforced by a check trigger on the referencing table and a
+    // delete trigger on the new tasks table. tasks' own key (parent_task_id) moves to the new table
+    // and is left on the old one.
+    private static void replaceReferences(Statement stmt, List<Reference> references) throws SQLException {
+        if (references.isEmpty()) {
+            return;
+        }
+        stmt.execute("""
+            CREATE OR REPLACE FUNCTION tasks_fk_check() RETURNS trigger AS $$
+            DECLARE ref_id UUID;
+            BEGIN
+                EXECUTE format('SELECT ($1).%I', TG_ARGV[0]) INTO ref_id USING NEW;
+                IF ref_id IS NOT NULL THEN
+                    PERFORM 1 FROM tasks WHERE id = ref_id FOR KEY SHARE;
+                    IF NOT FOUND THEN
+                        RAISE foreign_key_violation USING MESSAGE = format('%s.%s = %s: no such task', TG_TABLE_NAME, TG_ARGV[0], ref_id);
+                    END IF;
+                END IF;
+                RETURN NULL;
+            END $$ LANGUAGE plpgsql""");
+        stmt.execute("""
+            CREATE OR REPLACE FUNCTION tasks_fk_on_delete() RETURNS trigger AS $$
+            DECLARE referenced BOOLEAN;
+            BEGIN
+                IF TG_ARGV[2] = 'c' THEN
+                    EXECUTE format('DELETE FROM %s WHERE %I = $1', TG_ARGV[0], TG_ARGV[1]) USING OLD.id;
+                ELSIF TG_ARGV[2] = 'n' THEN
+                    EXECUTE format('UPDATE %s SET %I = NULL WHERE %I = $1', TG_ARGV[0], TG_ARGV[1], TG_ARGV[1]) USING OLD.id;
+                ELSIF TG_ARGV[2] = 'd' THEN
+                    EXECUTE format('UPDATE %s SET %I = DEFAULT WHERE %I = $1', TG_ARGV[0], TG_ARGV[1], TG_ARGV[1]) USING OLD.id;
+                ELSE
+                    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %s WHERE %I = $1)', TG_ARGV[0], TG_ARGV[1]) INTO referenced USING OLD.id;
+                    IF referenced THEN
+                        RAISE foreign_key_violation USING MESSAGE = format('task %s is still referenced from %s.%s', OLD.id, TG_ARGV[0], TG_ARGV[1]);
+                    END IF;
+                END IF;
+                RETURN NULL;
+            END $$ LANGUAGE plpgsql""");
+        for (Reference reference : references) {
+            String table = reference.fromTasks ? "tasks" : reference.table;
+            if (!reference.fromTasks) {
+                stmt.execute("ALTER TABLE " + reference.table + " DROP CONSTRAINT " + quote(reference.name));
+            }
+            // Named after the constraint oid: names must be unique per table, and tasks can be on both sides
+            String args = literal(table) + ", " + literal(reference.column) + ", " + literal(reference.onDelete);
+            stmt.execute("CREATE TRIGGER tasks_ref_" + reference.oid + "_check AFTER INSERT OR UPDATE OF " + quote(reference.column)
+                    + " ON " + table + " FOR EACH ROW EXECUTE FUNCTION tasks_fk_check(" + literal(reference.column) + ")");
+            stmt.execute("CREATE TRIGGER tasks_ref_" + reference.oid + "_delete AFTER DELETE ON tasks"
+                    + " FOR EACH ROW EXECUTE FUNCTION tasks_fk_on_delete(" + args + ")");
+        }
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static List<String> strings(Connection conn, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,80 @@
+package com.tmnhat.tasksservice.utils;
+
+import com.tmnhat.tasksservice.repository.TasksDAO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Local cache of user display info (id, username, avatar) for rendering avatars on boards and
+// lists. Misses of one lookup are loaded together in a single query; unknown ids are cached as
+// negative entries so they don't hit the database on every render. Profile changes show up once
+// the entry's TTL runs out.
+@Component
+public class UserDisplayCache {
+
+    private final TasksDAO tasksDAO = new TasksDAO();
+
+    @Value("${users.display-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${users.display-cache.max-entries:20000}")
+    private int maxEntries;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    // Display info of the known users among the ids, keyed by id
+    public Map<UUID, Map<String, Object>> getAll(Collection<UUID> userIds) throws SQLException {
+        Map<UUID, Map<String, Object>> users = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        long now = System.nanoTime();
+        for (UUID id : userIds) {
+            if (id == null || users.containsKey(id)) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            if (entry == null || entry.expiresAt - now < 0) {
+                misses.add(id);
+            } else if (entry.user != null) {
+                users.put(id, entry.user);
+            }
+        }
+        if (misses.isEmpty()) {
+            return users;
+        }
+
+        Map<UUID, Map<String, Object>> loaded = tasksDAO.getUserDisplayByIds(misses);
+        if (entries.size() + misses.size() > maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt - now < 0);
+            if (entries.size() + misses.size() > maxEntries) {
+                entries.clear();
+            }
+        }
+        long expiresAt = now + ttlMs * 1_000_000L;
+        for (UUID id : misses) {
+            Map<String, Object> user = loaded.get(id);
+            entries.put(id, new Entry(user, expiresAt));
+            if (user != null) {
+                users.put(id, user);
+            }
+        }
+        return users;
+    }
+
+    private static class Entry {
+        private final Map<String, Object> user;
+        private final long expiresAt;
+
+        Entry(Map<String, Object> user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
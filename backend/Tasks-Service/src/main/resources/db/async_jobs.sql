@@ -0,0 +1,5 @@
+-- Background jobs (AI training, bulk estimation); result holds the job's JSON output
+CREATE TABLE IF NOT EXISTS async_jobs (id UUID PRIMARY KEY, job_type VARCHAR(50) NOT NULL, status VARCHAR(20) NOT NULL, project_id UUID, requested_by UUID, progress INT NOT NULL DEFAULT 0, total INT NOT NULL DEFAULT 0, result JSONB, error TEXT, cancel_requested BOOLEAN NOT NULL DEFAULT FALSE, created_at TIMESTAMP NOT NULL DEFAULT now(), started_at TIMESTAMP, finished_at TIMESTAMP, updated_at TIMESTAMP NOT NULL DEFAULT now());
+CREATE INDEX IF NOT EXISTS idx_async_jobs_finished_at ON async_jobs (finished_at) WHERE finished_at IS NOT NULL;
+-- At most one active job per type and project (train jobs have no project)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_async_jobs_one_active ON async_jobs (job_type, (COALESCE(project_id, '00000000-0000-0000-0000-000000000000'::uuid))) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,2 @@
+-- Which service stored the file of an attachment row (attachments is shared with File-Service)
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS uploaded_by VARCHAR(32);
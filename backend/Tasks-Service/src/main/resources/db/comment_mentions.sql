@@ -0,0 +1,2 @@
+-- Resolving @mentions looks users up by case-insensitive username
+CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users (lower(username));
@@ -0,0 +1,4 @@
+-- Thread view: keyset page of top-level comments per task
+CREATE INDEX IF NOT EXISTS idx_comments_task_roots ON comments (task_id, created_at, id) WHERE parent_comment_id IS NULL AND is_deleted = false;
+-- Thread view: replies of a comment (recursive step)
+CREATE INDEX IF NOT EXISTS idx_comments_parent ON comments (parent_comment_id) WHERE parent_comment_id IS NOT NULL;
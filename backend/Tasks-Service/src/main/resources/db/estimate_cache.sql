@@ -0,0 +1,2 @@
+-- AI estimate responses by content hash of the estimate request and model version
+CREATE TABLE IF NOT EXISTS estimate_cache (content_hash VARCHAR(64) NOT NULL, model_version VARCHAR(64) NOT NULL, response JSONB NOT NULL, created_at TIMESTAMP NOT NULL DEFAULT now(), PRIMARY KEY (content_hash, model_version));
@@ -0,0 +1,5 @@
+-- High-water marks for the incremental overdue scan
+CREATE TABLE IF NOT EXISTS scan_watermarks (name VARCHAR(100) PRIMARY KEY, value TIMESTAMP NOT NULL, updated_at TIMESTAMP);
+-- Open tasks by due date (partial: only rows the scan can ever return)
+CREATE INDEX IF NOT EXISTS idx_tasks_open_due_date ON tasks (due_date) WHERE deleted_at IS NULL AND status <> 'DONE';
+CREATE INDEX IF NOT EXISTS idx_tasks_updated_at ON tasks (updated_at);
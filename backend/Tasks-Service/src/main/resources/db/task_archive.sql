@@ -0,0 +1,11 @@
+-- Tasks soft-deleted longer than the retention window, moved out of tasks by DeletedTaskArchiver.
+-- The row is kept as JSONB so columns added to tasks later don't break archiving or restoring.
+CREATE TABLE IF NOT EXISTS tasks_archive (id UUID PRIMARY KEY, project_id UUID, deleted_at TIMESTAMP NOT NULL, archived_at TIMESTAMP NOT NULL DEFAULT now(), data JSONB NOT NULL);
+-- Rows that referenced the task (comments, members, ...) when it was archived, as a JSON array of
+-- {table, rows} with referenced tables first; restore puts them back in that order
+ALTER TABLE tasks_archive ADD COLUMN IF NOT EXISTS dependents JSONB;
+-- Deleted-task listing per project
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_project ON tasks_archive (project_id, deleted_at DESC);
+-- Archival scan and deleted-task listing on the hot table (partial: only the deleted rows)
+CREATE INDEX IF NOT EXISTS idx_tasks_deleted_at ON tasks (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_tasks_project_deleted ON tasks (project_id, deleted_at DESC) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,6 @@
+-- Denormalized badge counts per task, maintained by the comment/attachment/member writes (see TaskCounterSql)
+CREATE TABLE IF NOT EXISTS task_counters (task_id UUID PRIMARY KEY, comment_count INT NOT NULL DEFAULT 0, attachment_count INT NOT NULL DEFAULT 0, member_count INT NOT NULL DEFAULT 0, updated_at TIMESTAMP NOT NULL DEFAULT now());
+-- Seeding a missing counter row counts the live rows of one task
+CREATE INDEX IF NOT EXISTS idx_comments_task_live ON comments (task_id) WHERE is_deleted = false;
+CREATE INDEX IF NOT EXISTS idx_attachments_task ON attachments (task_id);
+CREATE INDEX IF NOT EXISTS idx_task_members_task ON task_members (task_id);
@@ -0,0 +1,7 @@
+-- Append-only log of task mutations, one partition per month (created ahead of time by TaskEventService.ensurePartitions)
+CREATE TABLE IF NOT EXISTS task_events (id BIGSERIAL, project_id UUID, task_id UUID NOT NULL, task_title TEXT, event_type VARCHAR(40) NOT NULL, actor_id UUID, from_value TEXT, to_value TEXT, occurred_at TIMESTAMP NOT NULL DEFAULT now(), PRIMARY KEY (occurred_at, id)) PARTITION BY RANGE (occurred_at);
+-- Catches rows outside the monthly partitions; ensurePartitions moves them out when their month's partition is created
+CREATE TABLE IF NOT EXISTS task_events_default PARTITION OF task_events DEFAULT;
+-- Activity feed: keyset scan newest-first per project
+CREATE INDEX IF NOT EXISTS idx_task_events_project_feed ON task_events (project_id, occurred_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_task_events_task ON task_events (task_id, occurred_at DESC);
@@ -0,0 +1,8 @@
+-- Task dependency links: related_task_id blocks task_id
+CREATE TABLE IF NOT EXISTS task_links (
+    task_id UUID NOT NULL,
+    related_task_id UUID NOT NULL,
+    PRIMARY KEY (task_id, related_task_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_links_related_task_id ON task_links (related_task_id);
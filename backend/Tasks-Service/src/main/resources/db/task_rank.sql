@@ -0,0 +1,7 @@
+-- Manual board/backlog order: fractional rank compared bytewise (see FractionalRank)
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS board_rank TEXT COLLATE "C";
+-- Ordered reads with keyset pagination, whole project and per status column
+CREATE INDEX IF NOT EXISTS idx_tasks_project_rank ON tasks (project_id, board_rank, id) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_tasks_project_status_rank ON tasks (project_id, status, board_rank, id) WHERE deleted_at IS NULL;
+-- Tasks the rebalance has to handle: not ranked yet, or rank longer than TasksDAO.MAX_RANK_LENGTH
+CREATE INDEX IF NOT EXISTS idx_tasks_rank_maintenance ON tasks (project_id) WHERE deleted_at IS NULL AND (board_rank IS NULL OR length(board_rank) > 24);
@@ -0,0 +1,2 @@
+-- Row version for optimistic concurrency control, bumped by every write to a task
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,154 @@
+package com.tmnhat.tasksservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FractionalRankTests {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void betweenOpenEndsIsTheMiddleDigit() {
+        assertEquals("V", FractionalRank.between(null, null));
+    }
+
+    @Test
+    void betweenAtTheLowestDigit() {
+        assertBetween(null, "1");
+        assertBetween(null, "01");
+        assertBetween(null, "001");
+        assertBetween("0V", "0W");
+    }
+
+    @Test
+    void betweenAtTheHighestDigit() {
+        assertBetween("z", null);
+        assertBetween("zz", null);
+        assertBetween("y", "z");
+        assertBetween("yz", "z");
+        assertBetween("zy", "zz");
+    }
+
+    @Test
+    void betweenAdjacentRanksGoesDeeper() {
+        assertBetween("V", "V1");
+        assertBetween("Vz", "W");
+        assertBetween("Vzzz", "W");
+    }
+
+    @Test
+    void betweenRandomPairs() {
+        Random random = new Random(62);
+        for (int i = 0; i < 10_000; i++) {
+            String a = randomRank(random);
+            String b = randomRank(random);
+            if (a.equals(b)) {
+                continue;
+            }
+            assertBetween(a.compareTo(b) < 0 ? a : b, a.compareTo(b) < 0 ? b : a);
+        }
+    }
+
+    @Test
+    void betweenRejectsOutOfOrderAndInvalidRanks() {
+        assertThrows(IllegalArgumentException.class, () -> FractionalRank.between("W", "V"));
+        assertThrows(IllegalArgumentException.class, () -> FractionalRank.between("V", "V"));
+        assertThrows(IllegalArgumentException.class, () -> FractionalRank.between(null, "-"));
+    }
+
+    @Test
+    void afterStepsTheThirdDigit() {
+        assertEquals("V", FractionalRank.after(null));
+        assertEquals("V01", FractionalRank.after("V"));
+        assertEquals("V02", FractionalRank.after("V01"));
+        assertEquals("Vz1", FractionalRank.after("Vz"));
+        assertEquals("W", FractionalRank.after("Vzz"));
+        assertEquals("V01", FractionalRank.after("V00xy"));
+    }
+
+    @Test
+    void afterRollsOverZzz() {
+        assertEquals("zzz001", FractionalRank.after("zzz"));
+        assertEquals("zzz002", FractionalRank.after("zzz001"));
+        assertEquals("zzz01", FractionalRank.after("zzz00z"));
+        assertEquals("zzzz01", FractionalRank.after("zzzz"));
+        assertEquals("zzzzzz001", FractionalRank.after("zzzzzz"));
+        assertEquals("zzzA", FractionalRank.after("zzz9zz"));
+    }
+
+    @Test
+    void afterKeepsIncreasing() {
+        String rank = FractionalRank.after(null);
+        for (int i = 0; i < 300_000; i++) {
+            String next = FractionalRank.after(rank);
+            assertTrue(next.compareTo(rank) > 0, next + " is not after " + rank);
+            assertValid(next);
+            rank = next;
+        }
+        // 62^3 - 31 * 62^2 appends fill the first three digits, the rest fit in the next three
+        assertEquals(6, rank.length());
+    }
+
+    @Test
+    void withTieBreakStaysBetweenTheRankAndTheNextOne() {
+        for (String rank : new String[]{"V", "V01", "Vz", "Vzz", "zzz", "zzz001", "zzzz", "0001"}) {
+            for (int i = 0; i < 1_000; i++) {
+                String tieBroken = FractionalRank.withTieBreak(rank);
+                assertTrue(tieBroken.compareTo(rank) > 0, tieBroken + " is not after " + rank);
+                assertTrue(tieBroken.compareTo(FractionalRank.after(rank)) < 0, tieBroken + " is not before " + FractionalRank.after(rank));
+                assertTrue(FractionalRank.after(tieBroken).compareTo(tieBroken) > 0);
+                assertValid(tieBroken);
+            }
+        }
+    }
+
+    @Test
+    void evenlySpacedNearPowersOf62() {
+        for (int count : new int[]{1, 2, 61, 62, 63, 3_843, 3_844, 3_845, 238_327, 238_328}) {
+            String[] ranks = FractionalRank.evenlySpaced(count);
+            assertEquals(count, ranks.length);
+            int width = count < 62 ? 2 : count < 3_844 ? 3 : count < 238_328 ? 4 : 5;
+            for (int i = 0; i < count; i++) {
+                assertValid(ranks[i]);
+                assertTrue(ranks[i].length() <= width, ranks[i] + " longer than " + width + " for " + count);
+                if (i > 0) {
+                    assertTrue(ranks[i].compareTo(ranks[i - 1]) > 0, "ranks " + (i - 1) + " and " + i + " out of order for " + count);
+                }
+            }
+            // Room left at both ends and between neighbours
+            assertBetween(null, ranks[0]);
+            assertBetween(ranks[count - 1], null);
+            if (count > 1) {
+                assertBetween(ranks[0], ranks[1]);
+            }
+        }
+    }
+
+    private static void assertBetween(String before, String after) {
+        String rank = FractionalRank.between(before, after);
+        assertValid(rank);
+        assertTrue(before == null || rank.compareTo(before) > 0, rank + " is not after " + before);
+        assertTrue(after == null || rank.compareTo(after) < 0, rank + " is not before " + after);
+    }
+
+    private static void assertValid(String rank) {
+        assertTrue(!rank.isEmpty() && rank.charAt(rank.length() - 1) != '0', "rank ends in '0': " + rank);
+        for (char c : rank.toCharArray()) {
+            assertTrue(DIGITS.indexOf(c) >= 0, "invalid character in " + rank);
+        }
+    }
+
+    private static String randomRank(Random random) {
+        StringBuilder rank = new StringBuilder();
+        int length = 1 + random.nextInt(5);
+        for (int i = 0; i < length - 1; i++) {
+            rank.append(DIGITS.charAt(random.nextInt(DIGITS.length())));
+        }
+        return rank.append(DIGITS.charAt(1 + random.nextInt(DIGITS.length() - 1))).toString();
+    }
+}
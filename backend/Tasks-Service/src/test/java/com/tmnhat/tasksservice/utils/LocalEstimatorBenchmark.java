@@ -0,0 +1,156 @@
+package com.tmnhat.tasksservice.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Offline benchmark of LocalStoryPointEstimator: build time, query latency and holdout accuracy.
+ * Input is NDJSON with one task per line ({"title", "description", "storyPoint"}, the same rows the
+ * training stream sends); without a file a synthetic data set is generated.
+ *
+ * Lives with the tests so it is not packaged with the service:
+ *
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat cp.txt) com.tmnhat.tasksservice.utils.LocalEstimatorBenchmark [tasks.ndjson] [k]
+ */
+public class LocalEstimatorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        List<Sample> samples = args.length > 0 && !args[0].equals("-") ? readNdjson(Path.of(args[0])) : synthetic(20_000, 42);
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        Collections.shuffle(samples, new Random(7));
+        int trainSize = (int) (samples.size() * 0.8);
+        List<Sample> train = samples.subList(0, trainSize);
+        List<Sample> test = samples.subList(trainSize, samples.size());
+
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(k);
+        long buildStart = System.nanoTime();
+        for (Sample sample : train) {
+            estimator.put(sample.id, sample.title, sample.description, sample.storyPoint);
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+
+        // Warm up the JIT before timing queries
+        for (int i = 0; i < Math.min(2_000, test.size()); i++) {
+            estimator.estimate(test.get(i).title, test.get(i).description);
+        }
+
+        long[] latencies = new long[test.size()];
+        double absoluteError = 0;
+        double baselineError = 0;
+        int exact = 0;
+        int withinOneStep = 0;
+        int unanswered = 0;
+        int median = median(train);
+        for (int i = 0; i < test.size(); i++) {
+            Sample sample = test.get(i);
+            long start = System.nanoTime();
+            LocalStoryPointEstimator.Estimate estimate = estimator.estimate(sample.title, sample.description);
+            latencies[i] = System.nanoTime() - start;
+
+            int expected = LocalStoryPointEstimator.toFibonacci(sample.storyPoint);
+            int predicted = estimate != null ? estimate.getStoryPoints() : median;
+            if (estimate == null) {
+                unanswered++;
+            }
+            absoluteError += Math.abs(predicted - expected);
+            baselineError += Math.abs(median - expected);
+            exact += predicted == expected ? 1 : 0;
+            withinOneStep += Math.abs(step(predicted) - step(expected)) <= 1 ? 1 : 0;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("tasks: %d train / %d test, k=%d%n", train.size(), test.size(), k);
+        System.out.printf("build: %.1f ms (%.2f us/task)%n", buildNanos / 1e6, buildNanos / 1e3 / train.size());
+        System.out.printf("query: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                latencies[latencies.length / 2] / 1e3, latencies[(int) (latencies.length * 0.99)] / 1e3, latencies[latencies.length - 1] / 1e3);
+        System.out.printf("MAE: %.3f (always-median baseline %.3f), exact %.1f%%, within one Fibonacci step %.1f%%, unanswered %d%n",
+                absoluteError / test.size(), baselineError / test.size(),
+                100.0 * exact / test.size(), 100.0 * withinOneStep / test.size(), unanswered);
+    }
+
+    private static List<Sample> readNdjson(Path path) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode row = objectMapper.readTree(line);
+                int points = row.path("storyPoint").asInt(0);
+                if (points > 0 && !row.path("deleted").asBoolean(false)) {
+                    samples.add(new Sample(row.path("title").asText(""), row.path("description").asText(""), points));
+                }
+            }
+        }
+        return samples;
+    }
+
+    // Tasks built from a few vocabularies whose words lean towards a size class, plus noise words
+    private static List<Sample> synthetic(int count, long seed) {
+        String[][] bySize = {
+                {"typo", "label", "color", "text", "rename", "tooltip", "spacing"},
+                {"validation", "message", "toggle", "sort", "filter", "badge", "icon"},
+                {"modal", "pagination", "form", "endpoint", "table", "dropdown", "upload"},
+                {"authentication", "notification", "dashboard", "export", "import", "search", "calendar"},
+                {"integration", "oauth", "payment", "realtime", "websocket", "analytics", "reporting"},
+                {"migration", "architecture", "pipeline", "sharding", "replication", "refactor", "platform"}};
+        int[] points = {1, 2, 3, 5, 8, 13};
+        String[] noise = {"page", "user", "project", "task", "api", "screen", "service", "data", "module", "team"};
+        Random random = new Random(seed);
+        List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = random.nextInt(bySize.length);
+            // Some tasks borrow words from a neighbouring size class
+            int mixed = Math.max(0, Math.min(bySize.length - 1, size + random.nextInt(3) - 1));
+            String title = bySize[size][random.nextInt(7)] + " " + noise[random.nextInt(noise.length)] + " " + bySize[mixed][random.nextInt(7)];
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                String[] vocabulary = random.nextInt(3) == 0 ? noise : bySize[random.nextBoolean() ? size : mixed];
+                description.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            samples.add(new Sample(title, description.toString(), points[size]));
+        }
+        return samples;
+    }
+
+    private static int median(List<Sample> samples) {
+        int[] values = samples.stream().mapToInt(s -> s.storyPoint).sorted().toArray();
+        return LocalStoryPointEstimator.toFibonacci(values[values.length / 2]);
+    }
+
+    private static int step(int fibonacci) {
+        for (int i = 0; i < LocalStoryPointEstimator.FIBONACCI.length; i++) {
+            if (LocalStoryPointEstimator.FIBONACCI[i] == fibonacci) {
+                return i;
+            }
+        }
+        return LocalStoryPointEstimator.FIBONACCI.length - 1;
+    }
+
+    private static class Sample {
+        private final UUID id = UUID.randomUUID();
+        private final String title;
+        private final String description;
+        private final int storyPoint;
+
+        Sample(String title, String description, int storyPoint) {
+            this.title = title;
+            this.description = description;
+            this.storyPoint = storyPoint;
+        }
+    }
+}
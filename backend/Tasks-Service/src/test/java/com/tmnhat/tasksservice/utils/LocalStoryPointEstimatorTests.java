@@ -0,0 +1,111 @@
+package com.tmnhat.tasksservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalStoryPointEstimatorTests {
+
+    @Test
+    void termCountsDropStopWordsAndShortTokensAndWeighTheTitle() {
+        Map<String, Integer> terms = LocalStoryPointEstimator.termCounts("Add login page", "The login form, a page for users");
+
+        assertEquals(3, terms.get("login"));
+        assertEquals(3, terms.get("page"));
+        assertEquals(2, terms.get("add"));
+        assertEquals(1, terms.get("users"));
+        assertFalse(terms.containsKey("the"));
+        assertFalse(terms.containsKey("a"));
+    }
+
+    @Test
+    void toFibonacciSnapsToTheNearestStep() {
+        assertEquals(1, LocalStoryPointEstimator.toFibonacci(0));
+        assertEquals(3, LocalStoryPointEstimator.toFibonacci(4));
+        assertEquals(8, LocalStoryPointEstimator.toFibonacci(7));
+        assertEquals(13, LocalStoryPointEstimator.toFibonacci(12));
+        assertEquals(21, LocalStoryPointEstimator.toFibonacci(100));
+    }
+
+    @Test
+    void estimatesFromTheMostSimilarTasks() {
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(3);
+        UUID payment = UUID.randomUUID();
+        estimator.put(payment, "Payment gateway integration", "Integrate the payment provider webhooks", 13);
+        estimator.put(UUID.randomUUID(), "Payment refunds integration", "Refund flow through the payment provider", 13);
+        estimator.put(UUID.randomUUID(), "Fix button color", "Wrong color on the save button", 1);
+        estimator.put(UUID.randomUUID(), "Fix label typo", "Typo in the settings label", 1);
+
+        LocalStoryPointEstimator.Estimate estimate = estimator.estimate("Payment provider integration", "Subscriptions through the payment provider");
+        assertNotNull(estimate);
+        assertEquals(13, estimate.getStoryPoints());
+        assertTrue(estimate.getTopSimilarity() > 0 && estimate.getTopSimilarity() <= 1.0000001);
+        assertTrue(estimate.getMatchedTerms().contains("payment"));
+        assertTrue(estimate.getNeighbours().size() <= 3);
+
+        LocalStoryPointEstimator.Estimate small = estimator.estimate("Fix color", "Button color on the dialog");
+        assertNotNull(small);
+        assertEquals(1, small.getStoryPoints());
+    }
+
+    @Test
+    void noEstimateWithoutSharedTerms() {
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(5);
+        assertNull(estimator.estimate("Anything", "at all"));
+
+        estimator.put(UUID.randomUUID(), "Payment gateway", "Integrate payments", 8);
+        assertNull(estimator.estimate("Dark mode", "Theme toggle"));
+        assertNull(estimator.estimate("the", "a"));
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsADocument() {
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(5);
+        UUID task = UUID.randomUUID();
+        estimator.put(task, "Export report", "CSV export of the report", 3);
+        estimator.put(task, "Export report", "CSV export of the report", 8);
+        assertEquals(1, estimator.size());
+        assertEquals(8, estimator.estimate("Report export", null).getStoryPoints());
+
+        estimator.remove(task);
+        assertEquals(0, estimator.size());
+        assertNull(estimator.estimate("Report export", null));
+
+        // Freed slots are reused
+        estimator.put(UUID.randomUUID(), "Export report", null, 5);
+        assertEquals(5, estimator.estimate("Report export", null).getStoryPoints());
+    }
+
+    @Test
+    void tasksWithoutPointsOrTermsAreNotIndexed() {
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(5);
+        estimator.put(UUID.randomUUID(), "Export report", null, 0);
+        estimator.put(UUID.randomUUID(), "a", "the", 5);
+        assertEquals(0, estimator.size());
+
+        estimator.put(UUID.randomUUID(), "Export report", null, 5);
+        estimator.clear();
+        assertEquals(0, estimator.size());
+    }
+
+    @Test
+    void normsStayConsistentAsTheCorpusGrows() {
+        LocalStoryPointEstimator estimator = new LocalStoryPointEstimator(1);
+        UUID target = UUID.randomUUID();
+        estimator.put(target, "Websocket notifications", "Realtime websocket channel", 8);
+        for (int i = 0; i < 500; i++) {
+            estimator.put(UUID.randomUUID(), "Filler task " + i, "Unrelated words number " + i, 2);
+        }
+
+        LocalStoryPointEstimator.Estimate estimate = estimator.estimate("Websocket notifications", "Realtime websocket channel");
+        assertEquals(target, estimate.getNeighbours().get(0).getTaskId());
+        assertEquals(1.0, estimate.getTopSimilarity(), 0.05);
+    }
+}
@@ -0,0 +1,114 @@
+package com.tmnhat.tasksservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskDependencyGraphTests {
+
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+    private final UUID c = UUID.randomUUID();
+    private final UUID d = UUID.randomUUID();
+
+    @Test
+    void rejectsCycles() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        assertTrue(graph.addDependency(b, a));   // a blocks b
+        assertTrue(graph.addDependency(c, b));   // b blocks c
+
+        assertFalse(graph.addDependency(a, a));
+        assertFalse(graph.addDependency(a, b));
+        assertFalse(graph.addDependency(a, c));
+        assertTrue(graph.wouldCreateCycle(a, c));
+        assertFalse(graph.wouldCreateCycle(c, a));
+        assertEquals(List.of(), graph.getBlockers(a, true));
+    }
+
+    @Test
+    void directAndTransitiveBlockers() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.addDependency(b, a);
+        graph.addDependency(c, b);
+        graph.addDependency(d, b);
+
+        assertEquals(List.of(b), graph.getBlockers(c, false));
+        assertEquals(Set.of(a, b), Set.copyOf(graph.getBlockers(c, true)));
+        assertEquals(Set.of(c, d), Set.copyOf(graph.getBlockedBy(b, false)));
+        assertEquals(Set.of(b, c, d), Set.copyOf(graph.getBlockedBy(a, true)));
+    }
+
+    @Test
+    void topologicalOrderPutsBlockersFirst() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.putTask(d, 1);
+        graph.addDependency(d, c);
+        graph.addDependency(c, a);
+        graph.addDependency(c, b);
+        graph.addDependency(b, a);
+
+        List<UUID> order = graph.topologicalOrder();
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf(a) < order.indexOf(b));
+        assertTrue(order.indexOf(b) < order.indexOf(c));
+        assertTrue(order.indexOf(c) < order.indexOf(d));
+    }
+
+    @Test
+    void criticalPathFollowsTheHeaviestChain() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.putTask(a, 3);
+        graph.putTask(b, 1);
+        graph.putTask(c, 8);
+        graph.putTask(d, 2);
+        graph.addDependency(d, b);   // a(3) -> b(1) -> d(2): 6
+        graph.addDependency(b, a);
+        graph.addDependency(d, c);   // c(8) -> d(2): 10
+
+        TaskDependencyGraph.CriticalPath path = graph.criticalPath();
+        assertEquals(10, path.getLength());
+        assertEquals(List.of(c, d), path.getPath());
+    }
+
+    @Test
+    void negativeStoryPointsCountAsZero() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.putTask(a, -1);
+        graph.putTask(b, 2);
+        graph.addDependency(b, a);
+
+        assertEquals(2, graph.criticalPath().getLength());
+    }
+
+    @Test
+    void removeTaskDropsItsEdges() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.addDependency(b, a);
+        graph.addDependency(c, b);
+        graph.removeTask(b);
+
+        assertFalse(graph.containsTask(b));
+        assertEquals(2, graph.size());
+        assertEquals(List.of(), graph.getBlockedBy(a, true));
+        assertEquals(List.of(), graph.getBlockers(c, true));
+        // a and c are no longer connected, so either direction is allowed again
+        assertTrue(graph.addDependency(a, c));
+    }
+
+    @Test
+    void removeDependencyAllowsTheReverseEdge() {
+        TaskDependencyGraph graph = new TaskDependencyGraph();
+        graph.addDependency(b, a);
+        assertFalse(graph.addDependency(a, b));
+
+        graph.removeDependency(b, a);
+        assertTrue(graph.addDependency(a, b));
+        assertEquals(List.of(b), graph.getBlockers(a, false));
+    }
+}
@@ -0,0 +1,72 @@
+package com.tmnhat.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// One shared HTTP client for service-to-service calls.
+// The JDK client keeps a keep-alive connection pool per host, negotiates HTTP/2 when the peer
+// supports it (HTTP/1.1 otherwise) and every request gets connect/read timeouts, so a stalled
+// peer cannot hold a request thread forever.
+@Configuration
+public class ServiceHttpClientConfig {
+
+    @Value("${services.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${services.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    // For calls that legitimately take long (AI training / estimation)
+    @Value("${services.http.long-read-timeout-ms:300000}")
+    private long longReadTimeoutMs;
+
+    @Value("${services.http.io-threads:8}")
+    private int ioThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService serviceHttpExecutor() {
+        return Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread thread = new Thread(r, "service-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public HttpClient serviceHttpClient(ExecutorService serviceHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(serviceHttpExecutor)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public RestTemplate serviceRestTemplate(HttpClient serviceHttpClient) {
+        return buildRestTemplate(serviceHttpClient, readTimeoutMs);
+    }
+
+    @Bean
+    public RestTemplate longRunningRestTemplate(HttpClient serviceHttpClient) {
+        return buildRestTemplate(serviceHttpClient, longReadTimeoutMs);
+    }
+
+    private RestTemplate buildRestTemplate(HttpClient httpClient, long timeoutMs) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        // Buffer bodies so requests carry Content-Length instead of chunked encoding
+        return new RestTemplate(new BufferingClientHttpRequestFactory(factory));
+    }
+}
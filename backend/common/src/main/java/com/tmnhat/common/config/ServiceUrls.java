@@ -0,0 +1,51 @@
+package com.tmnhat.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Base URLs of the other services, overridable per environment (see each service's application.properties)
+@Component
+public class ServiceUrls {
+
+    @Value("${projects.service.url:http://localhost:8083}")
+    private String projectsServiceUrl;
+
+    @Value("${sprints.service.url:http://localhost:8084}")
+    private String sprintsServiceUrl;
+
+    @Value("${tasks.service.url:http://localhost:8085}")
+    private String tasksServiceUrl;
+
+    @Value("${users.service.url:http://localhost:8086}")
+    private String usersServiceUrl;
+
+    @Value("${ai.service.url:http://ai-service:8088}")
+    private String aiServiceUrl;
+
+    @Value("${notification.service.url:http://localhost:8089}")
+    private String notificationServiceUrl;
+
+    public String getProjectsServiceUrl() {
+        return projectsServiceUrl;
+    }
+
+    public String getSprintsServiceUrl() {
+        return sprintsServiceUrl;
+    }
+
+    public String getTasksServiceUrl() {
+        return tasksServiceUrl;
+    }
+
+    public String getUsersServiceUrl() {
+        return usersServiceUrl;
+    }
+
+    public String getAiServiceUrl() {
+        return aiServiceUrl;
+    }
+
+    public String getNotificationServiceUrl() {
+        return notificationServiceUrl;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tmnhat.common.db;
+
+// SQL shared by every service that writes rows counted in task_counters (comments, attachments,
+// task members), so the counter is adjusted in the same statement as the row change.
+public final class TaskCounterSql {
+
+    public static final String COMMENTS = "comment_count";
+    public static final String ATTACHMENTS = "attachment_count";
+    public static final String MEMBERS = "member_count";
+
+    // Live counts of one task, used to seed a missing counter row
+    private static final String LIVE_COMMENTS = "(SELECT COUNT(*) FROM comments c WHERE c.task_id = %s AND c.is_deleted = false)";
+    private static final String LIVE_ATTACHMENTS = "(SELECT COUNT(*) FROM attachments a WHERE a.task_id = %s)";
+    private static final String LIVE_MEMBERS = "(SELECT COUNT(*) FROM task_members m WHERE m.task_id = %s)";
+
+    // CTEs that move `column` by +/- the number of rows per task in `changedCte` (a preceding
+    // data-modifying CTE returning task_id), to append after it in the same WITH clause.
+    // Existing counter rows are bumped directly; a task without one yet gets a row seeded from
+    // live counts. Those subqueries run on the statement's snapshot and don't see the row being
+    // changed, so the delta is added to the seed too.
+    public static String counterCte(String column, String changedCte, int sign) {
+        String delta = (sign < 0 ? "-" : "") + "d.n";
+        return """
+            counter_delta AS (
+                SELECT task_id, COUNT(*) AS n FROM %1$s GROUP BY task_id
+            ), counter_update AS (
+                UPDATE task_counters tc SET %2$s = GREATEST(tc.%2$s + %3$s, 0), updated_at = now()
+                FROM counter_delta d WHERE tc.task_id = d.task_id
+                RETURNING tc.task_id
+            ), counter_seed AS (
+                INSERT INTO task_counters (task_id, comment_count, attachment_count, member_count)
+                SELECT d.task_id, %4$s, %5$s, %6$s
+                FROM counter_delta d WHERE d.task_id NOT IN (SELECT task_id FROM counter_update)
+                ON CONFLICT (task_id) DO UPDATE
+                SET %2$s = GREATEST(task_counters.%2$s %7$s (SELECT x.n FROM counter_delta x WHERE x.task_id = EXCLUDED.task_id), 0),
+                    updated_at = now()
+            )
+        """.formatted(changedCte, column, delta,
+                seed(LIVE_COMMENTS, column.equals(COMMENTS), delta),
+                seed(LIVE_ATTACHMENTS, column.equals(ATTACHMENTS), delta),
+                seed(LIVE_MEMBERS, column.equals(MEMBERS), delta),
+                // a concurrent writer seeded the row first, without seeing ours: apply just the delta
+                sign < 0 ? "-" : "+");
+    }
+
+    public static String liveComments(String taskId) {
+        return LIVE_COMMENTS.formatted(taskId);
+    }
+
+    public static String liveAttachments(String taskId) {
+        return LIVE_ATTACHMENTS.formatted(taskId);
+    }
+
+    public static String liveMembers(String taskId) {
+        return LIVE_MEMBERS.formatted(taskId);
+    }
+
+    private static String seed(String live, boolean changed, String delta) {
+        String count = live.formatted("d.task_id");
+        return changed ? "GREATEST(" + count + " + " + delta + ", 0)" : count;
+    }
+
+    private TaskCounterSql() {
+    }
+}
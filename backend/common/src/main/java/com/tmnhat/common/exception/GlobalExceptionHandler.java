@@ -23,6 +23,20 @@ public class GlobalExceptionHandler {
                 .body(ResponseDataAPI.error(ex.getMessage()));
     }
 
+    //Xử lý xung đột khi dữ liệu đã bị người khác thay đổi (409)
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ResponseDataAPI> handleConflict(ConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ResponseDataAPI.error(ex.getMessage()));
+    }
+
+    //Xử lý lỗi quá tải, client nên thử lại sau (429)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ResponseDataAPI> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(ResponseDataAPI.error(ex.getMessage()));
+    }
+
     //Xử lý lỗi database (500)
     @ExceptionHandler(DatabaseException.class)
     public ResponseEntity<ResponseDataAPI> handleDatabaseException(DatabaseException ex) {
@@ -0,0 +1,76 @@
+package com.tmnhat.common.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker.
+ * CLOSED: calls pass; after {@code failureThreshold} failures in a row it opens.
+ * OPEN: calls are rejected until {@code openMs} has passed, then one trial call is let through (HALF_OPEN).
+ * HALF_OPEN: the trial's outcome closes or re-opens the breaker.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicLong timesOpened = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMs * 1_000_000L;
+    }
+
+    // Whether a call may go through now. Moves OPEN -> HALF_OPEN once the open period is over,
+    // letting exactly one caller through as the trial.
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt.get() >= openNanos) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public void recordFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    // The half-open trial ended without reaching the dependency; let the next caller be the trial
+    public void releaseTrial() {
+        if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            openedAt.set(System.nanoTime() - openNanos);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.get();
+    }
+
+    private void open() {
+        openedAt.set(System.nanoTime());
+        if (state.getAndSet(State.OPEN) != State.OPEN) {
+            timesOpened.incrementAndGet();
+        }
+        consecutiveFailures.set(0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tmnhat.common.resilience;
+
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead + circuit breaker for calls to one downstream service.
+ * At most {@code maxConcurrent} calls run at once; callers that cannot get a slot within
+ * {@code maxWaitMs}, or arrive while the breaker is open, get the fallback immediately instead
+ * of tying up a request thread.
+ */
+public class DependencyGuard {
+
+    private final String name;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public DependencyGuard(String name, int maxConcurrent, long maxWaitMs, int failureThreshold, long openMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitMs = maxWaitMs;
+        this.breaker = new CircuitBreaker(failureThreshold, openMs);
+    }
+
+    // Runs the call under the guard. Client errors (4xx) are the caller's problem, not the
+    // dependency's, so they are rethrown and do not trip the breaker.
+    public <T> T call(Supplier<T> action, Supplier<T> fallback) {
+        calls.increment();
+
+        if (!breaker.allowRequest()) {
+            breakerRejections.increment();
+            return fallback(fallback);
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            bulkheadRejections.increment();
+            // Not the dependency's fault; if this caller was the half-open trial, let another one try
+            breaker.releaseTrial();
+            return fallback(fallback);
+        }
+
+        boolean recorded = false;
+        try {
+            T result = action.get();
+            successes.increment();
+            breaker.recordSuccess();
+            recorded = true;
+            return result;
+        } catch (HttpClientErrorException e) {
+            successes.increment();
+            breaker.recordSuccess();
+            recorded = true;
+            throw e;
+        } catch (RuntimeException e) {
+            failures.increment();
+            breaker.recordFailure();
+            recorded = true;
+            System.err.println("Call to " + name + " failed: " + e.getMessage());
+            return fallback(fallback);
+        } finally {
+            bulkhead.release();
+            // An Error escaped the call: say nothing about the dependency, but don't leave the
+            // breaker waiting forever on a half-open trial that will never report back
+            if (!recorded) {
+                breaker.releaseTrial();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("state", breaker.getState().name());
+        metrics.put("timesOpened", breaker.getTimesOpened());
+        metrics.put("maxConcurrent", maxConcurrent);
+        metrics.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        metrics.put("calls", calls.sum());
+        metrics.put("successes", successes.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("bulkheadRejections", bulkheadRejections.sum());
+        metrics.put("breakerRejections", breakerRejections.sum());
+        metrics.put("fallbacks", fallbacks.sum());
+        return metrics;
+    }
+
+    private <T> T fallback(Supplier<T> fallback) {
+        fallbacks.increment();
+        return fallback.get();
+    }
+}
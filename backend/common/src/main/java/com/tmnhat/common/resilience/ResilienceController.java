@@ -0,0 +1,22 @@
+package com.tmnhat.common.resilience;
+
+import com.tmnhat.common.payload.ResponseDataAPI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Circuit breaker state and bulkhead counters per downstream dependency
+@RestController
+@RequestMapping("/api/resilience")
+public class ResilienceController {
+
+    @Autowired
+    private ResilienceRegistry resilienceRegistry;
+
+    @GetMapping("/metrics")
+    public ResponseEntity<ResponseDataAPI> getMetrics() {
+        return ResponseEntity.ok(ResponseDataAPI.successWithoutMeta(resilienceRegistry.getMetrics()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.tmnhat.common.resilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One DependencyGuard per downstream service, configured with
+// resilience.<name>.max-concurrent / max-wait-ms / failure-threshold / open-ms
+@Component
+public class ResilienceRegistry {
+
+    public static final String PROJECTS_SERVICE = "projects-service";
+    public static final String TASKS_SERVICE = "tasks-service";
+    public static final String NOTIFICATION_SERVICE = "notification-service";
+    public static final String AI_SERVICE = "ai-service";
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    public DependencyGuard guard(String name) {
+        return guards.computeIfAbsent(name, this::createGuard);
+    }
+
+    // Breaker state and counters of every guard used so far
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new TreeMap<>();
+        guards.forEach((name, guard) -> metrics.put(name, guard.getMetrics()));
+        return metrics;
+    }
+
+    private DependencyGuard createGuard(String name) {
+        String prefix = "resilience." + name + ".";
+        return new DependencyGuard(
+                name,
+                environment.getProperty(prefix + "max-concurrent", Integer.class, 20),
+                environment.getProperty(prefix + "max-wait-ms", Long.class, 50L),
+                environment.getProperty(prefix + "failure-threshold", Integer.class, 5),
+                environment.getProperty(prefix + "open-ms", Long.class, 10000L));
+    }
+}
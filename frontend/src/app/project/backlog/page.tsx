@@ -12,7 +12,6 @@ import { Sidebar } from "@/components/ui/sidebar";
 import { useNavigation } from "@/contexts/NavigationContext";
 import { Search, ChevronDown, MoreHorizontal, ChevronRight, Plus, Edit, Check, Calendar, ChevronUp, Trash2, X, Archive, Filter, Users } from "lucide-react";
 import { useUserStorage } from "@/hooks/useUserStorage";
-import { sendTaskOverdueNotification } from "@/utils/taskNotifications";
 import { safeValidateUUID, validateProjectId, validateSprintId, generateMockUUID, isValidUUID } from "@/utils/uuidUtils";
 import { 
   getUserPermissions, 
@@ -21,7 +21,6 @@ import {
 import { DraggableProjectTaskCard } from "@/components/ui/draggable-project-task-card";
 import { DroppableProjectColumn } from "@/components/ui/droppable-project-column";
 import { useProjectTasks } from "@/hooks/useProjectTasks";
-import { checkAndNotifyOverdueTasks } from "@/utils/taskNotifications";
 import { useUserStorage } from "@/hooks/useUserStorage";
 import { 
   getUserPermissions, 
@@ -683,7 +682,7 @@ export default function ProjectBoardPage() {
   // Shared function for sending deduplicated task notifications
   const sendTaskNotifications = async (
     task: Task,
-    notificationType: "TASK_UPDATED" | "TASK_DELETED" | "TASK_OVERDUE",
+    notificationType: "TASK_UPDATED" | "TASK_DELETED",
     customMessage?: string
   ) => {
     try {
@@ -742,7 +741,7 @@ export default function ProjectBoardPage() {
         // Silently handle product owner fetch error
       }
 
-      if (notificationType !== "TASK_OVERDUE" && userRoles.has(actorUserId)) {
+      if (userRoles.has(actorUserId)) {
         userRoles.delete(actorUserId);
       }
 
@@ -764,8 +763,6 @@ export default function ProjectBoardPage() {
             return `${actorUserName} updated task "${taskWithCreatedBy.title}" (You are the ${roleText})`;
           case "TASK_DELETED":
             return `${actorUserName} deleted task "${taskWithCreatedBy.title}" (You are the ${roleText})`;
-          case "TASK_OVERDUE":
-            return `Task "${taskWithCreatedBy.title}" is now overdue (You are the ${roleText})`;
           default:
             return `Task "${taskWithCreatedBy.title}" has been modified (You are the ${roleText})`;
         }
@@ -774,10 +771,9 @@ export default function ProjectBoardPage() {
       const baseNotificationData = {
         type: notificationType,
         title: notificationType === "TASK_UPDATED" ? "Task updated" :
-               notificationType === "TASK_DELETED" ? "Task deleted" :
-               notificationType === "TASK_OVERDUE" ? "Task overdue" : "Task notification",
-        actorUserId: notificationType === "TASK_OVERDUE" ? "system" : actorUserId,
-        actorUserName: notificationType === "TASK_OVERDUE" ? "System" : actorUserName,
+               notificationType === "TASK_DELETED" ? "Task deleted" : "Task notification",
+        actorUserId: actorUserId,
+        actorUserName: actorUserName,
         projectId: taskWithCreatedBy.projectId || projectId,
         projectName: project?.name || "TaskFlow Project",
         taskId: taskWithCreatedBy.id
@@ -1307,16 +1303,7 @@ export default function ProjectBoardPage() {
         setTasks(formattedTasks);
         }
         
-        // Check for overdue tasks and send notifications
-        try {
-          const tasksWithProjectName = formattedTasks.map(task => ({
-            ...task,
-            projectName: project?.name || "Unknown Project"
-          }));
-          await checkAndNotifyOverdueTasks(tasksWithProjectName);
-        } catch (overdueError) {
-          // Don't fail the main operation if overdue check fails
-        }
+        // Overdue notifications are produced server-side by the Tasks-Service overdue scanner
       } catch (error) {
         toast.error("Error loading tasks from API");
         // Set empty tasks array to ensure the UI renders properly
@@ -2584,49 +2571,6 @@ export default function ProjectBoardPage() {
     };
   }, []);
 
-  // Function to check for overdue tasks and send notifications
-  const checkAndSendOverdueNotifications = async () => {
-    if (!projectId) return;
-    
-    try {
-      // 1. Fetch overdue tasks for current project
-      const response = await axios.get(`${API_CONFIG.TASKS_SERVICE}/api/tasks/project/${projectId}/overdue`);
-      
-      if (response.data?.status === "SUCCESS" && response.data?.data) {
-        const overdueTasks = response.data.data;
-        
-        // 2. Send notifications for each overdue task
-        for (const task of overdueTasks) {
-          try {
-            await sendTaskNotifications(task, "TASK_OVERDUE");
-          } catch (notificationError) {
-            // Silently handle notification errors
-          }
-        }
-        
-        if (overdueTasks.length > 0) {
-          toast.info(`Found ${overdueTasks.length} overdue task(s) - notifications sent`, {
-            description: "Check your notifications for details"
-          });
-        }
-      }
-    } catch (error) {
-      // Silently handle overdue check errors
-    }
-  };
-
-  // Check for overdue tasks when component mounts or project changes
-  useEffect(() => {
-    if (projectId && project) {
-      // Check overdue tasks after a delay to ensure other data is loaded
-      const timeoutId = setTimeout(() => {
-        checkAndSendOverdueNotifications();
-      }, 3000); // 3 second delay
-      
-      return () => clearTimeout(timeoutId);
-    }
-  }, [projectId, project]);
-
   // Main useEffect to fetch project data and permissions
   useEffect(() => {
     const loadProjectData = async () => {
@@ -3,7 +3,6 @@ import axios, { AxiosError } from 'axios';
 import { useUserStorage } from '@/hooks/useUserStorage';
 import { 
   sendTaskStatusChangedNotification,
-  sendTaskOverdueNotification,
   sendTaskDeletedNotification 
 } from '@/utils/taskNotifications';
 import { API_CONFIG } from "@/lib/config";
@@ -188,7 +187,6 @@ export const useProjectTasks = () => {
   return {
     updateTaskStatus,
     sendTaskStatusChangeNotificationMulti, // Enhanced multi-recipient version
-    sendTaskOverdueNotification, // Re-export from utils
     sendTaskDeletedNotification, // Re-export from utils
     loading,
     error
@@ -103,67 +103,6 @@ const cleanupSprintOverdueNotifications = (activeSprints: Sprint[]): void => {
   }
 };
 
-// Check if a task is overdue
-export const isTaskOverdue = (task: Task): boolean => {
-  if (!task.dueDate || task.status === "DONE") {
-    return false;
-  }
-  
-  const dueDate = new Date(task.dueDate);
-  const now = new Date();
-  
-  // Remove time part for date comparison
-  dueDate.setHours(23, 59, 59, 999); // End of due date
-  
-  return now > dueDate;
-};
-
-// Send task overdue notification
-export const sendTaskOverdueNotification = async (task: Task): Promise<void> => {
-  if (!task.assigneeId) {
-    console.log('No assignee for overdue task:', task.id);
-    return;
-  }
-
-  try {
-    // Validate UUIDs before sending
-    const validatedProjectId = task.projectId ? validateProjectId(task.projectId) : null;
-    const validatedAssigneeId = validateUserId(task.assigneeId);
-    const validatedTaskId = validateTaskId(task.id);
-    
-    if (!validatedProjectId) {
-      console.error('Cannot send overdue notification: invalid project ID');
-      return;
-    }
-
-    // Standard payload format - only essential fields
-    const notificationData: StandardNotificationPayload = {
-      type: "TASK_OVERDUE",
-      title: "Task Overdue",
-      message: `Task "${task.title}" is overdue and needs your attention`,
-      recipientUserId: validatedAssigneeId,
-      actorUserId: validatedAssigneeId, // Self-notification for overdue
-      actorUserName: "System",
-      projectId: validatedProjectId,
-      projectName: task.projectName || "Unknown Project",
-      taskId: validatedTaskId
-    };
-
-    await axios.post(`${API_CONFIG.NOTIFICATION_SERVICE}/api/notifications/create`, notificationData);
-  } catch (error) {
-    console.error('❌ TASK OVERDUE: Failed to send notification:', error);
-  }
-};
-
-// Check all tasks for overdue status and send notifications
-export const checkAndNotifyOverdueTasks = async (tasks: Task[]): Promise<void> => {
-  for (const task of tasks) {
-    if (isTaskOverdue(task)) {
-      await sendTaskOverdueNotification(task);
-    }
-  }
-};
-
 // Send task status changed notification
 export const sendTaskStatusChangedNotification = async (
   task: Task,
@@ -0,0 +1,129 @@
+#!/usr/bin/env python3
+"""Stub downstream service for exercising timeouts, bulkheads and circuit breakers locally.
+
+Answers the Projects-Service permission endpoints used by Tasks/Sprints PermissionUtil
+(every user is a SCRUM_MASTER), the AI service /estimate and /estimate/batch endpoints
+(points derived from the title length), the NDJSON /train/stream endpoint (counts lines)
+and anything else with {"status": "SUCCESS"}.
+Latency and failures are injected per request:
+
+    STUB_PORT=18083 STUB_LATENCY_MS=3000 STUB_ERROR_RATE=0.5 python3 scripts/stub_service.py
+
+Then start Tasks-Service with PROJECTS_SERVICE_URL / AI_SERVICE_URL=http://localhost:18083 and watch
+GET /api/resilience/metrics. Latency, error rate and the reported AI model version can be changed at runtime:
+
+    curl -X POST 'localhost:18083/__stub?latency_ms=0&error_rate=1'
+    curl -X POST 'localhost:18083/__stub?model_version=stub-2'
+"""
+import json
+import os
+import random
+import re
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+settings = {
+    "latency_ms": int(os.environ.get("STUB_LATENCY_MS", "0")),
+    "error_rate": float(os.environ.get("STUB_ERROR_RATE", "0")),
+    "model_version": os.environ.get("STUB_MODEL_VERSION", "stub-1"),
+}
+
+PERMISSIONS_PATH = re.compile(r"^/api/projects/([0-9a-f-]{36})/members/([0-9a-f-]{36})/permissions$")
+
+
+def permissions(project_id, user_id):
+    return {
+        "userId": user_id, "projectId": project_id, "role": "SCRUM_MASTER",
+        "isOwner": False, "isScrumMaster": True, "canManageProject": False,
+        "canManageMembers": True, "canCreateSprint": True, "canManageSprints": True,
+        "canManageAnyTask": True, "canAssignTasks": True, "canViewReports": True, "canTrainAI": True,
+    }
+
+
+def estimate(task):
+    points = [1, 2, 3, 5, 8, 13][min(len(task.get("title", "")) // 10, 5)]
+    return {"estimated_story_points": points, "confidence": 0.5, "reasoning": "stub", "features_used": {},
+            "model_version": settings["model_version"]}
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def _send(self, status, body):
+        data = json.dumps(body).encode()
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        self.wfile.write(data)
+
+    def _read_raw(self):
+        if self.headers.get("Transfer-Encoding", "").lower() == "chunked":
+            data = b""
+            while True:
+                size = int(self.rfile.readline().split(b";")[0], 16)
+                if size == 0:
+                    self.rfile.readline()
+                    return data
+                data += self.rfile.read(size)
+                self.rfile.readline()
+        return self.rfile.read(int(self.headers.get("Content-Length", 0)))
+
+    def _read_body(self):
+        raw = self._read_raw()
+        if self.path.startswith("/train/stream"):
+            return [json.loads(line) for line in raw.split(b"\n") if line.strip()]
+        return json.loads(raw or b"null")
+
+    def _handle(self):
+        url = urlparse(self.path)
+        if url.path == "/__stub":
+            query = parse_qs(url.query)
+            if "latency_ms" in query:
+                settings["latency_ms"] = int(query["latency_ms"][0])
+            if "error_rate" in query:
+                settings["error_rate"] = float(query["error_rate"][0])
+            if "model_version" in query:
+                settings["model_version"] = query["model_version"][0]
+            return self._send(200, settings)
+
+        body = self._read_body() if self.command == "POST" else None
+        time.sleep(settings["latency_ms"] / 1000)
+        if random.random() < settings["error_rate"]:
+            return self._send(503, {"status": "FAILURE", "error": "injected failure"})
+
+        match = PERMISSIONS_PATH.match(url.path)
+        if match:
+            return self._send(200, {"status": "SUCCESS", "data": permissions(*match.groups())})
+        if url.path == "/api/projects/members/permissions/batch":
+            data = [{"projectId": p["projectId"], "userId": p["userId"],
+                     "permissions": permissions(p["projectId"], p["userId"])} for p in body or []]
+            return self._send(200, {"status": "SUCCESS", "data": data})
+        if url.path == "/train/stream":
+            rows = [row for row in body if not row.get("end")]
+            end = next((row for row in body if row.get("end")), None)
+            if end is None or end["count"] != len(rows):
+                return self._send(400, {"detail": "Training stream was truncated"})
+            return self._send(200, {"mode": parse_qs(url.query).get("mode", ["full"])[0], "received": len(rows),
+                                    "model_version": settings["model_version"]})
+        if url.path == "/estimate":
+            return self._send(200, estimate(body))
+        if url.path == "/estimate/batch":
+            settings["batches"] = settings.get("batches", 0) + 1
+            return self._send(200, {"results": [estimate(task) for task in body["tasks"]],
+                                    "model_version": settings["model_version"]})
+        if url.path == "/model/status":
+            return self._send(200, {"status": "loaded", "trained": True, "model_version": settings["model_version"]})
+        return self._send(200, {"status": "SUCCESS"})
+
+    do_GET = do_POST = do_PUT = do_PATCH = do_DELETE = _handle
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+if __name__ == "__main__":
+    port = int(os.environ.get("STUB_PORT", "18083"))
+    print(f"Stub service on :{port} (latency {settings['latency_ms']} ms, error rate {settings['error_rate']})")
+    ThreadingHTTPServer(("0.0.0.0", port), Handler).serve_forever()